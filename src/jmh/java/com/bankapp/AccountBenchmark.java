@@ -0,0 +1,110 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Deposit and withdrawal latency on one account, uncontended (each thread has its own account)
+// and contended (four threads share one account), plus rendering of the transaction history.
+// depositOutcome and withdrawOutcome skip the TransactionResult record the public methods return;
+// their gc.alloc.rate.norm is what the operation itself allocates (its share of the history log).
+// Accounts are recreated every iteration so their growing history does not carry over.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AccountBenchmark {
+    // Large enough that a second of one-cent withdrawals never runs out of funds.
+    private static final double OPENING_BALANCE = 1_000_000_000.0;
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new Account("OWN", "Owner", OPENING_BALANCE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new Account("SHARED", "Owner", OPENING_BALANCE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class History {
+        @Param({"10", "1000"})
+        int entries;
+
+        Account account;
+
+        @Setup
+        public void setUp() {
+            account = new Account("HISTORY", "Owner", 100.0);
+            for (int i = 1; i < entries; i++) {
+                account.depositCents(1);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult deposit(OwnAccount state) {
+        return state.account.depositCents(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult withdraw(OwnAccount state) {
+        return state.account.withdrawCents(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long depositOutcome(OwnAccount state) {
+        return state.account.depositOutcome(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long withdrawOutcome(OwnAccount state) {
+        return state.account.withdrawOutcome(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResult depositContended(SharedAccount state) {
+        return state.account.depositCents(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResult withdrawContended(SharedAccount state) {
+        return state.account.withdrawCents(1);
+    }
+
+    @Benchmark
+    public List<String> getTransactionHistory(History state) {
+        return state.account.getTransactionHistory();
+    }
+}
@@ -0,0 +1,59 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lookup cost of Bank.findAccount as the number of accounts grows.
+// Keys are drawn at random from the existing accounts (hits) or from numbers that were never added (misses).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class BankBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    @Param({"1000", "100000", "10000000"})
+    private int accountCount;
+
+    private Bank bank;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bank = BenchmarkData.bankWith(accountCount);
+        SplittableRandom random = new SplittableRandom(42);
+        hits = new String[KEYS];
+        misses = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hits[i] = BenchmarkData.accountNumber(random.nextInt(accountCount));
+            misses[i] = "MISSING" + i;
+        }
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountHit() {
+        return bank.findAccount(hits[next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountMiss() {
+        return bank.findAccount(misses[next++ & (KEYS - 1)]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Whole-bank operations that touch every account on each call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BankScanBenchmark {
+
+    @Param({"1000", "100000"})
+    private int accountCount;
+
+    private Bank bank;
+
+    @Setup
+    public void setUp() {
+        bank = BenchmarkData.bankWith(accountCount);
+    }
+
+    @Benchmark
+    public double getTotalBankBalance() {
+        return bank.getTotalBankBalance();
+    }
+
+    @Benchmark
+    public List<Account> getAllAccounts() {
+        return bank.getAllAccounts();
+    }
+
+    @Benchmark
+    public AccountPage listAccountsFirstPage() {
+        return bank.listAccounts(AccountOrder.NUMBER, 20);
+    }
+
+    @Benchmark
+    public List<AccountSummary> topByBalance() {
+        return bank.topByBalance(100);
+    }
+}
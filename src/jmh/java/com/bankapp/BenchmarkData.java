@@ -0,0 +1,21 @@
+package com.bankapp;
+
+// Shared set-up helpers for the benchmarks.
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    // Account number for index 'i', e.g. 42 -> "ACC0000042".
+    static String accountNumber(int i) {
+        return String.format("ACC%07d", i);
+    }
+
+    // A bank with 'count' accounts, each opened with a balance of $100.
+    static Bank bankWith(int count) {
+        Bank bank = new Bank();
+        for (int i = 0; i < count; i++) {
+            bank.addAccount(new Account(accountNumber(i), "Owner", 100.0));
+        }
+        return bank;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankapp;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Compares the heap footprint and garbage collection cost of Bank (one Account object per account)
+// with OffHeapBank (records in native memory) holding the same accounts.
+//
+// For each store it reports the heap still in use after a full GC, how long that full GC took, and
+// the GC count and time while random deposits run against it. Run with a fixed heap so the numbers
+// are comparable, e.g.:
+//     ./gradlew footprint -PfootprintArgs="--accounts 10000000 --deposits 20000000"
+public final class FootprintComparison {
+    private FootprintComparison() {
+    }
+
+    public static void main(String[] args) {
+        int accounts = 5_000_000;
+        int deposits = 10_000_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--accounts" -> accounts = Integer.parseInt(args[++i]);
+                case "--deposits" -> deposits = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        String[] numbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            numbers[i] = BenchmarkData.accountNumber(i);
+        }
+        System.out.printf(Locale.ROOT, "%,d accounts, %,d deposits%n", accounts, deposits);
+
+        // Heap in use before either store exists (mostly the account numbers, which both share)
+        long baseline = heapAfterFullGc();
+        measureBank(numbers, deposits, baseline);
+        measureOffHeapBank(numbers, deposits, baseline);
+    }
+
+    // Each store is built in its own method, so it is garbage once the method returns.
+    private static void measureBank(String[] numbers, int deposits, long baseline) {
+        Bank bank = new Bank();
+        for (String number : numbers) {
+            bank.addAccount(new Account(number, "Owner", 100.0));
+        }
+        report("Bank", baseline, 0, () -> {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < deposits; i++) {
+                bank.findAccount(numbers[random.nextInt(numbers.length)]).ifPresent(account -> account.depositCents(1));
+            }
+        }, deposits);
+    }
+
+    private static void measureOffHeapBank(String[] numbers, int deposits, long baseline) {
+        try (OffHeapBank bank = new OffHeapBank(numbers.length)) {
+            for (String number : numbers) {
+                bank.addAccountCents(number, "Owner", 10_000);
+            }
+            report("OffHeapBank", baseline, bank.getOffHeapBytes(), () -> {
+                SplittableRandom random = new SplittableRandom(42);
+                for (int i = 0; i < deposits; i++) {
+                    bank.depositCents(numbers[random.nextInt(numbers.length)], 1);
+                }
+            }, deposits);
+        }
+    }
+
+    // Measures the store that was just filled, then runs 'workload' and measures GC activity during it.
+    private static void report(String name, long baseline, long offHeapBytes, Runnable workload, int operations) {
+        long[] before = gcTotals();
+        long heap = heapAfterFullGc() - baseline;
+        long[] afterFullGc = gcTotals();
+        long started = System.nanoTime();
+        workload.run();
+        long elapsed = System.nanoTime() - started;
+        long[] after = gcTotals();
+        System.out.printf(Locale.ROOT, "%-12s heap %,8d MB  off-heap %,8d MB  full GC %,6d ms  |  "
+                        + "workload %,10.0f ops/s, %,5d GCs taking %,6d ms%n",
+                name, heap >> 20, offHeapBytes >> 20, afterFullGc[1] - before[1],
+                operations / (elapsed / 1e9), after[0] - afterFullGc[0], after[1] - afterFullGc[1]);
+    }
+
+    // Runs a full GC and returns the heap still in use. Two rounds, so finalizable and
+    // softly-reachable garbage from the first one is gone too.
+    private static long heapAfterFullGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Collections so far and milliseconds spent in them, over all collectors.
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+}
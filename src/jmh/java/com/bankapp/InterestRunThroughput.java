@@ -0,0 +1,72 @@
+package com.bankapp;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Measures the month-end interest and fee run (Bank.applyInterestAndFees) in accounts per second, and
+// its column kernel on its own with the Vector API and with the scalar loop.
+//
+// Each run posts to every account, so each adds two history entries per account; give the JVM enough
+// heap for the account count, e.g.:
+//     ./gradlew interestRun -PinterestArgs="--accounts 10000000 --runs 3"
+public final class InterestRunThroughput {
+    private InterestRunThroughput() {
+    }
+
+    public static void main(String[] args) {
+        int accounts = 10_000_000;
+        int runs = 3;
+        long ratePpm = 2_500;
+        long feeCents = 500;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--accounts" -> accounts = Integer.parseInt(value);
+                case "--runs" -> runs = Integer.parseInt(value);
+                case "--rate-ppm" -> ratePpm = Long.parseLong(value);
+                case "--fee-cents" -> feeCents = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        System.out.printf(Locale.ROOT, "%,d accounts, %d ppm interest, %d cents fee, Vector API %s%n",
+                accounts, ratePpm, feeCents, InterestKernel.VECTORIZED ? "on" : "off (scalar kernel)");
+
+        measureKernel(accounts, ratePpm, feeCents);
+
+        Bank bank = new Bank();
+        SplittableRandom random = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccount(new Account(BenchmarkData.accountNumber(i), "Owner", random.nextLong(10_000_000_000L), now));
+        }
+        for (int run = 1; run <= runs; run++) {
+            long before = bank.getTotalBankBalanceCents();
+            InterestRunResult result = bank.applyInterestAndFees(ratePpm, feeCents);
+            if (bank.getTotalBankBalanceCents() != before + result.netCents()) {
+                throw new IllegalStateException("Bank total does not match the run's postings");
+            }
+            System.out.printf(Locale.ROOT, "Run %d: %s", run, result.summary());
+        }
+    }
+
+    // Times the kernel alone over one column of random balances, vector path (if present) and scalar.
+    private static void measureKernel(int accounts, long ratePpm, long feeCents) {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] balances = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            balances[i] = random.nextLong(10_000_000_000L);
+        }
+        long[] interest = new long[accounts];
+        long[] fees = new long[accounts];
+        for (int round = 0; round < 5; round++) {
+            long started = System.nanoTime();
+            InterestKernel.compute(balances, interest, fees, 0, accounts, ratePpm, feeCents);
+            long vector = System.nanoTime() - started;
+            started = System.nanoTime();
+            InterestKernel.computeScalar(balances, interest, fees, 0, accounts, ratePpm, feeCents);
+            long scalar = System.nanoTime() - started;
+            System.out.printf(Locale.ROOT, "Kernel round %d: compute %,.0f accounts/s, scalar %,.0f accounts/s%n",
+                    round + 1, accounts / (vector / 1e9), accounts / (scalar / 1e9));
+        }
+    }
+}
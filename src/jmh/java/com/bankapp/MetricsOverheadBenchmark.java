@@ -0,0 +1,78 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cost of the always-on BankMetrics: the same operations with recording on and off.
+// The contended variants show whether the counters and histograms become a shared bottleneck.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MetricsOverheadBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    private Bank bank;
+    private Account[] accounts;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bank = BenchmarkData.bankWith(ACCOUNTS);
+        bank.getMetrics().setEnabled(metricsEnabled);
+        accounts = bank.getAllAccounts().toArray(new Account[0]);
+        for (Account account : accounts) {
+            account.depositCents(1_000_000_000L); // Enough for every withdrawal in an iteration
+        }
+    }
+
+    // Each thread works on its own account, so the only shared state is the bank's metrics and totals.
+    @State(Scope.Thread)
+    public static class Slot {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+        final int index = NEXT.getAndIncrement() % ACCOUNTS;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult deposit(Slot slot) {
+        return accounts[slot.index].depositCents(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult withdraw(Slot slot) {
+        return accounts[slot.index].withdrawCents(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Account> findAccount(Slot slot) {
+        return bank.findAccount(accounts[slot.index].getAccountNumber());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResult depositFourThreads(Slot slot) {
+        return accounts[slot.index].depositCents(1);
+    }
+}
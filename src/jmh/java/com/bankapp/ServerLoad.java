@@ -0,0 +1,77 @@
+package com.bankapp;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Measures BankServer with many concurrent connections: requests per second and p99 latency of a
+// round trip, with every client on its own virtual thread alternating DEPOSIT and BALANCE requests.
+//
+// Each connection uses two descriptors in this process (client and server side), so raise the
+// open-file limit before going much above the default, e.g.:
+//     ./gradlew serverLoad -PserverArgs="--connections 10000 --requests 20"
+public final class ServerLoad {
+    private ServerLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = 1_000;
+        int requestsPerConnection = 20;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--connections" -> connections = Integer.parseInt(value);
+                case "--requests" -> requestsPerConnection = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Bank bank = new Bank();
+        bank.addAccount(new Account("ACC001", "Alice", 500.0));
+        try (BankServer server = BankServer.start(bank, 0, InetAddress.getLoopbackAddress())) {
+            String host = InetAddress.getLoopbackAddress().getHostAddress();
+            int requests = requestsPerConnection;
+            long[] latencies = new long[connections * requests];
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch connected = new CountDownLatch(connections);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> clients = new ArrayList<>(connections);
+            for (int c = 0; c < connections; c++) {
+                int offset = c * requests;
+                clients.add(Thread.ofVirtual().start(() -> {
+                    try (BankClient client = BankClient.connect(host, server.getPort())) {
+                        connected.countDown();
+                        start.await();
+                        for (int i = 0; i < requests; i++) {
+                            long sent = System.nanoTime();
+                            String response = client.call(i % 2 == 0 ? "DEPOSIT ACC001 1" : "BALANCE ACC001");
+                            latencies[offset + i] = System.nanoTime() - sent;
+                            if (!response.startsWith("OK")) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        connected.countDown();
+                    }
+                }));
+            }
+            connected.await();
+            long started = System.nanoTime();
+            start.countDown();
+            for (Thread client : clients) {
+                client.join();
+            }
+            long elapsed = System.nanoTime() - started;
+
+            Arrays.sort(latencies);
+            long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+            System.out.printf(Locale.ROOT, "%,d connections x %d requests: %,.0f requests/s, p99 %.3f ms, %d failed%n",
+                    connections, requests, latencies.length / (elapsed / 1e9), p99 / 1e6, failures.get());
+        }
+    }
+}
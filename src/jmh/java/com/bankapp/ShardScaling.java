@@ -0,0 +1,123 @@
+package com.bankapp;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures how ShardedBank throughput scales with the number of shards, next to the lock-based Bank
+// driven by the same number of caller threads.
+//
+// Every caller issues a mix of deposits and transfers between random accounts (so with n shards about
+// (n-1)/n of the transfers cross shards), keeping up to --window operations outstanding before it waits
+// for the oldest one. Run with, e.g.:
+//     ./gradlew shardScaling -PshardArgs="--shards 1,2,4,8 --callers 8 --duration 10s"
+public final class ShardScaling {
+    private ShardScaling() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int accounts = 100_000;
+        int[] shardCounts = {1, 2, 4, 8};
+        int callers = Runtime.getRuntime().availableProcessors();
+        int window = 256;
+        int transferPercent = 50;
+        Duration duration = Duration.ofSeconds(5);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--accounts" -> accounts = Integer.parseInt(value);
+                case "--shards" -> shardCounts = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                case "--callers" -> callers = Integer.parseInt(value);
+                case "--window" -> window = Integer.parseInt(value);
+                case "--transfers" -> transferPercent = Integer.parseInt(value);
+                case "--duration" -> duration = LoadGenerator.parseDuration(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        String[] keys = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            keys[i] = BenchmarkData.accountNumber(i);
+        }
+        System.out.printf(Locale.ROOT, "%,d accounts, %d caller(s), %d%% transfers, window %d, %,d ms per run, %d cores%n",
+                accounts, callers, transferPercent, window, duration.toMillis(), Runtime.getRuntime().availableProcessors());
+
+        Bank bank = new Bank();
+        for (String key : keys) {
+            bank.addAccount(new Account(key, "Owner", 1_000.0));
+        }
+        int percent = transferPercent;
+        double lockedRate = drive(callers, duration, (random, done) -> {
+            String from = keys[random.nextInt(keys.length)];
+            if (random.nextInt(100) < percent) {
+                bank.transferCents(from, keys[random.nextInt(keys.length)], 1);
+            } else {
+                bank.findAccount(from).ifPresent(account -> account.depositCents(1));
+            }
+            done.increment();
+        });
+        System.out.printf(Locale.ROOT, "%-14s %,12.0f ops/s%n", "Bank (locks)", lockedRate);
+
+        for (int shards : shardCounts) {
+            try (ShardedBank sharded = new ShardedBank(shards)) {
+                CompletableFuture<?>[] added = new CompletableFuture<?>[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    added[i] = sharded.addAccount(keys[i], "Owner", 1_000.0);
+                }
+                CompletableFuture.allOf(added).join();
+                int limit = window;
+                double rate = drive(callers, duration, new Caller() {
+                    private final ThreadLocal<ArrayDeque<CompletableFuture<TransactionResult>>> outstanding =
+                            ThreadLocal.withInitial(ArrayDeque::new);
+
+                    @Override
+                    public void next(SplittableRandom random, LongAdder done) {
+                        ArrayDeque<CompletableFuture<TransactionResult>> queue = outstanding.get();
+                        if (queue.size() == limit) {
+                            queue.poll().join();
+                            done.increment();
+                        }
+                        String from = keys[random.nextInt(keys.length)];
+                        queue.add(random.nextInt(100) < percent
+                                ? sharded.transferCents(from, keys[random.nextInt(keys.length)], 1)
+                                : sharded.depositCents(from, 1));
+                    }
+                });
+                System.out.printf(Locale.ROOT, "%-14s %,12.0f ops/s  (%.2fx Bank)%n",
+                        shards + " shard(s)", rate, rate / lockedRate);
+            }
+        }
+    }
+
+    // One caller step: issue an operation, counting it in 'done' once it has completed.
+    @FunctionalInterface
+    private interface Caller {
+        void next(SplittableRandom random, LongAdder done);
+    }
+
+    // Runs 'caller' on 'threads' threads for 'duration' and returns completed operations per second.
+    private static double drive(int threads, Duration duration, Caller caller) throws InterruptedException {
+        LongAdder done = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(threads);
+        long until = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            new Thread(() -> {
+                try {
+                    while (System.nanoTime() < until) {
+                        caller.next(random, done);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }, "caller-" + t).start();
+        }
+        finished.await();
+        return done.sum() / ((System.nanoTime() - started) / 1e9);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Runs the same skewed workload against a Bank that keeps every account in memory and one with
+// account tiering, and reports the heap each needs plus the tiered bank's cache hit ratio.
+//
+// Every account gets a few history entries up front. The workload then deposits into accounts drawn
+// from a Zipf distribution, so a small set of accounts gets most of the traffic. Run with, e.g.:
+//     ./gradlew tiering -PtieringArgs="--accounts 1000000 --resident 50000 --theta 0.99"
+public final class TieringComparison {
+    private TieringComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int accounts = 200_000;
+        int resident = 20_000;
+        int history = 10;
+        int operations = 2_000_000;
+        double theta = 0.99;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--accounts" -> accounts = Integer.parseInt(value);
+                case "--resident" -> resident = Integer.parseInt(value);
+                case "--history" -> history = Integer.parseInt(value);
+                case "--ops" -> operations = Integer.parseInt(value);
+                case "--theta" -> theta = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        String[] numbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            numbers[i] = BenchmarkData.accountNumber(i);
+        }
+        LoadGenerator.KeyChooser.Zipf zipf = new LoadGenerator.KeyChooser.Zipf(accounts, theta);
+        System.out.printf(Locale.ROOT, "%,d accounts with %d history entries each, %,d zipf(%.2f) deposits%n",
+                accounts, history, operations, theta);
+
+        long baseline = heapAfterFullGc();
+        long inMemoryHeap = measure("All in memory", new Bank(), numbers, history, operations, zipf, baseline);
+
+        Path directory = Files.createTempDirectory("bank-tiering");
+        try {
+            Bank tiered = new Bank();
+            tiered.enableAccountTiering(directory, resident);
+            long tieredHeap = measure("Tiered", tiered, numbers, history, operations, zipf, baseline);
+            System.out.printf(Locale.ROOT, "Tiered bank: %,d of %,d accounts resident, %,d paged out so far; "
+                            + "heap saved %,d MB (%.0f%%)%n",
+                    tiered.getResidentAccountCount(), accounts, tiered.getAccountEvictions(),
+                    (inMemoryHeap - tieredHeap) >> 20, 100.0 * (inMemoryHeap - tieredHeap) / inMemoryHeap);
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Fills 'bank', reports its heap, then runs the workload. Returns the heap the filled bank needs.
+    private static long measure(String name, Bank bank, String[] numbers, int history, int operations,
+                                LoadGenerator.KeyChooser.Zipf zipf, long baseline) {
+        for (String number : numbers) {
+            Account account = new Account(number, "Owner " + number, 100.0);
+            for (int i = 0; i < history; i++) {
+                account.depositCents(1);
+            }
+            bank.addAccount(account);
+        }
+        long heap = heapAfterFullGc() - baseline;
+        LoadGenerator.KeyChooser chooser = zipf.forThread(42);
+        long hits = bank.getAccountCacheHits();
+        long misses = bank.getAccountCacheMisses();
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            bank.findAccount(numbers[chooser.next()]).ifPresent(account -> account.depositCents(1));
+        }
+        long elapsed = System.nanoTime() - started;
+        hits = bank.getAccountCacheHits() - hits;
+        misses = bank.getAccountCacheMisses() - misses;
+        String ratio = hits + misses == 0 ? "n/a" : String.format(Locale.ROOT, "%.2f%%", 100.0 * hits / (hits + misses));
+        System.out.printf(Locale.ROOT, "%-14s heap %,6d MB  |  workload %,10.0f ops/s, cache hit ratio %s%n",
+                name, heap >> 20, operations / (elapsed / 1e9), ratio);
+        return heap;
+    }
+
+    private static long heapAfterFullGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfer throughput under lock contention: 1 to 8 threads moving money between random pairs of
+// 16 accounts of a Bank with only 4 lock stripes, so threads keep colliding on the same locks.
+// Compare the ops/s of the four methods for how striped locking scales.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+    private static final int ACCOUNTS = 16;
+    private static final String[] NUMBERS = new String[ACCOUNTS];
+
+    static {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            NUMBERS[i] = "T" + i;
+        }
+    }
+
+    private Bank bank;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @Setup
+    public void setUp() {
+        bank = new Bank(4);
+        for (String number : NUMBERS) {
+            bank.addAccount(new Account(number, "Owner", 1_000_000.0));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult transfer1Thread(Caller caller) {
+        return transfer(caller.random);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public TransactionResult transfer2Threads(Caller caller) {
+        return transfer(caller.random);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResult transfer4Threads(Caller caller) {
+        return transfer(caller.random);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResult transfer8Threads(Caller caller) {
+        return transfer(caller.random);
+    }
+
+    private TransactionResult transfer(SplittableRandom random) {
+        return bank.transferCents(NUMBERS[random.nextInt(ACCOUNTS)], NUMBERS[random.nextInt(ACCOUNTS)],
+                1 + random.nextInt(500));
+    }
+}
@@ -0,0 +1,82 @@
+package com.bankapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// What the velocity check costs a withdrawal: the same withdrawal from an account of a bank without
+// WithdrawalLimits and of one with limits that never turn it down, plus the window check on its own.
+// Compare withdraw and withdrawChecked (and their gc.alloc.rate.norm) for the added latency.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(1)
+public class WithdrawalCheckBenchmark {
+    // Large enough that a second of one-cent withdrawals never runs out of funds or hits a limit.
+    private static final double OPENING_BALANCE = 1_000_000_000.0;
+    private static final WithdrawalLimits LIMITS =
+            new WithdrawalLimits(1L << 40, 1L << 50, 60_000, 100_000_00);
+
+    @State(Scope.Thread)
+    public static class Unchecked {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Bank bank = new Bank();
+            account = new Account("OWN", "Owner", OPENING_BALANCE);
+            bank.addAccount(account);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Checked {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Bank bank = new Bank();
+            bank.setWithdrawalLimits(LIMITS);
+            account = new Account("OWN", "Owner", OPENING_BALANCE);
+            bank.addAccount(account);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Window {
+        VelocityWindow window;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            window = new VelocityWindow();
+        }
+    }
+
+    @Benchmark
+    public TransactionResult withdraw(Unchecked state) {
+        return state.account.withdrawCents(1);
+    }
+
+    @Benchmark
+    public TransactionResult withdrawChecked(Checked state) {
+        return state.account.withdrawCents(1);
+    }
+
+    @Benchmark
+    public long velocityCheck(Window state) {
+        return state.window.tryAcquire(System.currentTimeMillis(), 1, LIMITS);
+    }
+}
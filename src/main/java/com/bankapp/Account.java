@@ -1,30 +1,128 @@
 package com.bankapp;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
 
 public class Account {
+    // Balances are kept in cents so that arithmetic is exact and can be updated atomically.
+    private static final long CENTS_PER_UNIT = 100;
+
+    // Returned by the balance updates below when the account has been closed (deleted from its bank).
+    static final long CLOSED = -2;
+
+    // Layout of 'balanceCents'. Balances are never negative, so the sign bit marks a closed account
+    // and the final balance stays readable in the value bits. The other high bits belong to balance
+    // snapshots: PRESERVING_BIT is held for the few instructions it takes to replace 'version', and
+    // the stamp changes whenever 'version' does, so a compare-and-set based on a stale read fails.
+    private static final long CLOSED_BIT = Long.MIN_VALUE;
+    private static final long PRESERVING_BIT = 1L << 62;
+    private static final int STAMP_SHIFT = 56;
+    private static final long STAMP_MASK = 0x3FL << STAMP_SHIFT;
+    private static final long VALUE_MASK = (1L << STAMP_SHIFT) - 1;
+    // Largest balance an account can hold, in cents (about 720 trillion dollars).
+    static final long MAX_BALANCE_CENTS = VALUE_MASK;
+
+    // Kinds of balance change, for update().
+    private static final int CREDIT = 0;
+    private static final int DEBIT = 1;
+    private static final int ADJUST = 2;
+    private static final int CLOSE = 3;
+
+    // VarHandles used for lock-free compare-and-set updates of 'balanceCents' and 'velocity'.
+    private static final VarHandle BALANCE;
+    private static final VarHandle VELOCITY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BALANCE = lookup.findVarHandle(Account.class, "balanceCents", long.class);
+            VELOCITY = lookup.findVarHandle(Account.class, "velocity", VelocityWindow.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // The balance a snapshot taken at epoch 'boundary' sees, kept once changes of a later epoch
+    // start. 'stamp' is the stamp 'balanceCents' carried while this was current.
+    private record Version(long boundary, long viewCents, long stamp) {
+    }
+
     // Instance variables are 'private' to protect them from outside access.
     // This is Encapsulation.
-    private String accountNumber;
-    private String ownerName;
-    private double balance;
-    private List<String> transactionHistory;
+    private final String accountNumber;
+    private final String ownerName;
+    private final long openingBalanceCents;
+    private volatile long balanceCents;
+    // Balance as of the last snapshot epoch that later changes have moved past (null before that).
+    // One per account at most, so open snapshots cost memory per account written, not per write.
+    private volatile Version version;
+    private final TransactionLog transactionLog;
+    private volatile BankEventListener listener = BankEventListener.NONE;
+    // The bank this account belongs to, told about every balance change so it can keep its totals.
+    private volatile Bank bank;
+    // Slot sequence this object was paged out of by its bank's account tiering, or -1. A paged-out
+    // object is closed, and operations on it are passed on to the account as reloaded.
+    private volatile long evictedFrom = -1;
+    // Replayed changes that would have taken the balance below zero, waiting for the rest of the log
+    // (see replay). Zero outside replay. Guarded by 'this'.
+    private long replayPendingCents;
+    // Recent withdrawals, for the bank's velocity limits. Created on first use, so accounts of a bank
+    // without limits, and accounts that never pay anything out, do not carry one.
+    private volatile VelocityWindow velocity;
+    // Recent uses, kept by the bank's AccountCache. Plain on purpose: a lost update only skews an
+    // estimate, and hot accounts stay at the cap, so lookups of them do not write here.
+    int cacheUses;
 
     // Constructor: A special method for creating new 'Account' objects.
     public Account(String accountNumber, String ownerName, double initialDeposit) {
+        this(accountNumber, ownerName, Math.max(0, toCents(initialDeposit)), System.currentTimeMillis());
+    }
+
+    // Creates an account with an exact opening balance, e.g. when rebuilding it from a log.
+    Account(String accountNumber, String ownerName, long initialCents, long openedAtMillis) {
+        if (initialCents > MAX_BALANCE_CENTS) {
+            throw new IllegalArgumentException("Opening balance too large");
+        }
         this.accountNumber = accountNumber;
         this.ownerName = ownerName;
-        this.balance = initialDeposit;
-        this.transactionHistory = new ArrayList<>();
-        if (initialDeposit > 0) {
-            this.transactionHistory.add("Initial deposit: $" + String.format("%.2f", initialDeposit));
+        this.openingBalanceCents = initialCents;
+        this.balanceCents = initialCents;
+        this.transactionLog = new TransactionLog();
+        if (initialCents > 0) {
+            this.transactionLog.append(openedAtMillis, TransactionType.INITIAL_DEPOSIT, initialCents, initialCents, null);
         }
     }
 
+    // Recreates an account from a snapshot: its balances plus whatever part of the history was kept.
+    // A balance out of range is one taken mid-replay (see getReplayedBalanceCents) and waits for the log.
+    Account(String accountNumber, String ownerName, long openingCents, long balanceCents, TransactionLog history) {
+        this.accountNumber = accountNumber;
+        this.ownerName = ownerName;
+        this.openingBalanceCents = openingCents;
+        this.balanceCents = Math.clamp(balanceCents, 0, MAX_BALANCE_CENTS);
+        this.replayPendingCents = balanceCents - this.balanceCents;
+        this.transactionLog = history;
+    }
+
     // Public method (getter) to safely access the balance.
     public double getBalance() {
-        return balance;
+        return getBalanceCents() / (double) CENTS_PER_UNIT;
+    }
+
+    // Public method (getter) for the exact balance in cents. For a closed account, the balance it was closed with.
+    public long getBalanceCents() {
+        return balanceCents & VALUE_MASK;
+    }
+
+    // True once the account has been deleted from its bank. A closed account rejects every operation.
+    public boolean isClosed() {
+        return balanceCents < 0;
+    }
+
+    // The balance the account was opened with, in cents.
+    long getOpeningBalanceCents() {
+        return openingBalanceCents;
     }
 
     // Public method (getter) for the account number.
@@ -38,37 +136,466 @@ public class Account {
     }
 
     // Public method to deposit money.
-    public void deposit(double amount) {
-        if (amount > 0) {
-            balance += amount;
-            transactionHistory.add("Deposit: $" + String.format("%.2f", amount) + " | New balance: $" + String.format("%.2f", balance));
-            System.out.println("✅ Deposit successful. New balance: $" + String.format("%.2f", balance));
+    public TransactionResult deposit(double amount) {
+        return depositCents(toCents(amount));
+    }
+
+    // Deposits an exact amount of cents. Safe to call from many threads at once.
+    public TransactionResult depositCents(long cents) {
+        return TransactionResult.of(depositOutcome(cents));
+    }
+
+    // depositCents without the result record: returns the outcome packed into a long (see
+    // TransactionResult.pack), so no result object is allocated unless a listener is installed.
+    long depositOutcome(long cents) {
+        Bank owner = bank;
+        long started = owner == null ? 0 : owner.getMetrics().start();
+        long result;
+        if (cents <= 0) {
+            result = TransactionResult.pack(TransactionResult.Status.INVALID_AMOUNT, 0);
         } else {
-            System.out.println("❌ Deposit amount must be positive.");
+            long newBalance;
+            if (owner == null) {
+                newBalance = update(CREDIT, cents, 0);
+            } else {
+                long epoch = owner.enterEpoch();
+                try {
+                    newBalance = update(CREDIT, cents, epoch);
+                } finally {
+                    owner.exitEpoch(epoch);
+                }
+            }
+            if (newBalance == CLOSED) {
+                Account current = reloaded(owner);
+                if (current != null) {
+                    return current.depositOutcome(cents);
+                }
+                result = TransactionResult.pack(TransactionResult.Status.ACCOUNT_NOT_FOUND, getBalanceCents());
+            } else if (newBalance < 0) {
+                result = TransactionResult.pack(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED, getBalanceCents());
+            } else {
+                record(TransactionType.DEPOSIT, cents, newBalance, null);
+                if (owner != null) {
+                    owner.deposited(cents);
+                }
+                result = TransactionResult.pack(TransactionResult.Status.SUCCESS, newBalance);
+            }
+        }
+        notify(TransactionType.DEPOSIT, cents, result);
+        if (owner != null) {
+            owner.getMetrics().deposit(TransactionResult.statusOf(result), started);
         }
+        return result;
     }
 
     // Public method to withdraw money.
-    public void withdraw(double amount) {
-        if (amount <= 0) {
-            System.out.println("❌ Withdrawal amount must be positive.");
-        } else if (balance >= amount) {
-            balance -= amount;
-            transactionHistory.add("Withdrawal: $" + String.format("%.2f", amount) + " | New balance: $" + String.format("%.2f", balance));
-            System.out.println("✅ Withdrawal successful. New balance: $" + String.format("%.2f", balance));
+    public TransactionResult withdraw(double amount) {
+        return withdrawCents(toCents(amount));
+    }
+
+    // Withdraws an exact amount of cents. The funds check and the update happen in one
+    // compare-and-set, so concurrent withdrawals can never overdraw the account.
+    public TransactionResult withdrawCents(long cents) {
+        return TransactionResult.of(withdrawOutcome(cents));
+    }
+
+    // withdrawCents without the result record, as depositOutcome is for deposits.
+    long withdrawOutcome(long cents) {
+        Bank owner = bank;
+        long started = owner == null ? 0 : owner.getMetrics().start();
+        long result;
+        // Counted against the bank's velocity limits before the balance changes, and taken back if it
+        // does not change after all. The check and the history entry share one clock read.
+        long now = System.currentTimeMillis();
+        long ticket = cents <= 0 || owner == null ? Bank.NOT_COUNTED : owner.acquireWithdrawal(this, cents, now);
+        if (cents <= 0) {
+            result = TransactionResult.pack(TransactionResult.Status.INVALID_AMOUNT, 0);
+        } else if (ticket == Bank.REJECTED) {
+            result = TransactionResult.pack(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, getBalanceCents());
+        } else {
+            long newBalance;
+            if (owner == null) {
+                newBalance = update(DEBIT, cents, 0);
+            } else {
+                long epoch = owner.enterEpoch();
+                try {
+                    newBalance = update(DEBIT, cents, epoch);
+                } finally {
+                    owner.exitEpoch(epoch);
+                }
+            }
+            if (newBalance < 0 && owner != null) {
+                owner.releaseWithdrawal(this, ticket, cents);
+            }
+            if (newBalance == CLOSED) {
+                Account current = reloaded(owner);
+                if (current != null) {
+                    return current.withdrawOutcome(cents);
+                }
+                result = TransactionResult.pack(TransactionResult.Status.ACCOUNT_NOT_FOUND, getBalanceCents());
+            } else if (newBalance < 0) {
+                result = TransactionResult.pack(TransactionResult.Status.INSUFFICIENT_FUNDS, getBalanceCents());
+            } else {
+                record(now, TransactionType.WITHDRAWAL, cents, newBalance, null);
+                if (owner != null) {
+                    owner.withdrew(cents);
+                    owner.withdrawalCommitted(this, TransactionType.WITHDRAWAL, cents);
+                }
+                result = TransactionResult.pack(TransactionResult.Status.SUCCESS, newBalance);
+            }
+        }
+        notify(TransactionType.WITHDRAWAL, cents, result);
+        if (owner != null) {
+            owner.getMetrics().withdrawal(TransactionResult.statusOf(result), started);
+        }
+        return result;
+    }
+
+    // Tells the listener about a deposit or withdrawal; the result record is only built if one listens.
+    private void notify(TransactionType type, long cents, long outcome) {
+        BankEventListener current = listener;
+        if (current != BankEventListener.NONE) {
+            current.onTransaction(this, type, cents, TransactionResult.of(outcome));
+        }
+    }
+
+    // Sets the listener that is told about every deposit and withdrawal on this account.
+    // Bank sets this for the accounts it holds; pass BankEventListener.NONE to stop notifications.
+    public void setEventListener(BankEventListener listener) {
+        this.listener = listener == null ? BankEventListener.NONE : listener;
+    }
+
+    // Debits this account as the sending side of a transfer. Used by Bank.transfer, which
+    // reports the transfer as a whole, so no event is sent from here. A transfer moves money within
+    // one bank, so the bank's total is not touched either.
+    // Returns the new balance, -1 if the funds are not there, or CLOSED.
+    long transferOut(long cents, String toAccountNumber) {
+        return transferOut(cents, toAccountNumber, 0);
+    }
+
+    // As above, for a transfer running in snapshot epoch 'epoch' (see Bank.enterEpoch).
+    long transferOut(long cents, String toAccountNumber, long epoch) {
+        long newBalance = update(DEBIT, cents, epoch);
+        if (newBalance >= 0) {
+            record(TransactionType.TRANSFER_OUT, cents, newBalance, toAccountNumber);
+        }
+        return newBalance;
+    }
+
+    // Credits this account as the receiving side of a transfer. Used by Bank.transfer.
+    // Returns the new balance, -1 if the balance would overflow, or CLOSED.
+    long transferIn(long cents, String fromAccountNumber) {
+        return transferIn(cents, fromAccountNumber, 0);
+    }
+
+    // As above, for a transfer running in snapshot epoch 'epoch'.
+    long transferIn(long cents, String fromAccountNumber, long epoch) {
+        long newBalance = update(CREDIT, cents, epoch);
+        if (newBalance >= 0) {
+            record(TransactionType.TRANSFER_IN, cents, newBalance, fromAccountNumber);
+        }
+        return newBalance;
+    }
+
+    // Credits interest posted by an interest and fee run (Bank.applyInterestAndFees), in snapshot
+    // epoch 'epoch'. Returns the new balance, -1 if the balance would overflow, or CLOSED.
+    long creditInterest(long cents, long epoch) {
+        long newBalance = update(CREDIT, cents, epoch);
+        if (newBalance >= 0) {
+            record(TransactionType.INTEREST, cents, newBalance, null);
+        }
+        return newBalance;
+    }
+
+    // Charges a fee posted by an interest and fee run, in snapshot epoch 'epoch', but never more than
+    // the balance: a withdrawal may have got there since the run read it. Returns the amount charged
+    // (0 for an empty account), or CLOSED.
+    long chargeFee(long cents, long epoch) {
+        while (true) {
+            long charge = Math.min(cents, getBalanceCents());
+            if (charge == 0) {
+                return 0;
+            }
+            long newBalance = update(DEBIT, charge, epoch);
+            if (newBalance == CLOSED) {
+                return CLOSED;
+            }
+            if (newBalance >= 0) {
+                record(TransactionType.FEE, charge, newBalance, null);
+                return charge;
+            }
+        }
+    }
+
+    // Re-applies an operation read back from a log. The original operation already passed its
+    // checks, so none are repeated here: records of one account can be logged in a different
+    // order than they were applied, and the final balance is the same in any order.
+    //
+    // So a withdrawal can come back before the deposit that funded it. A change that would take the
+    // balance below zero (or past MAX_BALANCE_CENTS) waits in 'replayPendingCents' and goes in with the
+    // next one that makes up for it; the balance word itself never leaves that range.
+    synchronized void replay(TransactionType type, long cents, String counterparty, long timestamp) {
+        long delta = type == TransactionType.WITHDRAWAL || type == TransactionType.TRANSFER_OUT
+                || type == TransactionType.FEE ? -cents : cents;
+        long change = replayPendingCents + delta;
+        Bank owner = bank;
+        long newBalance;
+        if (owner == null) {
+            newBalance = update(ADJUST, change, 0);
         } else {
-            System.out.println("❌ Withdrawal failed. Insufficient funds. Current balance: $" + String.format("%.2f", balance));
+            long epoch = owner.enterEpoch();
+            try {
+                newBalance = update(ADJUST, change, epoch);
+            } finally {
+                owner.exitEpoch(epoch);
+            }
+        }
+        if (newBalance == CLOSED) {
+            Account current = reloaded(owner);
+            if (current != null) {
+                current.replay(type, cents, counterparty, timestamp);
+            }
+            return;
+        }
+        long applied = 0;
+        if (newBalance < 0) {
+            // Out of range for now: the history shows the balance the log implies
+            replayPendingCents = change;
+            newBalance = getBalanceCents() + change;
+        } else {
+            replayPendingCents = 0;
+            applied = change;
+        }
+        transactionLog.append(timestamp, type, cents, newBalance, counterparty);
+        // The total follows the balance word, so a change still waiting is counted once it goes in.
+        // Both sides of a transfer are counted, and cancel out once both are replayed.
+        if (owner != null && applied != 0) {
+            owner.balanceChanged(applied);
+        }
+    }
+
+    // The balance including replayed changes still waiting to go in (see replay); negative if the log
+    // read back so far took out more than it put in. This is what a snapshot of the account keeps.
+    synchronized long getReplayedBalanceCents() {
+        return getBalanceCents() + replayPendingCents;
+    }
+
+    // Makes 'owner' the bank this account reports to. Returns false if the account already
+    // belongs to a bank or has been closed.
+    synchronized boolean attach(Bank owner) {
+        if (bank != null || isClosed()) {
+            return false;
+        }
+        bank = owner;
+        return true;
+    }
+
+    // Undoes attach, for an account that turned out not to fit in the bank after all.
+    synchronized void detach() {
+        bank = null;
+    }
+
+    // Closes the account so that every later operation is rejected. Returns the balance it was
+    // closed with, or -1 if it was already closed. Operations that completed before the close are
+    // all included in the returned balance.
+    long close() {
+        return close(0);
+    }
+
+    // As above, for a delete running in snapshot epoch 'epoch'.
+    long close(long epoch) {
+        return update(CLOSE, 0, epoch);
+    }
+
+    // Marks this object as paged out of slot 'sequence', before the bank closes it.
+    void markEvicted(long sequence) {
+        evictedFrom = sequence;
+    }
+
+    // True if this object was paged out by its bank; the account itself lives on (see Bank.findAccount).
+    boolean isEvicted() {
+        return evictedFrom >= 0;
+    }
+
+    // For an object paged out of its bank: the account as it is back in memory now, or null if this
+    // object was not paged out or the account has been deleted since.
+    private Account reloaded(Bank owner) {
+        long sequence = evictedFrom;
+        return owner == null || sequence < 0 ? null : owner.reload(accountNumber, sequence);
+    }
+
+    // This account's velocity window (see Bank.acquireWithdrawal), created on first use.
+    VelocityWindow velocityWindow() {
+        VelocityWindow window = velocity;
+        if (window == null) {
+            VelocityWindow created = new VelocityWindow();
+            window = (VelocityWindow) VELOCITY.compareAndExchange(this, null, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        return window;
+    }
+
+    // The balance a snapshot with the given epoch boundary sees: every change tagged with that epoch
+    // or an earlier one, and none tagged later. Only meaningful once no change of an epoch up to
+    // 'boundary' is still running (see SnapshotEpochs.advance).
+    long balanceAt(long boundary) {
+        while (true) {
+            long current = (long) BALANCE.getVolatile(this);
+            Version preserved = version;
+            if ((current & PRESERVING_BIT) != 0 || !matches(current, preserved)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // Changes after the boundary keep the balance they found in 'version' first, so if none is
+            // kept for this boundary, nothing after it has touched the account yet
+            return preserved != null && preserved.boundary() == boundary ? preserved.viewCents() : current & VALUE_MASK;
+        }
+    }
+
+    // Adds an entry to the transaction log. If the account was paged out between its balance change
+    // and this call, the log is sealed, and the entry goes to the account as reloaded instead.
+    private void record(TransactionType type, long cents, long newBalance, String counterparty) {
+        record(System.currentTimeMillis(), type, cents, newBalance, counterparty);
+    }
+
+    private void record(long now, TransactionType type, long cents, long newBalance, String counterparty) {
+        Account target = this;
+        while (target != null && !target.transactionLog.append(now, type, cents, newBalance, counterparty)) {
+            target = target.reloaded(target.bank);
+        }
+    }
+
+    // Applies one balance change atomically, as part of an operation tagged with snapshot epoch 'epoch'.
+    // CREDIT adds and DEBIT subtracts 'cents' (returning the new balance, -1 on overflow or missing
+    // funds, or CLOSED); ADJUST adds 'cents', which may be negative (returning the new balance, or -1
+    // if it would leave the range 0 to MAX_BALANCE_CENTS); CLOSE closes the account (returning the balance
+    // it was closed with, or -1 if already closed).
+    //
+    // Almost always this is one compare-and-set. The first change of a new epoch first keeps the
+    // current balance in 'version' for snapshots of the epoch before; a change still finishing from
+    // that earlier epoch updates the kept balance along with the real one.
+    private long update(int kind, long cents, long epoch) {
+        while (true) {
+            long current = (long) BALANCE.getVolatile(this);
+            Version preserved = version;
+            if ((current & PRESERVING_BIT) != 0 || !matches(current, preserved)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (current < 0) {
+                return kind == CLOSE ? -1 : CLOSED;
+            }
+            long boundary = preserved == null ? -1 : preserved.boundary();
+            if (epoch > boundary + 1) {
+                preserve(current, epoch - 1);
+                continue;
+            }
+            long value = current & VALUE_MASK;
+            long next;
+            switch (kind) {
+                case CREDIT -> {
+                    if (value > MAX_BALANCE_CENTS - cents) {
+                        return -1;
+                    }
+                    next = value + cents;
+                }
+                case DEBIT -> {
+                    if (value < cents) {
+                        return -1;
+                    }
+                    next = value - cents;
+                }
+                case ADJUST -> {
+                    if (cents < -value || cents > MAX_BALANCE_CENTS - value) {
+                        return -1;
+                    }
+                    next = value + cents;
+                }
+                default -> next = value;
+            }
+            long closed = kind == CLOSE ? CLOSED_BIT : 0;
+            long result = kind == CLOSE ? value : next;
+            if (epoch <= boundary) {
+                // Part of the epoch a snapshot is kept for: change the kept balance too
+                if (BALANCE.compareAndSet(this, current, current | PRESERVING_BIT)) {
+                    long stamp = nextStamp(current);
+                    version = new Version(boundary, preserved.viewCents() + (next - value), stamp);
+                    BALANCE.setVolatile(this, closed | stamp | next);
+                    return result;
+                }
+            } else if (BALANCE.compareAndSet(this, current, closed | (current & STAMP_MASK) | next)) {
+                return result;
+            }
         }
     }
 
-    // Method to get transaction history.
+    // Keeps 'current' as the balance snapshots of epoch 'boundary' see. Does nothing if the balance
+    // moved on meanwhile; the caller then reads it again.
+    private void preserve(long current, long boundary) {
+        if (BALANCE.compareAndSet(this, current, current | PRESERVING_BIT)) {
+            long stamp = nextStamp(current);
+            version = new Version(boundary, current & VALUE_MASK, stamp);
+            BALANCE.setVolatile(this, (current & ~STAMP_MASK) | stamp);
+        }
+    }
+
+    // True if 'preserved' is the version that was current along with the balance word 'current'.
+    private static boolean matches(long current, Version preserved) {
+        return (current & STAMP_MASK) == (preserved == null ? 0 : preserved.stamp());
+    }
+
+    private static long nextStamp(long current) {
+        return (current + (1L << STAMP_SHIFT)) & STAMP_MASK;
+    }
+
+    // Method to get transaction history as text. The text is rendered from the log on each call.
+    // This renders the whole history; for long histories use getRecentTransactions or the range
+    // queries and cursor on getTransactionLog().
     public List<String> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory); // Return a copy to prevent external modification
+        return transactionLog.describeAll();
+    }
+
+    // The most recent 'count' transactions, oldest first.
+    public List<TransactionEntry> getRecentTransactions(int count) {
+        return transactionLog.last(count);
+    }
+
+    // Method to get the number of entries in the transaction history.
+    public int getTransactionCount() {
+        return transactionLog.size();
+    }
+
+    // Method to get the structured transaction log (read-only from outside this package).
+    public TransactionLog getTransactionLog() {
+        return transactionLog;
     }
 
     // Method to get account summary.
     public String getAccountSummary() {
-        return String.format("Account: %s | Holder: %s | Balance: $%.2f | Transactions: %d", 
-                accountNumber, ownerName, balance, transactionHistory.size());
+        return String.format("Account: %s | Holder: %s | Balance: $%s | Transactions: %d",
+                accountNumber, ownerName, formatCents(getBalanceCents()), transactionLog.size());
+    }
+
+    // Converts a dollar amount to cents, rounding to the nearest cent.
+    // Returns -1 for amounts that are not finite or too large to represent.
+    static long toCents(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            return -1;
+        }
+        double cents = Math.rint(amount * CENTS_PER_UNIT);
+        if (cents >= Long.MAX_VALUE || cents <= Long.MIN_VALUE) {
+            return -1;
+        }
+        return (long) cents;
+    }
+
+    // Formats cents as a plain dollar amount with two decimals, e.g. 12345 -> "123.45".
+    static String formatCents(long cents) {
+        long abs = Math.abs(cents);
+        String sign = cents < 0 ? "-" : "";
+        long fraction = abs % CENTS_PER_UNIT;
+        return sign + (abs / CENTS_PER_UNIT) + (fraction < 10 ? ".0" : ".") + fraction;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.bankapp;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decides which accounts a Bank with account tiering keeps in memory: at most 'capacity' of them,
+// evicting by a frequency-aware CLOCK (GCLOCK).
+//
+// Each resident account carries a small use count, bumped on every lookup and capped at MAX_USES.
+// To make room, the clock hand walks the resident accounts in turn: one that was used gets its count
+// decremented and another round, one that was not is evicted. An account used often therefore
+// survives several rounds without use, while one touched once (say by a scan over dormant accounts)
+// goes at the next round. Lookups only write the count while it is below the cap, so accounts that
+// are hot stay read-only on the lookup path; the hand itself runs under a lock, but only when an
+// account is admitted.
+final class AccountCache {
+    static final int MAX_USES = 7;
+
+    private final int capacity;
+    // The clock: the hand takes accounts from the head and puts survivors back at the tail. Accounts
+    // deleted or evicted by other means stay here until the hand reaches them.
+    private final ArrayDeque<Account> clock = new ArrayDeque<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    AccountCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    // Records a lookup that found 'account' in memory.
+    void hit(Account account) {
+        hits.increment();
+        if (account.cacheUses < MAX_USES) {
+            account.cacheUses++;
+        }
+    }
+
+    // Records a lookup that had to load the account from disk.
+    void miss() {
+        misses.increment();
+    }
+
+    // Adds an account that was just created or loaded. It starts with one use, so it gets one round
+    // before it can be evicted.
+    synchronized void admit(Account account) {
+        account.cacheUses = 1;
+        clock.addLast(account);
+    }
+
+    // While more accounts are resident than fit, the next one to evict; null once everything fits.
+    // The caller evicts it (or finds it already gone) and asks again.
+    synchronized Account nextVictim() {
+        while (clock.size() > capacity) {
+            Account account = clock.pollFirst();
+            if (account.isClosed()) {
+                continue;
+            }
+            if (account.cacheUses > 0) {
+                account.cacheUses--;
+                clock.addLast(account);
+                continue;
+            }
+            evictions.increment();
+            return account;
+        }
+        return null;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    // Accounts the clock holds, including ones deleted since that the hand has not reached yet.
+    synchronized int size() {
+        return clock.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.bankapp;
+
+// Orders in which Bank.listAccounts can return accounts. Every order is total: ties are broken by
+// account number and then by the order the accounts were added, so paging never skips or repeats
+// an account whose sort key does not change between pages.
+public enum AccountOrder {
+    // By account number, as Strings compare.
+    NUMBER {
+        @Override
+        int compare(String numberA, long balanceA, long sequenceA, String numberB, long balanceB, long sequenceB) {
+            int byNumber = numberA.compareTo(numberB);
+            return byNumber != 0 ? byNumber : Long.compare(sequenceA, sequenceB);
+        }
+    },
+    // Lowest balance first.
+    BALANCE_ASCENDING {
+        @Override
+        int compare(String numberA, long balanceA, long sequenceA, String numberB, long balanceB, long sequenceB) {
+            int byBalance = Long.compare(balanceA, balanceB);
+            return byBalance != 0 ? byBalance : NUMBER.compare(numberA, balanceA, sequenceA, numberB, balanceB, sequenceB);
+        }
+    },
+    // Highest balance first.
+    BALANCE_DESCENDING {
+        @Override
+        int compare(String numberA, long balanceA, long sequenceA, String numberB, long balanceB, long sequenceB) {
+            int byBalance = Long.compare(balanceB, balanceA);
+            return byBalance != 0 ? byBalance : NUMBER.compare(numberA, balanceA, sequenceA, numberB, balanceB, sequenceB);
+        }
+    },
+    // In the order the accounts were added to the bank.
+    CREATED {
+        @Override
+        int compare(String numberA, long balanceA, long sequenceA, String numberB, long balanceB, long sequenceB) {
+            return Long.compare(sequenceA, sequenceB);
+        }
+    };
+
+    // Compares two accounts given by their fields, so accounts can be ranked without copying them first.
+    abstract int compare(String numberA, long balanceA, long sequenceA, String numberB, long balanceB, long sequenceB);
+
+    int compare(AccountSummary a, AccountSummary b) {
+        return compare(a.accountNumber(), a.balanceCents(), a.sequence(), b.accountNumber(), b.balanceCents(), b.sequence());
+    }
+}
@@ -0,0 +1,16 @@
+package com.bankapp;
+
+import java.util.List;
+
+// One page of an account listing. Pass last() to Bank.listAccounts to get the page after it.
+public record AccountPage(List<AccountSummary> accounts, boolean hasMore) {
+
+    public AccountPage {
+        accounts = List.copyOf(accounts);
+    }
+
+    // The last account on this page, or null if the page is empty.
+    public AccountSummary last() {
+        return accounts.isEmpty() ? null : accounts.get(accounts.size() - 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bankapp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+// Writes account listings as fixed-width text ("Account #", "Holder Name", "Balance" columns).
+// Rows are formatted into one reused buffer and written through a BufferedWriter, so a long report
+// costs a handful of large writes rather than a printf call per row.
+public final class AccountReport {
+    private static final int NUMBER_WIDTH = 15;
+    private static final int OWNER_WIDTH = 20;
+    private static final String LINE = System.lineSeparator();
+
+    private final BufferedWriter out;
+    private final StringBuilder row = new StringBuilder(64);
+
+    // Writes to 'out', buffered. Nothing reaches 'out' before flush() or writeAll() returns.
+    public AccountReport(Writer out) {
+        this.out = out instanceof BufferedWriter buffered ? buffered : new BufferedWriter(out);
+    }
+
+    public void writeHeader() throws IOException {
+        row.setLength(0);
+        pad(row.append("Account #"), NUMBER_WIDTH).append(' ');
+        pad(row.append("Holder Name"), NUMBER_WIDTH + 1 + OWNER_WIDTH).append(" Balance").append(LINE);
+        row.append("-".repeat(50)).append(LINE);
+        out.append(row);
+    }
+
+    public void writeRows(List<AccountSummary> accounts) throws IOException {
+        for (AccountSummary account : accounts) {
+            row.setLength(0);
+            pad(row.append(account.accountNumber()), NUMBER_WIDTH).append(' ');
+            pad(row.append(account.ownerName()), NUMBER_WIDTH + 1 + OWNER_WIDTH).append(" $")
+                    .append(Account.formatCents(account.balanceCents())).append(LINE);
+            out.append(row);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Writes a header and then every account of 'bank' in 'order'. Returns the number of accounts written.
+    //
+    // The accounts are ranked in one pass, as a single listAccounts page holding all of them: fetching
+    // page after page would rescan the whole bank for each, O(n^2 / pageSize) for the report. Paging
+    // is for interactive views that may stop early (see Main); a full export always reads everything.
+    public long writeAll(Bank bank, AccountOrder order) throws IOException {
+        writeHeader();
+        List<AccountSummary> accounts = bank.listAccounts(order, Integer.MAX_VALUE).accounts();
+        writeRows(accounts);
+        flush();
+        return accounts.size();
+    }
+
+    // Pads the row with spaces up to column 'width' (values that are longer are left as they are).
+    private static StringBuilder pad(StringBuilder row, int width) {
+        while (row.length() < width) {
+            row.append(' ');
+        }
+        return row;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Where a Bank with account tiering keeps the accounts it paged out of memory: one file per account,
+// holding the account and its whole history in SnapshotFile's encoding behind a checksum.
+//
+// Files are named after the account's slot sequence number, which is never reused. Like the cold
+// history files they are scratch space: leftovers from an earlier run are deleted when the store is
+// opened, and durability comes from the write-ahead log and snapshots, not from here.
+final class AccountStore {
+    private static final String PREFIX = "account-";
+    private static final String SUFFIX = ".cold";
+
+    private final Path directory;
+
+    AccountStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // Writes 'account' as the account of slot 'sequence', replacing any earlier file.
+    void write(long sequence, Account account) throws IOException {
+        ByteBuffer payload = SnapshotFile.encode(account, Integer.MAX_VALUE, ByteBuffer.allocate(256));
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(0, (int) crc.getValue());
+        try (FileChannel channel = FileChannel.open(path(sequence), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer[] buffers = {header, payload};
+            while (payload.hasRemaining()) {
+                channel.write(buffers);
+            }
+        }
+    }
+
+    // Reads back the account of slot 'sequence', as a new Account that belongs to no bank yet.
+    Account read(long sequence) throws IOException {
+        Path file = path(sequence);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int checksum = buffer.getInt();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupt account file " + file);
+        }
+        return SnapshotFile.decode(buffer);
+    }
+
+    void delete(long sequence) {
+        try {
+            Files.deleteIfExists(path(sequence));
+        } catch (IOException e) {
+            // Scratch space: a leftover file is deleted the next time the store is opened
+        }
+    }
+
+    private Path path(long sequence) {
+        return directory.resolve(PREFIX + sequence + SUFFIX);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bankapp;
+
+// One account in a report: copied from the account when the report page was built, so it does
+// not change afterwards. 'sequence' is the order in which the account was added to the bank.
+public record AccountSummary(String accountNumber, String ownerName, long balanceCents, long sequence) {
+
+    // The balance as a dollar amount.
+    public double getBalance() {
+        return balanceCents / 100.0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.bankapp;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A BankEventListener that prints human-readable messages on a background thread.
+// Callers only put a small event on a queue; formatting and writing happen on the writer
+// thread, which drains whatever has queued up and writes it with one print and one flush.
+// This keeps the stdout lock and String.format off the threads doing the banking work.
+public final class AsyncConsoleSink implements BankEventListener, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 1024;
+
+    private final PrintStream out;
+    private final BlockingQueue<Event> queue;
+    private final Thread writer;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object progress = new Object();
+    private long written;    // Guarded by 'progress'
+    private volatile boolean closed;
+
+    // One queued notification. 'second' is the receiving account of a transfer.
+    private record Event(Kind kind, Account account, Account second, TransactionType type,
+                         long amountCents, TransactionResult result) {
+    }
+
+    private enum Kind { CREATED, TRANSACTION, TRANSFER, STOP }
+
+    public AsyncConsoleSink(PrintStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    // 'capacity' bounds the number of queued events; callers block when the writer falls that far behind.
+    public AsyncConsoleSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "console-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAccountCreated(Account account) {
+        enqueue(new Event(Kind.CREATED, account, null, null, 0, null));
+    }
+
+    @Override
+    public void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+        enqueue(new Event(Kind.TRANSACTION, account, null, type, amountCents, result));
+    }
+
+    @Override
+    public void onTransfer(Account from, Account to, long amountCents, TransactionResult result) {
+        enqueue(new Event(Kind.TRANSFER, from, to, null, amountCents, result));
+    }
+
+    // Blocks until every event queued before this call has been written out.
+    public void flush() {
+        long target = enqueued.get();
+        synchronized (progress) {
+            while (written < target && writer.isAlive()) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Writes out everything still queued and stops the writer thread.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        enqueue(new Event(Kind.STOP, null, null, null, 0, null));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Event event) {
+        if (closed && event.kind() != Kind.STOP) {
+            return;
+        }
+        enqueued.incrementAndGet();
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markWritten(1);
+        }
+    }
+
+    // Writer loop: wait for one event, grab everything else that is ready, write it all at once.
+    private void drain() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Event event : batch) {
+                if (event.kind() == Kind.STOP) {
+                    running = false;
+                } else {
+                    text.append(describe(event)).append(System.lineSeparator());
+                }
+            }
+            out.print(text);
+            out.flush();
+            markWritten(batch.size());
+            batch.clear();
+            text.setLength(0);
+        }
+    }
+
+    private void markWritten(int count) {
+        synchronized (progress) {
+            written += count;
+            progress.notifyAll();
+        }
+    }
+
+    // Builds the message for one event. These are the messages Account and Bank used to print.
+    private static String describe(Event event) {
+        switch (event.kind()) {
+            case CREATED:
+                return "Account created for " + event.account().getAccountNumber();
+            case TRANSACTION:
+                return event.type() == TransactionType.DEPOSIT
+                        ? describeDeposit(event.result())
+                        : describeWithdrawal(event.result());
+            case TRANSFER:
+                return describeTransfer(event);
+            default:
+                return "";
+        }
+    }
+
+    private static String describeDeposit(TransactionResult result) {
+        switch (result.status()) {
+            case SUCCESS:
+                return "✅ Deposit successful. New balance: $" + Account.formatCents(result.balanceCents());
+            case INVALID_AMOUNT:
+                return "❌ Deposit amount must be positive.";
+            case ACCOUNT_NOT_FOUND:
+                return "❌ Deposit failed. The account has been closed.";
+            default:
+                return "❌ Deposit rejected. Balance would exceed the maximum allowed.";
+        }
+    }
+
+    private static String describeWithdrawal(TransactionResult result) {
+        switch (result.status()) {
+            case SUCCESS:
+                return "✅ Withdrawal successful. New balance: $" + Account.formatCents(result.balanceCents());
+            case INVALID_AMOUNT:
+                return "❌ Withdrawal amount must be positive.";
+            case ACCOUNT_NOT_FOUND:
+                return "❌ Withdrawal failed. The account has been closed.";
+            case VELOCITY_LIMIT_EXCEEDED:
+                return "❌ Withdrawal refused. The account's withdrawal limit has been reached.";
+            default:
+                return "❌ Withdrawal failed. Insufficient funds. Current balance: $"
+                        + Account.formatCents(result.balanceCents());
+        }
+    }
+
+    private static String describeTransfer(Event event) {
+        String route = " from " + event.account().getAccountNumber() + " to " + event.second().getAccountNumber();
+        switch (event.result().status()) {
+            case SUCCESS:
+                return "✅ Transfer of $" + Account.formatCents(event.amountCents()) + route + " successful.";
+            case INVALID_AMOUNT:
+                return "❌ Transfer amount must be positive.";
+            case INSUFFICIENT_FUNDS:
+                return "❌ Transfer" + route + " failed. Insufficient funds. Current balance: $"
+                        + Account.formatCents(event.result().balanceCents());
+            case VELOCITY_LIMIT_EXCEEDED:
+                return "❌ Transfer" + route + " refused. The account's withdrawal limit has been reached.";
+            default:
+                return "❌ Transfer" + route + " failed.";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankapp;
+
+import java.util.List;
+import java.util.Optional;
+
+// Every account's balance at one point in time, from Bank.balanceSnapshot. The accounts are in the
+// order they were added, and 'totalCents' is exactly their sum: an operation is either wholly in the
+// snapshot or not at all. 'epoch' orders snapshots of the same bank.
+public record BalanceSnapshot(long epoch, long takenAtMillis, List<AccountSummary> accounts, long totalCents) {
+
+    public BalanceSnapshot {
+        accounts = List.copyOf(accounts);
+    }
+
+    // The total as a dollar amount.
+    public double getTotalBalance() {
+        return totalCents / 100.0;
+    }
+
+    // The account with the given number, if it existed when the snapshot was taken.
+    public Optional<AccountSummary> findAccount(String accountNumber) {
+        for (AccountSummary account : accounts) {
+            if (account.accountNumber().equals(accountNumber)) {
+                return Optional.of(account);
+            }
+        }
+        return Optional.empty();
+    }
+}
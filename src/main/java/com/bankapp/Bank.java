@@ -1,40 +1,787 @@
 package com.bankapp;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
-public class Bank {
-    // Using a List to hold multiple Account objects.
-    private List<Account> accounts;
+public final class Bank {
+    // Number of lock stripes used by transfer when none is given.
+    private static final int DEFAULT_LOCK_STRIPES = 1024;
+    // History entries per account kept in memory when history tiering is on and no number is given.
+    public static final int DEFAULT_HOT_HISTORY_ENTRIES = 10_000;
+    private static final String COLD_HISTORY_PREFIX = "history-";
+    private static final String COLD_HISTORY_SUFFIX = ".cold";
+    // Below this many accounts, listAccounts ranks them on the calling thread.
+    private static final int PARALLEL_LISTING_THRESHOLD = 10_000;
+    // Accounts kept in memory when account tiering is on and no number is given.
+    public static final int DEFAULT_RESIDENT_ACCOUNTS = 100_000;
+    // Accounts an interest and fee run handles as one fork/join task.
+    private static final int INTEREST_CHUNK = 4096;
+    // Returned by acquireWithdrawal when no velocity limit applies, and when one turns the withdrawal down.
+    static final long NOT_COUNTED = -2;
+    static final long REJECTED = -1;
+
+    // Accounts are indexed by account number so lookups and deletes are O(1).
+    // Each entry remembers when it was added so getAllAccounts can keep insertion order.
+    private final Map<String, Slot> accounts;
+    private final AtomicLong nextSequence;
+    // Transfers lock the stripes of both accounts (lowest index first) instead of one global lock.
+    private final ReentrantLock[] transferLocks;
+    // Secondary index on owner name (lower-cased), sorted so a prefix is one contiguous range.
+    // The slot sequence in the key keeps accounts with the same owner apart, in the order they were added.
+    // Values are account numbers rather than accounts, so a paged-out account is not kept alive here.
+    private final ConcurrentNavigableMap<OwnerKey, String> owners = new ConcurrentSkipListMap<>();
+    private volatile BankEventListener listener = BankEventListener.NONE;
+
+    // Bank-wide totals, updated by the accounts as operations happen so reading them is O(1).
+    // LongAdder spreads the updates over per-thread cells, so they do not become a point of contention.
+    // The account count is the index's own counter, which ConcurrentHashMap already keeps the same way.
+    private final LongAdder totalCents = new LongAdder();
+    private final LongAdder depositCents = new LongAdder();
+    private final LongAdder depositCount = new LongAdder();
+    private final LongAdder withdrawalCents = new LongAdder();
+    private final LongAdder withdrawalCount = new LongAdder();
+    private final BankMetrics metrics = new BankMetrics(this);
+    // Where accounts move their old history when tiering is on (null when off).
+    private volatile Path historyDirectory;
+    private volatile int hotHistoryEntries;
+    // Epochs that balance snapshots are cut at; every balance change runs inside one.
+    private final SnapshotEpochs epochs = new SnapshotEpochs();
+    // Held while a balance snapshot is built, so there is never more than one epoch kept per account.
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    // The balance snapshot being built, if any.
+    private volatile OpenSnapshot openSnapshot;
+    // Account tiering (null when off): which accounts stay in memory, and where the others go.
+    private volatile AccountStore accountStore;
+    private volatile AccountCache accountCache;
+    // Checked before money leaves an account (null when off), and how many large ones it flagged.
+    private volatile WithdrawalLimits withdrawalLimits;
+    private final LongAdder largeTransactions = new LongAdder();
+
+    // A single index entry: the account plus its insertion sequence number and the snapshot epoch it
+    // was added in. With account tiering, a paged-out account has no Account object here, only what
+    // listings need ('cold').
+    private record Slot(long sequence, Account account, long epoch, ColdAccount cold) {
+        Slot(long sequence, Account account, long epoch) {
+            this(sequence, account, epoch, null);
+        }
+    }
+
+    // What the index keeps of an account that was paged out to the account store.
+    private record ColdAccount(String accountNumber, String ownerName, long balanceCents) {
+    }
+
+    // A balance snapshot being built: its epoch, and the accounts deleted after that epoch, which it
+    // must still include although they are gone from the index.
+    private record OpenSnapshot(long boundary, Queue<Slot> deleted) {
+    }
+
+    // The columns of an interest and fee run: entry i of each array belongs to slots[i].
+    private record InterestColumns(Slot[] slots, long[] balances, long[] interest, long[] fees,
+                                   long ratePpm, long feeCents) {
+    }
+
+    // Key of the owner-name index.
+    private record OwnerKey(String name, long sequence) implements Comparable<OwnerKey> {
+        static OwnerKey of(Slot slot) {
+            return new OwnerKey(normalize(slot.account().getOwnerName()), slot.sequence());
+        }
+
+        @Override
+        public int compareTo(OwnerKey other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(sequence, other.sequence);
+        }
+    }
 
     public Bank() {
-        this.accounts = new ArrayList<>();
+        this(DEFAULT_LOCK_STRIPES);
+    }
+
+    // Creates a bank whose transfers use the given number of lock stripes (rounded up to a power of two).
+    public Bank(int lockStripes) {
+        if (lockStripes <= 0) {
+            throw new IllegalArgumentException("lockStripes must be positive");
+        }
+        this.accounts = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+        int stripes = Integer.highestOneBit(lockStripes);
+        if (stripes < lockStripes) {
+            stripes <<= 1;
+        }
+        this.transferLocks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            transferLocks[i] = new ReentrantLock();
+        }
     }
 
     // Method to add a new account to the bank.
-    public void addAccount(Account account) {
-        accounts.add(account);
-        System.out.println("Account created for " + account.getAccountNumber());
+    // Returns false (and leaves the bank unchanged) if the account number is already taken, or if the
+    // account already belongs to a bank or was deleted from one. The account should not be in use by
+    // other threads while it is being added, or its opening balance may be counted twice in the total.
+    public boolean addAccount(Account account) {
+        if (!account.attach(this)) {
+            return false;
+        }
+        String number = account.getAccountNumber();
+        // Adds and deletes of a number run under its transfer stripe, so the number cannot be taken
+        // between the check below and the put, and a delete cannot be reported before this create.
+        ReentrantLock lock = transferLocks[stripeFor(number)];
+        Slot slot;
+        lock.lock();
+        try {
+            if (accounts.containsKey(number)) {
+                account.detach();
+                return false;
+            }
+            // The listener hears about the account before it becomes visible, so nothing other threads
+            // do to it can reach the listener (or the NONE listener) ahead of its creation.
+            account.setEventListener(listener);
+            try {
+                listener.onAccountCreated(account);
+            } catch (RuntimeException e) {
+                account.setEventListener(BankEventListener.NONE);
+                account.detach();
+                throw e;
+            }
+            // Count the balance before the account becomes visible, so operations by other threads
+            // that find it in the index are only ever counted through their own updates.
+            long openingCents = account.getBalanceCents();
+            totalCents.add(openingCents);
+            long epoch = epochs.enter();
+            try {
+                slot = new Slot(nextSequence.getAndIncrement(), account, epoch);
+                if (accounts.putIfAbsent(number, slot) != null) {
+                    // Unreachable while the stripe is held; undo everything but the logged creation
+                    totalCents.add(-openingCents);
+                    account.setEventListener(BankEventListener.NONE);
+                    account.detach();
+                    throw new IllegalStateException("Account " + number + " was added concurrently");
+                }
+            } finally {
+                epochs.exit(epoch);
+            }
+            owners.put(OwnerKey.of(slot), number);
+        } finally {
+            lock.unlock();
+        }
+        if (historyDirectory != null) {
+            enableTiering(slot);
+        }
+        metrics.accountCreated();
+        AccountCache cache = accountCache;
+        if (cache != null) {
+            cache.admit(account);
+            evictOverflow(cache);
+        }
+        return true;
     }
 
     // Method to find an account by its number.
     // 'Optional' is a modern Java feature to handle cases where a value might be null.
+    // With account tiering, an account that was paged out is loaded back here. An Account object
+    // stays usable after its account is paged out again: operations on it are passed on to the
+    // account as reloaded, but its balance and history stop following them, so look it up again to
+    // read those.
     public Optional<Account> findAccount(String accountNumber) {
-        // Using Java Streams API for a clean search.
-        return accounts.stream()
-                .filter(account -> account.getAccountNumber().equals(accountNumber))
-                .findFirst();
+        Slot slot = accounts.get(accountNumber);
+        metrics.lookup(slot != null);
+        return slot == null ? Optional.empty() : Optional.ofNullable(resident(accountNumber, slot));
     }
 
-    // Method to get all accounts in the bank.
+    // Method to get all accounts in the bank, in the order they were added.
+    // The accounts are live, so balances read from them while operations run can be from different
+    // moments; use balanceSnapshot for a consistent view. With account tiering this loads every
+    // paged-out account, so prefer listAccounts there.
     public List<Account> getAllAccounts() {
-        return new ArrayList<>(accounts); // Return a copy to prevent external modification
+        List<Slot> slots = new ArrayList<>(accounts.values());
+        slots.sort(Comparator.comparingLong(Slot::sequence));
+        List<Account> result = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            Account account = slot.account() != null ? slot.account() : load(slot.cold().accountNumber(), slot.sequence());
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result; // A fresh list, so callers cannot modify the bank through it
+    }
+
+    // The first page of 'limit' accounts in the given order.
+    public AccountPage listAccounts(AccountOrder order, int limit) {
+        return listAccounts(order, null, limit);
+    }
+
+    // The page of up to 'limit' accounts that come right after 'after' (the last account of the previous
+    // page, or null for the first page) in the given order.
+    //
+    // Nothing is copied or sorted wholesale: the accounts are scanned in parallel, each thread keeping
+    // only the best 'limit' of its share in a bounded heap, and the heaps are merged. Each page reflects
+    // the balances at the time it was built, so with BALANCE orders an account whose balance changes
+    // between pages may show up twice or not at all.
+    public AccountPage listAccounts(AccountOrder order, AccountSummary after, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        // One more than asked for, to know whether there is another page
+        int keep = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        Collector<Slot, TopAccounts, TopAccounts> collector = Collector.of(
+                () -> new TopAccounts(order, after, keep),
+                Bank::offer,
+                TopAccounts::merge);
+        Stream<Slot> slots = accounts.values().stream();
+        if (accounts.size() >= PARALLEL_LISTING_THRESHOLD) {
+            slots = slots.parallel();
+        }
+        List<AccountSummary> found = slots.collect(collector).toList();
+        boolean hasMore = found.size() > limit;
+        return new AccountPage(hasMore ? found.subList(0, limit) : found, hasMore);
+    }
+
+    // Offers one index entry to a listing; paged-out accounts are listed from what the index keeps.
+    private static void offer(TopAccounts top, Slot slot) {
+        if (slot.account() != null) {
+            top.offer(slot.account(), slot.sequence());
+        } else {
+            ColdAccount cold = slot.cold();
+            top.offer(cold.accountNumber(), cold.ownerName(), cold.balanceCents(), slot.sequence());
+        }
+    }
+
+    // The 'count' accounts with the highest balances, highest first.
+    public List<AccountSummary> topByBalance(int count) {
+        return listAccounts(AccountOrder.BALANCE_DESCENDING, count).accounts();
+    }
+
+    // The 'count' accounts with the lowest balances, lowest first.
+    public List<AccountSummary> bottomByBalance(int count) {
+        return listAccounts(AccountOrder.BALANCE_ASCENDING, count).accounts();
+    }
+
+    // Accounts whose owner name is exactly 'ownerName', in the order they were added.
+    public List<Account> findAccountsByOwner(String ownerName) {
+        String name = normalize(ownerName);
+        List<Account> result = new ArrayList<>();
+        for (Map.Entry<OwnerKey, String> entry : owners.tailMap(new OwnerKey(name, Long.MIN_VALUE)).entrySet()) {
+            if (!entry.getKey().name().equals(name)) {
+                break;
+            }
+            Account account = live(entry.getValue(), entry.getKey().sequence());
+            if (account != null && account.getOwnerName().equals(ownerName)) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    // Accounts whose owner name starts with 'prefix', ignoring case, sorted by owner name.
+    public List<Account> findAccountsByOwnerPrefix(String prefix) {
+        return findAccountsByOwnerPrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    // At most 'limit' accounts whose owner name starts with 'prefix', ignoring case, sorted by owner name.
+    // Walks only the matching part of the owner index, so the cost grows with the result, not the bank.
+    public List<Account> findAccountsByOwnerPrefix(String prefix, int limit) {
+        String name = normalize(prefix);
+        List<Account> result = new ArrayList<>();
+        for (Map.Entry<OwnerKey, String> entry : owners.tailMap(new OwnerKey(name, Long.MIN_VALUE)).entrySet()) {
+            if (result.size() >= limit || !entry.getKey().name().startsWith(name)) {
+                break;
+            }
+            Account account = live(entry.getValue(), entry.getKey().sequence());
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    // The account of the owner index entry (number, sequence), or null if it has been deleted.
+    private Account live(String accountNumber, long sequence) {
+        Slot slot = accounts.get(accountNumber);
+        if (slot == null || slot.sequence() != sequence) {
+            return null;
+        }
+        Account account = resident(accountNumber, slot);
+        return account == null || (account.isClosed() && !account.isEvicted()) ? null : account;
+    }
+
+    // Owner names are indexed lower-cased, so prefix searches ignore case.
+    private static String normalize(String ownerName) {
+        return ownerName.toLowerCase(Locale.ROOT);
     }
 
     // Method to delete an account by its number.
+    // The account is closed, so operations still holding a reference to it are rejected from now on,
+    // and its final balance is taken out of the bank total. This runs under the account's transfer
+    // stripe, so a transfer never sees one of its two accounts close halfway through.
+    // A paged-out account is loaded back first, so it is deleted like any other.
     public boolean deleteAccount(String accountNumber) {
-        return accounts.removeIf(account -> account.getAccountNumber().equals(accountNumber));
+        ReentrantLock lock = transferLocks[stripeFor(accountNumber)];
+        Slot removed;
+        while (true) {
+            Slot found = accounts.get(accountNumber);
+            if (found == null) {
+                return false;
+            }
+            if (found.account() == null) {
+                load(accountNumber, found.sequence());
+                continue;
+            }
+            lock.lock();
+            if (accounts.get(accountNumber) == found) {
+                break;
+            }
+            // Paged out or deleted since it was looked up
+            lock.unlock();
+        }
+        long epoch = epochs.enter();
+        try {
+            removed = accounts.get(accountNumber);
+            // A snapshot cut before this delete still has to see the account, so it is handed over
+            // before it leaves the index
+            OpenSnapshot snapshot = openSnapshot;
+            if (snapshot != null && epoch > snapshot.boundary()) {
+                snapshot.deleted().add(removed);
+            }
+            accounts.remove(accountNumber, removed);
+            long finalCents = removed.account().close(epoch);
+            if (finalCents > 0) {
+                totalCents.add(-finalCents);
+            }
+        } finally {
+            epochs.exit(epoch);
+        }
+        try {
+            // Reported under the stripe, so it cannot be logged after the creation of a new account
+            // that reuses the number
+            listener.onAccountDeleted(removed.account());
+        } finally {
+            lock.unlock();
+        }
+        owners.remove(OwnerKey.of(removed));
+        removed.account().getTransactionLog().dropColdHistory();
+        metrics.accountDeleted();
+        return true;
+    }
+
+    // Keeps only about DEFAULT_HOT_HISTORY_ENTRIES recent history entries per account in memory.
+    public void enableHistoryTiering(Path directory) throws IOException {
+        enableHistoryTiering(directory, DEFAULT_HOT_HISTORY_ENTRIES);
+    }
+
+    // Keeps only about 'hotEntries' recent history entries per account in memory, for accounts in the
+    // bank now and added later. Older entries move to one file per account in 'directory' and are read
+    // back from there when asked for. These files are scratch space: leftovers from an earlier run are
+    // deleted here, and a deleted account's file is deleted with it.
+    public void enableHistoryTiering(Path directory, int hotEntries) throws IOException {
+        if (hotEntries < 0) {
+            throw new IllegalArgumentException("hotEntries must not be negative");
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(COLD_HISTORY_PREFIX) && name.endsWith(COLD_HISTORY_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        this.hotHistoryEntries = hotEntries;
+        this.historyDirectory = directory;
+        for (Slot slot : accounts.values()) {
+            if (slot.account() != null) {
+                enableTiering(slot);
+            }
+        }
+    }
+
+    // Turns on tiering for one account's history. The file is named after the slot's sequence number,
+    // which is never reused, so an account deleted and re-added under the same number gets a new file.
+    // If the file cannot be created the history simply stays in memory.
+    private void enableTiering(Slot slot) {
+        Path file = historyDirectory.resolve(COLD_HISTORY_PREFIX + slot.sequence() + COLD_HISTORY_SUFFIX);
+        try {
+            slot.account().getTransactionLog().enableTiering(file, hotHistoryEntries, metrics::historySpillFailed);
+        } catch (IOException | IllegalStateException e) {
+            // Not tiered (or already tiered): everything stays in memory
+        }
+    }
+
+    // Keeps at most DEFAULT_RESIDENT_ACCOUNTS accounts in memory.
+    public void enableAccountTiering(Path directory) throws IOException {
+        enableAccountTiering(directory, DEFAULT_RESIDENT_ACCOUNTS);
+    }
+
+    // Keeps at most 'maxResident' accounts in memory, choosing which by how often and how recently
+    // they were looked up (see AccountCache). The others, with their whole history, are paged out to
+    // one file each in 'directory' and loaded back transparently by findAccount, transfer and the
+    // other lookups; listings and balance snapshots read paged-out accounts without loading them.
+    // The files are scratch space, like the history tier's: leftovers from an earlier run are deleted.
+    // Paging happens on the thread whose lookup needs the room.
+    public void enableAccountTiering(Path directory, int maxResident) throws IOException {
+        if (maxResident < 2) {
+            throw new IllegalArgumentException("maxResident must be at least 2, so both sides of a transfer fit");
+        }
+        if (accountCache != null) {
+            throw new IllegalStateException("Account tiering is already on");
+        }
+        accountStore = new AccountStore(directory);
+        AccountCache cache = new AccountCache(maxResident);
+        for (Slot slot : accounts.values()) {
+            cache.admit(slot.account());
+        }
+        accountCache = cache;
+        evictOverflow(cache);
+    }
+
+    // Number of accounts currently in memory (all of them unless account tiering is on).
+    public int getResidentAccountCount() {
+        int resident = 0;
+        for (Slot slot : accounts.values()) {
+            if (slot.account() != null) {
+                resident++;
+            }
+        }
+        return resident;
+    }
+
+    // Lookups that found the account in memory, with account tiering on.
+    public long getAccountCacheHits() {
+        AccountCache cache = accountCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    // Lookups that had to load the account from disk, with account tiering on.
+    public long getAccountCacheMisses() {
+        AccountCache cache = accountCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    // Accounts paged out to disk so far, with account tiering on.
+    public long getAccountEvictions() {
+        AccountCache cache = accountCache;
+        return cache == null ? 0 : cache.getEvictions();
+    }
+
+    // The in-memory account of an index entry, loading it if it was paged out, and counting the
+    // lookup for the account cache. Null if the account was deleted meanwhile.
+    private Account resident(String accountNumber, Slot slot) {
+        AccountCache cache = accountCache;
+        Account account = slot.account();
+        if (account != null) {
+            if (cache != null) {
+                cache.hit(account);
+            }
+            return account;
+        }
+        cache.miss();
+        return load(accountNumber, slot.sequence());
+    }
+
+    // The in-memory account with this number (see resident), or null if there is none.
+    private Account current(String accountNumber) {
+        Slot slot = accounts.get(accountNumber);
+        return slot == null ? null : resident(accountNumber, slot);
+    }
+
+    // Called by an Account object that was paged out, to pass an operation on: the account of slot
+    // 'sequence' as it is in memory now, loading it again if needed. Null if it has been deleted.
+    Account reload(String accountNumber, long sequence) {
+        Slot slot = accounts.get(accountNumber);
+        if (slot == null || slot.sequence() != sequence) {
+            return null;
+        }
+        Account account = slot.account();
+        // One still marked as paged out is being written out right now: wait for that in load
+        return account != null && !account.isEvicted() ? account : load(accountNumber, sequence);
+    }
+
+    // Loads the paged-out account of slot 'sequence' back into memory, then makes room for it.
+    // Runs under the account's stripe, like deletes and paging out, so it never races them.
+    // Returns the account (also if someone else loaded it first), or null if it was deleted.
+    private Account load(String accountNumber, long sequence) {
+        ReentrantLock lock = transferLocks[stripeFor(accountNumber)];
+        Account loaded;
+        lock.lock();
+        try {
+            Slot slot = accounts.get(accountNumber);
+            if (slot == null || slot.sequence() != sequence) {
+                return null;
+            }
+            if (slot.account() != null) {
+                return slot.account();
+            }
+            try {
+                loaded = accountStore.read(sequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load account " + accountNumber, e);
+            }
+            loaded.attach(this);
+            loaded.setEventListener(listener);
+            Slot hot = new Slot(sequence, loaded, slot.epoch());
+            accounts.replace(accountNumber, slot, hot);
+            accountStore.delete(sequence);
+            if (historyDirectory != null) {
+                enableTiering(hot);
+            }
+        } finally {
+            lock.unlock();
+        }
+        AccountCache cache = accountCache;
+        cache.admit(loaded);
+        evictOverflow(cache);
+        return loaded;
+    }
+
+    // Pages accounts out until the cache is within its capacity. Stops early if one cannot be paged
+    // out right now; a later admission tries again.
+    private void evictOverflow(AccountCache cache) {
+        for (Account victim = cache.nextVictim(); victim != null; victim = cache.nextVictim()) {
+            Account kept = evict(victim);
+            if (kept != null) {
+                cache.admit(kept);
+                return;
+            }
+        }
+    }
+
+    // Writes 'victim' to the account store and drops it from memory, leaving only its ColdAccount in
+    // the index. The object is closed first, so no change can slip in after it was written; closed
+    // paged-out objects pass later operations on (see Account.reloaded). Only tries the stripe lock,
+    // since this runs on threads that may hold other stripes.
+    // Returns null when done (or nothing to do), else the account that stays in memory.
+    private Account evict(Account victim) {
+        String number = victim.getAccountNumber();
+        ReentrantLock lock = transferLocks[stripeFor(number)];
+        if (!lock.tryLock()) {
+            return victim;
+        }
+        long epoch = epochs.enter();
+        try {
+            Slot slot = accounts.get(number);
+            if (slot == null || slot.account() != victim) {
+                return null;
+            }
+            victim.markEvicted(slot.sequence());
+            long cents = victim.close(epoch);
+            TransactionLog log = victim.getTransactionLog();
+            log.seal();
+            // A balance snapshot cut before this still reads the account from this object
+            OpenSnapshot snapshot = openSnapshot;
+            if (snapshot != null && epoch > snapshot.boundary()) {
+                snapshot.deleted().add(slot);
+            }
+            try {
+                accountStore.write(slot.sequence(), victim);
+            } catch (IOException e) {
+                // Stays in memory after all, as a new object for the same account and history
+                log.unseal();
+                Account kept = new Account(number, victim.getOwnerName(), victim.getOpeningBalanceCents(), cents, log);
+                kept.attach(this);
+                kept.setEventListener(listener);
+                accounts.replace(number, slot, new Slot(slot.sequence(), kept, slot.epoch()));
+                return kept;
+            }
+            log.dropColdHistory();
+            accounts.replace(number, slot, new Slot(slot.sequence(), null, slot.epoch(),
+                    new ColdAccount(number, victim.getOwnerName(), cents)));
+            return null;
+        } finally {
+            epochs.exit(epoch);
+            lock.unlock();
+        }
+    }
+
+    // Sets the listener that is told about account changes and every operation on this bank's accounts.
+    // The core never prints; plug in an AsyncConsoleSink (or anything else) here to observe it.
+    public void setEventListener(BankEventListener listener) {
+        BankEventListener effective = listener == null ? BankEventListener.NONE : listener;
+        this.listener = effective;
+        for (Slot slot : accounts.values()) {
+            if (slot.account() != null) {
+                slot.account().setEventListener(effective);
+            }
+        }
+    }
+
+    // Checks every withdrawal and outgoing transfer against 'limits' before it changes a balance, and
+    // flags large ones to the listener; null turns the checks off. The counts are per account and kept
+    // in memory only: they start over for an account that is paged out or restored from a log.
+    public void setWithdrawalLimits(WithdrawalLimits limits) {
+        this.withdrawalLimits = limits;
+    }
+
+    // The limits set with setWithdrawalLimits, if any.
+    public Optional<WithdrawalLimits> getWithdrawalLimits() {
+        return Optional.ofNullable(withdrawalLimits);
+    }
+
+    // Withdrawals and transfers flagged as large since the bank was created.
+    public long getLargeTransactionCount() {
+        return largeTransactions.sum();
+    }
+
+    // The pre-commit check of a withdrawal or outgoing transfer of 'cents' from 'account'. If the
+    // velocity limits allow it, counts it and returns a ticket for releaseWithdrawal; returns
+    // NOT_COUNTED if no limit applies, and REJECTED if it has to be turned down. Reads the clock only
+    // when there is a limit to check.
+    private long acquireWithdrawal(Account account, long cents) {
+        WithdrawalLimits limits = withdrawalLimits;
+        if (limits == null || !limits.limitsVelocity()) {
+            return NOT_COUNTED;
+        }
+        return account.velocityWindow().tryAcquire(System.currentTimeMillis(), cents, limits);
+    }
+
+    // As above, at time 'nowMillis', for an operation that reads the clock anyway.
+    long acquireWithdrawal(Account account, long cents, long nowMillis) {
+        WithdrawalLimits limits = withdrawalLimits;
+        if (limits == null || !limits.limitsVelocity()) {
+            return NOT_COUNTED;
+        }
+        return account.velocityWindow().tryAcquire(nowMillis, cents, limits);
+    }
+
+    // Takes back a withdrawal counted by acquireWithdrawal that did not go through.
+    void releaseWithdrawal(Account account, long ticket, long cents) {
+        if (ticket >= 0) {
+            account.velocityWindow().release(ticket, cents);
+        }
+    }
+
+    // Called once a withdrawal or outgoing transfer has gone through, to flag it if it is large.
+    void withdrawalCommitted(Account account, TransactionType type, long cents) {
+        WithdrawalLimits limits = withdrawalLimits;
+        if (limits != null && cents >= limits.largeAmountCents()) {
+            largeTransactions.increment();
+            listener.onLargeTransaction(account, type, cents);
+        }
+    }
+
+    // Method to move money between two accounts.
+    public TransactionResult transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return transferCents(fromAccountNumber, toAccountNumber, Account.toCents(amount));
+    }
+
+    // Moves an exact amount of cents from one account to another. Either both sides change or
+    // neither does. Locks are always taken in stripe order, so two transfers running in opposite
+    // directions cannot deadlock, and transfers between unrelated accounts run in parallel.
+    public TransactionResult transferCents(String fromAccountNumber, String toAccountNumber, long cents) {
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            return TransactionResult.SAME_ACCOUNT;
+        }
+        while (true) {
+            Account from = current(fromAccountNumber);
+            Account to = current(toAccountNumber);
+            if (from == null || to == null) {
+                return TransactionResult.ACCOUNT_NOT_FOUND;
+            }
+            long started = metrics.start();
+            TransactionResult result = cents <= 0
+                    ? TransactionResult.INVALID_AMOUNT
+                    : transferLocked(from, to, cents);
+            if (result == null) {
+                // One of them was paged out after it was looked up: look both up again
+                continue;
+            }
+            if (result.isSuccess()) {
+                withdrawalCommitted(from, TransactionType.TRANSFER_OUT, cents);
+            }
+            listener.onTransfer(from, to, cents, result);
+            metrics.transfer(result, started);
+            return result;
+        }
+    }
+
+    // Performs the transfer while holding both accounts' lock stripes. Returns null, having changed
+    // nothing, if either account was paged out since it was looked up.
+    private TransactionResult transferLocked(Account from, Account to, long cents) {
+        int first = stripeFor(from.getAccountNumber());
+        int second = stripeFor(to.getAccountNumber());
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        ReentrantLock firstLock = transferLocks[first];
+        ReentrantLock secondLock = transferLocks[second];
+        firstLock.lock();
+        try {
+            if (second != first) {
+                secondLock.lock();
+            }
+            // Both sides in one epoch, so a balance snapshot sees all of the transfer or none of it
+            long epoch = epochs.enter();
+            try {
+                if (from.isEvicted() || to.isEvicted()) {
+                    return null;
+                }
+                long ticket = acquireWithdrawal(from, cents);
+                if (ticket == REJECTED) {
+                    return new TransactionResult(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, from.getBalanceCents());
+                }
+                long fromBalance = from.transferOut(cents, to.getAccountNumber(), epoch);
+                if (fromBalance < 0) {
+                    releaseWithdrawal(from, ticket, cents);
+                }
+                if (fromBalance == Account.CLOSED) {
+                    // Deleted after it was looked up
+                    return TransactionResult.ACCOUNT_NOT_FOUND;
+                }
+                if (fromBalance < 0) {
+                    return new TransactionResult(TransactionResult.Status.INSUFFICIENT_FUNDS, from.getBalanceCents());
+                }
+                long toBalance = to.transferIn(cents, from.getAccountNumber(), epoch);
+                if (toBalance < 0) {
+                    // The receiving account was deleted or its balance would overflow: put the money back.
+                    // The sender cannot have closed meanwhile, since deleting it needs the stripe we hold.
+                    releaseWithdrawal(from, ticket, cents);
+                    fromBalance = from.transferIn(cents, to.getAccountNumber(), epoch);
+                    return toBalance == Account.CLOSED
+                            ? TransactionResult.ACCOUNT_NOT_FOUND
+                            : new TransactionResult(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED, fromBalance);
+                }
+                return new TransactionResult(TransactionResult.Status.SUCCESS, fromBalance);
+            } finally {
+                epochs.exit(epoch);
+                if (second != first) {
+                    secondLock.unlock();
+                }
+            }
+        } finally {
+            firstLock.unlock();
+        }
+    }
+
+    // Maps an account number to its transfer lock stripe.
+    private int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & (transferLocks.length - 1);
+    }
+
+    // Counters and latency histograms for the operations on this bank and its accounts.
+    public BankMetrics getMetrics() {
+        return metrics;
     }
 
     // Method to get the total number of accounts.
@@ -44,8 +791,235 @@ public class Bank {
 
     // Method to get total bank balance across all accounts.
     public double getTotalBankBalance() {
-        return accounts.stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+        return getTotalBankBalanceCents() / 100.0;
+    }
+
+    // The exact total balance in cents. Once no operation is in flight this equals the sum of
+    // every account's balance; while operations run it may miss the ones still finishing.
+    // balanceSnapshot gives a total that is exact at one point in time.
+    public long getTotalBankBalanceCents() {
+        return totalCents.sum();
+    }
+
+    // A consistent, point-in-time copy of every account's balance, for reports and audits.
+    //
+    // The snapshot is cut at an epoch boundary: it starts a new epoch, waits for the operations of the
+    // old one to finish, and then reads every account as of that boundary. Writers are never blocked.
+    // Each account keeps the balance from before its first change of the new epoch, so the snapshot can
+    // still read it; that is one small object per account changed while the snapshot is built, replaced
+    // rather than accumulated by later snapshots. Snapshots run one at a time.
+    public BalanceSnapshot balanceSnapshot() {
+        snapshotLock.lock();
+        try {
+            OpenSnapshot snapshot = new OpenSnapshot(epochs.current(), new ConcurrentLinkedQueue<>());
+            // Published before the epoch moves on, so every delete of the new epoch sees it
+            openSnapshot = snapshot;
+            try {
+                long boundary = epochs.advance();
+                long takenAt = System.currentTimeMillis();
+                // The index is read before the accounts handed over, so an account deleted or paged out
+                // after the index walk passed it is found twice rather than missed. The handed-over
+                // entry is put first, and the (stable) sort keeps it ahead of the one from the index.
+                List<Slot> indexed = new ArrayList<>(accounts.values());
+                List<Slot> slots = new ArrayList<>(snapshot.deleted());
+                slots.addAll(indexed);
+                slots.sort(Comparator.comparingLong(Slot::sequence));
+                List<AccountSummary> balances = new ArrayList<>(slots.size());
+                long total = 0;
+                long previous = -1;
+                for (Slot slot : slots) {
+                    if (slot.epoch() > boundary || slot.sequence() == previous) {
+                        continue;
+                    }
+                    previous = slot.sequence();
+                    Account account = slot.account();
+                    AccountSummary summary;
+                    if (account != null) {
+                        summary = new AccountSummary(account.getAccountNumber(), account.getOwnerName(),
+                                account.balanceAt(boundary), slot.sequence());
+                    } else {
+                        // Paged out: cold accounts do not change, and one paged out after the boundary was
+                        // handed over above
+                        ColdAccount cold = slot.cold();
+                        summary = new AccountSummary(cold.accountNumber(), cold.ownerName(), cold.balanceCents(),
+                                slot.sequence());
+                    }
+                    balances.add(summary);
+                    total += summary.balanceCents();
+                }
+                return new BalanceSnapshot(boundary, takenAt, balances, total);
+            } finally {
+                openSnapshot = null;
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    // Month-end interest and fees: credits every account interest at 'ratePpm' parts per million of its
+    // balance, rounded down to the cent, then charges it a flat 'feeCents', never more than it holds
+    // (see InterestKernel). Each amount is an INTEREST or FEE entry in the account's history and is
+    // reported to the listener, so a WriteAheadLog makes the run durable. Amounts of zero are not posted.
+    //
+    // The run takes the accounts from the index into an array and splits it into chunks for the common
+    // fork/join pool. Each chunk reads its balances into a column, computes the interest and fees of the
+    // whole column at once, and then posts them account by account under the account's transfer stripe.
+    // Other operations keep running: interest is on the balance the run read, and an account's interest
+    // and fee land in the same snapshot epoch. Accounts added while it runs are left out. With account
+    // tiering, paged-out accounts are loaded back one by one to post to them.
+    public InterestRunResult applyInterestAndFees(long ratePpm, long feeCents) {
+        if (ratePpm < 0 || ratePpm > InterestKernel.PARTS_PER_MILLION) {
+            throw new IllegalArgumentException("ratePpm must be between 0 and 1,000,000");
+        }
+        if (feeCents < 0) {
+            throw new IllegalArgumentException("feeCents must not be negative");
+        }
+        long started = System.nanoTime();
+        Slot[] slots = accounts.values().parallelStream().toArray(Slot[]::new);
+        InterestColumns columns = new InterestColumns(slots, new long[slots.length], new long[slots.length],
+                new long[slots.length], ratePpm, feeCents);
+        long posted = ForkJoinPool.commonPool().invoke(new InterestChunk(columns, 0, slots.length));
+        return new InterestRunResult(posted, Arrays.stream(columns.interest()).parallel().sum(),
+                Arrays.stream(columns.fees()).parallel().sum(), System.nanoTime() - started);
+    }
+
+    // One part of an interest and fee run: splits until it is at most INTEREST_CHUNK accounts, then
+    // does them. Returns how many of its accounts were still in the bank.
+    // Never serialized: fork/join tasks only implement Serializable by inheritance.
+    @SuppressWarnings("serial")
+    private final class InterestChunk extends RecursiveTask<Long> {
+        private final InterestColumns columns;
+        private final int from;
+        private final int to;
+
+        InterestChunk(InterestColumns columns, int from, int to) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > INTEREST_CHUNK) {
+                int middle = (from + to) >>> 1;
+                InterestChunk left = new InterestChunk(columns, from, middle);
+                left.fork();
+                long right = new InterestChunk(columns, middle, to).compute();
+                return right + left.join();
+            }
+            Slot[] slots = columns.slots();
+            long[] balances = columns.balances();
+            for (int i = from; i < to; i++) {
+                Slot slot = slots[i];
+                balances[i] = slot.account() != null ? slot.account().getBalanceCents() : slot.cold().balanceCents();
+            }
+            InterestKernel.compute(balances, columns.interest(), columns.fees(), from, to,
+                    columns.ratePpm(), columns.feeCents());
+            long posted = 0;
+            for (int i = from; i < to; i++) {
+                if (postInterest(columns, i)) {
+                    posted++;
+                }
+            }
+            return posted;
+        }
+    }
+
+    // Posts entry i of an interest and fee run, and leaves the amounts actually posted in the columns.
+    // Holds the account's stripe, like a delete or a page-out, so the account stays in place meanwhile.
+    // Returns false, posting nothing, if the account has been deleted since the run read it.
+    private boolean postInterest(InterestColumns columns, int i) {
+        Slot indexed = columns.slots()[i];
+        String number = indexed.account() != null ? indexed.account().getAccountNumber() : indexed.cold().accountNumber();
+        ReentrantLock lock = transferLocks[stripeFor(number)];
+        Account account;
+        while (true) {
+            Slot found = accounts.get(number);
+            if (found == null || found.sequence() != indexed.sequence()) {
+                columns.interest()[i] = 0;
+                columns.fees()[i] = 0;
+                return false;
+            }
+            if (found.account() == null) {
+                load(number, found.sequence());
+                continue;
+            }
+            lock.lock();
+            if (accounts.get(number) == found) {
+                account = found.account();
+                break;
+            }
+            // Paged out or deleted since it was looked up
+            lock.unlock();
+        }
+        long interest = columns.interest()[i];
+        long fee = columns.fees()[i];
+        long epoch = epochs.enter();
+        try {
+            if (interest > 0 && account.creditInterest(interest, epoch) < 0) {
+                // The balance grew since it was read and would overflow
+                interest = 0;
+            }
+            fee = fee > 0 ? account.chargeFee(fee, epoch) : 0;
+        } finally {
+            epochs.exit(epoch);
+            lock.unlock();
+        }
+        columns.interest()[i] = interest;
+        columns.fees()[i] = fee;
+        if (interest != 0 || fee != 0) {
+            totalCents.add(interest - fee);
+            listener.onInterestPosted(account, interest, fee);
+        }
+        return true;
+    }
+
+    // Total cents deposited into this bank's accounts since the bank was created (transfers excluded).
+    public long getDepositVolumeCents() {
+        return depositCents.sum();
+    }
+
+    // Number of successful deposits since the bank was created.
+    public long getDepositCount() {
+        return depositCount.sum();
+    }
+
+    // Total cents withdrawn from this bank's accounts since the bank was created (transfers excluded).
+    public long getWithdrawalVolumeCents() {
+        return withdrawalCents.sum();
+    }
+
+    // Number of successful withdrawals since the bank was created.
+    public long getWithdrawalCount() {
+        return withdrawalCount.sum();
+    }
+
+    // Called by an account in this bank around each balance change, see SnapshotEpochs.
+    long enterEpoch() {
+        return epochs.enter();
+    }
+
+    void exitEpoch(long epoch) {
+        epochs.exit(epoch);
+    }
+
+    // Called by an account in this bank after a successful deposit.
+    void deposited(long cents) {
+        totalCents.add(cents);
+        depositCents.add(cents);
+        depositCount.increment();
+    }
+
+    // Called by an account in this bank after a successful withdrawal.
+    void withdrew(long cents) {
+        totalCents.add(-cents);
+        withdrawalCents.add(cents);
+        withdrawalCount.increment();
+    }
+
+    // Called by an account in this bank when its balance changes outside deposit and withdraw,
+    // e.g. while an operation is replayed from a log.
+    void balanceChanged(long deltaCents) {
+        totalCents.add(deltaCents);
     }
-}
\ No newline at end of file
+}
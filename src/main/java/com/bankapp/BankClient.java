@@ -0,0 +1,90 @@
+package com.bankapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+// A minimal client for BankServer, used by the tests and the load generator.
+//
+// call() sends one request and waits for its response. For pipelining, send() any number of
+// requests, flush(), then receive() the responses in the same order. A LIST response is returned
+// as one string, with its account lines joined by '\n' after the "OK <count> [<cursor>]" line.
+// Not thread-safe: use one client per thread.
+public final class BankClient implements AutoCloseable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    // For each request sent but not yet received: whether it was a LIST (multi-line response).
+    private final Queue<Boolean> pending = new ArrayDeque<>();
+
+    private BankClient(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Connects to a BankServer at 'host':'port'.
+    public static BankClient connect(String host, int port) throws IOException {
+        return new BankClient(new Socket(host, port));
+    }
+
+    // Sends one request and returns its response.
+    public String call(String request) throws IOException {
+        send(request);
+        flush();
+        return receive();
+    }
+
+    // Queues a request without waiting for (or reading) its response.
+    public void send(String request) throws IOException {
+        out.write(request);
+        out.write('\n');
+        pending.add(request.trim().regionMatches(true, 0, "LIST", 0, 4));
+    }
+
+    // Pushes every queued request to the server.
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Reads the response to the oldest request that has not been received yet.
+    public String receive() throws IOException {
+        Boolean list = pending.poll();
+        if (list == null) {
+            throw new IllegalStateException("No request is waiting for a response");
+        }
+        String line = readLine();
+        if (!list || !line.startsWith("OK ")) {
+            return line;
+        }
+        int end = line.indexOf(' ', 3);
+        int count = Integer.parseInt(end < 0 ? line.substring(3) : line.substring(3, end));
+        StringBuilder response = new StringBuilder(line);
+        for (int i = 0; i < count; i++) {
+            response.append('\n').append(readLine());
+        }
+        return response.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private String readLine() throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("Server closed the connection");
+        }
+        return line;
+    }
+}
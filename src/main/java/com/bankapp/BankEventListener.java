@@ -0,0 +1,88 @@
+package com.bankapp;
+
+// Receives notifications about what happens in a Bank and its accounts.
+// Accounts and banks never print anything themselves; anything that wants to log, display or
+// persist operations plugs in here. Callbacks run on the thread that performed the operation,
+// so implementations should return quickly. Every method has an empty default.
+public interface BankEventListener {
+    // A listener that ignores every event.
+    BankEventListener NONE = new BankEventListener() {
+    };
+
+    // Returns a listener that passes every event to each of 'listeners', in the order given.
+    static BankEventListener of(BankEventListener... listeners) {
+        BankEventListener[] targets = listeners.clone();
+        return new BankEventListener() {
+            @Override
+            public void onAccountCreated(Account account) {
+                for (BankEventListener target : targets) {
+                    target.onAccountCreated(account);
+                }
+            }
+
+            @Override
+            public void onAccountDeleted(Account account) {
+                for (BankEventListener target : targets) {
+                    target.onAccountDeleted(account);
+                }
+            }
+
+            @Override
+            public void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+                for (BankEventListener target : targets) {
+                    target.onTransaction(account, type, amountCents, result);
+                }
+            }
+
+            @Override
+            public void onTransfer(Account from, Account to, long amountCents, TransactionResult result) {
+                for (BankEventListener target : targets) {
+                    target.onTransfer(from, to, amountCents, result);
+                }
+            }
+
+            @Override
+            public void onInterestPosted(Account account, long interestCents, long feeCents) {
+                for (BankEventListener target : targets) {
+                    target.onInterestPosted(account, interestCents, feeCents);
+                }
+            }
+
+            @Override
+            public void onLargeTransaction(Account account, TransactionType type, long amountCents) {
+                for (BankEventListener target : targets) {
+                    target.onLargeTransaction(account, type, amountCents);
+                }
+            }
+        };
+    }
+
+    // Called while an account is being added to the bank, just before other threads can find it, so
+    // it always comes ahead of the account's other events. Runs under the account's transfer stripe.
+    default void onAccountCreated(Account account) {
+    }
+
+    // Called after an account has been removed from the bank, before its number can be reused.
+    // Runs under the account's transfer stripe.
+    default void onAccountDeleted(Account account) {
+    }
+
+    // Called after every deposit or withdrawal attempt, whether or not it succeeded.
+    default void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+    }
+
+    // Called after every transfer attempt between two existing accounts, whether or not it succeeded.
+    default void onTransfer(Account from, Account to, long amountCents, TransactionResult result) {
+    }
+
+    // Called after an interest and fee run (Bank.applyInterestAndFees) has posted to an account, once
+    // per account. Either amount may be zero. Not called for accounts the run left unchanged.
+    default void onInterestPosted(Account account, long interestCents, long feeCents) {
+    }
+
+    // Called after a withdrawal or outgoing transfer of at least the bank's
+    // WithdrawalLimits.largeAmountCents has gone through ('type' is WITHDRAWAL or TRANSFER_OUT), before
+    // onTransaction or onTransfer reports it.
+    default void onLargeTransaction(Account account, TransactionType type, long amountCents) {
+    }
+}
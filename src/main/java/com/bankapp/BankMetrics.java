@@ -0,0 +1,293 @@
+package com.bankapp;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Operation counters and latency histograms for one Bank, always on.
+//
+// Counters are LongAdders and latencies go into StripedLatencyHistograms, so recording costs
+// an uncontended add or two plus a System.nanoTime() pair per timed operation, even with many
+// threads. Reads (JMX, format()) merge the stripes and may miss operations still in flight.
+// Latency covers the whole call, including the bank's event listener (e.g. a write-ahead log commit).
+//
+// Register with registerMBean() to see the numbers in JConsole/VisualVM, or print format()
+// periodically with a MetricsReporter. setEnabled(false) turns recording off.
+public final class BankMetrics implements BankMetricsMBean {
+    private final Bank bank;
+    private final LongAdder lookupHits = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder insufficientFunds = new LongAdder();
+    private final LongAdder otherRejections = new LongAdder();
+    private final LongAdder accountsCreated = new LongAdder();
+    private final LongAdder accountsDeleted = new LongAdder();
+    private final LongAdder historySpillFailures = new LongAdder();
+    private final StripedLatencyHistogram depositLatency = new StripedLatencyHistogram();
+    private final StripedLatencyHistogram withdrawalLatency = new StripedLatencyHistogram();
+    private final StripedLatencyHistogram transferLatency = new StripedLatencyHistogram();
+    private volatile boolean enabled = true;
+
+    BankMetrics(Bank bank) {
+        this.bank = bank;
+    }
+
+    // Registers this as an MBean named "com.bankapp:type=Bank,name=<name>" on the platform MBean server.
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = objectName(name);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    // Removes the MBean registered under 'name', if there is one.
+    public static void unregisterMBean(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = objectName(name);
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("com.bankapp:type=Bank,name=" + ObjectName.quote(name));
+    }
+
+    // Start time for a timed operation, or 0 when recording is off.
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void lookup(boolean hit) {
+        if (enabled) {
+            (hit ? lookupHits : lookupMisses).increment();
+        }
+    }
+
+    void deposit(TransactionResult.Status status, long started) {
+        if (started != 0) {
+            count(status, deposits);
+            depositLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void withdrawal(TransactionResult.Status status, long started) {
+        if (started != 0) {
+            count(status, withdrawals);
+            withdrawalLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void transfer(TransactionResult result, long started) {
+        if (started != 0) {
+            count(result.status(), transfers);
+            transferLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void accountCreated() {
+        if (enabled) {
+            accountsCreated.increment();
+        }
+    }
+
+    void accountDeleted() {
+        if (enabled) {
+            accountsDeleted.increment();
+        }
+    }
+
+    // Counted even while recording is off: it is an error report, not a measurement.
+    void historySpillFailed() {
+        historySpillFailures.increment();
+    }
+
+    private void count(TransactionResult.Status status, LongAdder successes) {
+        switch (status) {
+            case SUCCESS:
+                successes.increment();
+                break;
+            case INSUFFICIENT_FUNDS:
+                insufficientFunds.increment();
+                break;
+            default:
+                otherRejections.increment();
+                break;
+        }
+    }
+
+    @Override
+    public long getLookups() {
+        return lookupHits.sum() + lookupMisses.sum();
+    }
+
+    @Override
+    public long getLookupHits() {
+        return lookupHits.sum();
+    }
+
+    @Override
+    public long getLookupMisses() {
+        return lookupMisses.sum();
+    }
+
+    // Successful deposits.
+    @Override
+    public long getDeposits() {
+        return deposits.sum();
+    }
+
+    // Successful withdrawals.
+    @Override
+    public long getWithdrawals() {
+        return withdrawals.sum();
+    }
+
+    // Successful transfers.
+    @Override
+    public long getTransfers() {
+        return transfers.sum();
+    }
+
+    // Withdrawals and transfers turned down for lack of funds.
+    @Override
+    public long getInsufficientFunds() {
+        return insufficientFunds.sum();
+    }
+
+    // Deposits, withdrawals and transfers turned down for any other reason (invalid amount, closed account, ...).
+    @Override
+    public long getOtherRejections() {
+        return otherRejections.sum();
+    }
+
+    @Override
+    public long getAccountsCreated() {
+        return accountsCreated.sum();
+    }
+
+    @Override
+    public long getAccountsDeleted() {
+        return accountsDeleted.sum();
+    }
+
+    @Override
+    public long getHistorySpillFailures() {
+        return historySpillFailures.sum();
+    }
+
+    @Override
+    public int getAccountCount() {
+        return bank.getAccountCount();
+    }
+
+    @Override
+    public long getTotalBalanceCents() {
+        return bank.getTotalBankBalanceCents();
+    }
+
+    // Latency of deposits (all outcomes), in nanoseconds.
+    public LatencyHistogram getDepositLatency() {
+        return depositLatency.snapshot();
+    }
+
+    // Latency of withdrawals (all outcomes), in nanoseconds.
+    public LatencyHistogram getWithdrawalLatency() {
+        return withdrawalLatency.snapshot();
+    }
+
+    // Latency of transfers between existing accounts (all outcomes), in nanoseconds.
+    public LatencyHistogram getTransferLatency() {
+        return transferLatency.snapshot();
+    }
+
+    @Override
+    public double getDepositLatencyP50Micros() {
+        return micros(depositLatency, 0.50);
+    }
+
+    @Override
+    public double getDepositLatencyP99Micros() {
+        return micros(depositLatency, 0.99);
+    }
+
+    @Override
+    public double getDepositLatencyP999Micros() {
+        return micros(depositLatency, 0.999);
+    }
+
+    @Override
+    public double getWithdrawalLatencyP50Micros() {
+        return micros(withdrawalLatency, 0.50);
+    }
+
+    @Override
+    public double getWithdrawalLatencyP99Micros() {
+        return micros(withdrawalLatency, 0.99);
+    }
+
+    @Override
+    public double getWithdrawalLatencyP999Micros() {
+        return micros(withdrawalLatency, 0.999);
+    }
+
+    @Override
+    public double getTransferLatencyP50Micros() {
+        return micros(transferLatency, 0.50);
+    }
+
+    @Override
+    public double getTransferLatencyP99Micros() {
+        return micros(transferLatency, 0.99);
+    }
+
+    @Override
+    public double getTransferLatencyP999Micros() {
+        return micros(transferLatency, 0.999);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Turns recording on or off. Counts and latencies gathered so far are kept.
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // A few lines with every counter and the latency percentiles, for logs and the console.
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "📈 Bank metrics: %,d accounts, total $%s%n",
+                getAccountCount(), Account.formatCents(getTotalBalanceCents())));
+        text.append(String.format(Locale.ROOT, "  lookups %,d (hits %,d, misses %,d), accounts created %,d, deleted %,d%n",
+                getLookups(), getLookupHits(), getLookupMisses(), getAccountsCreated(), getAccountsDeleted()));
+        text.append(String.format(Locale.ROOT, "  rejected: insufficient funds %,d, other %,d%n",
+                getInsufficientFunds(), getOtherRejections()));
+        if (getHistorySpillFailures() > 0) {
+            text.append(String.format(Locale.ROOT, "  ⚠️ history tiering stopped for %,d accounts after a failed write%n",
+                    getHistorySpillFailures()));
+        }
+        appendLatency(text, "deposits", getDeposits(), depositLatency.snapshot());
+        appendLatency(text, "withdrawals", getWithdrawals(), withdrawalLatency.snapshot());
+        appendLatency(text, "transfers", getTransfers(), transferLatency.snapshot());
+        return text.toString();
+    }
+
+    private static void appendLatency(StringBuilder text, String name, long successes, LatencyHistogram latency) {
+        text.append(String.format(Locale.ROOT, "  %-11s %,d ok; latency us p50 %.2f, p99 %.2f, p999 %.2f, max %.2f%n",
+                name, successes, latency.getValueAtQuantile(0.50) / 1e3, latency.getValueAtQuantile(0.99) / 1e3,
+                latency.getValueAtQuantile(0.999) / 1e3, latency.getMax() / 1e3));
+    }
+
+    private static double micros(StripedLatencyHistogram histogram, double quantile) {
+        return histogram.snapshot().getValueAtQuantile(quantile) / 1e3;
+    }
+}
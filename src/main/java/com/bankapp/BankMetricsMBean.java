@@ -0,0 +1,54 @@
+package com.bankapp;
+
+// The JMX view of BankMetrics. Counters are totals since the bank was created; latencies are in
+// microseconds over the same period and include the time spent in the bank's event listener.
+public interface BankMetricsMBean {
+    long getLookups();
+
+    long getLookupHits();
+
+    long getLookupMisses();
+
+    long getDeposits();
+
+    long getWithdrawals();
+
+    long getTransfers();
+
+    long getInsufficientFunds();
+
+    long getOtherRejections();
+
+    long getAccountsCreated();
+
+    long getAccountsDeleted();
+
+    // Accounts whose history tiering stopped because old entries could not be written to disk.
+    long getHistorySpillFailures();
+
+    int getAccountCount();
+
+    long getTotalBalanceCents();
+
+    double getDepositLatencyP50Micros();
+
+    double getDepositLatencyP99Micros();
+
+    double getDepositLatencyP999Micros();
+
+    double getWithdrawalLatencyP50Micros();
+
+    double getWithdrawalLatencyP99Micros();
+
+    double getWithdrawalLatencyP999Micros();
+
+    double getTransferLatencyP50Micros();
+
+    double getTransferLatencyP99Micros();
+
+    double getTransferLatencyP999Micros();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+}
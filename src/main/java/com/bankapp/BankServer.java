@@ -0,0 +1,381 @@
+package com.bankapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Serves one Bank to many clients over TCP, with a line-based text protocol.
+//
+// Each request is one line: a command followed by space-separated arguments. Each response is
+// one line starting with "OK" or "ERR", except LIST, whose "OK <count>" line is followed by one
+// line per account. Amounts are dollars with up to two decimals, as in the batch file format.
+//
+//   DEPOSIT <account> <amount>             OK <new balance>
+//   WITHDRAW <account> <amount>            OK <new balance>
+//   TRANSFER <from> <to> <amount>          OK <sender's new balance>
+//   BALANCE <account>                      OK <balance>
+//   CREATE <account> <amount> <owner...>   OK <balance>
+//   DELETE <account>                       OK
+//   DETAILS <account>                      OK <account> <balance> <transactions> <owner...>
+//   LIST [<cursor>]                        OK <count> [<cursor>], then <account> <balance> <owner...> per account
+//   QUIT                                   OK BYE, then the server closes the connection
+//
+// LIST returns at most LIST_PAGE_SIZE accounts, in the order they were added. When more follow, the
+// count is followed by a cursor; send "LIST <cursor>" for the next page.
+//
+// Errors are "ERR <STATUS>" using the TransactionResult status names (followed by the current
+// balance where the bank reports one), ACCOUNT_EXISTS for CREATE, or "ERR BAD_REQUEST <reason>".
+// A request the bank fails on (e.g. an opening balance above Account.MAX_BALANCE_CENTS, or a
+// write-ahead log that cannot be written) is answered "ERR FAILED <message>" and the connection
+// stays open. A request line longer than MAX_REQUEST_CHARS is skipped (never buffered) and
+// answered with BAD_REQUEST.
+//
+// Every connection gets its own virtual thread, so tens of thousands of mostly idle clients cost
+// little more than their sockets. Requests are pipelined: a client may send many lines without
+// waiting, and the responses come back in order. They are flushed once no more requests are
+// buffered, so a pipelined burst is answered with a few large writes instead of one per request.
+public final class BankServer implements AutoCloseable {
+    private static final int ACCEPT_BACKLOG = 4096;
+    // Longest request line accepted, without its line ending; far above any valid request.
+    static final int MAX_REQUEST_CHARS = 4096;
+    // Most accounts in one LIST response, so a large bank is never built into a single reply.
+    static final int LIST_PAGE_SIZE = 1_000;
+    // Returned by readRequest at the end of the stream, and for a line longer than MAX_REQUEST_CHARS.
+    private static final int END_OF_STREAM = -1;
+    private static final int TOO_LONG = -2;
+
+    private final Bank bank;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private volatile boolean closed;
+
+    private BankServer(Bank bank, ServerSocket serverSocket) {
+        this.bank = bank;
+        this.serverSocket = serverSocket;
+        this.connections = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bank-connection-", 0).factory());
+        this.acceptor = new Thread(this::acceptLoop, "bank-server-accept");
+        this.acceptor.setDaemon(true);
+    }
+
+    // Starts serving 'bank' on 'port' on the loopback address only (0 picks a free port; see getPort).
+    public static BankServer start(Bank bank, int port) throws IOException {
+        return start(bank, port, InetAddress.getLoopbackAddress());
+    }
+
+    // Starts serving 'bank' on 'port' at 'address'; null (or the wildcard address) means all interfaces.
+    public static BankServer start(Bank bank, int port, InetAddress address) throws IOException {
+        BankServer server = new BankServer(bank, new ServerSocket(port, ACCEPT_BACKLOG, address));
+        server.acceptor.start();
+        return server;
+    }
+
+    // The port the server is listening on.
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // The address the server is listening on; the wildcard address when it listens on all interfaces.
+    public InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    // Number of clients currently connected.
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    // Number of requests handled since the server started.
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    // Stops accepting connections, disconnects every client and waits for their threads to finish.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : open) {
+            socket.close();
+        }
+        connections.shutdown();
+        try {
+            acceptor.join();
+            connections.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return; // Closed
+            }
+            open.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                // Rejected because the server is shutting down
+                open.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    // Connection loop: answer each request line until the client disconnects or sends QUIT.
+    private void serve(Socket socket) {
+        activeConnections.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            StringBuilder line = new StringBuilder();
+            StringBuilder response = new StringBuilder();
+            int length;
+            while ((length = readRequest(in, line)) != END_OF_STREAM) {
+                requests.increment();
+                boolean quit;
+                if (length == TOO_LONG) {
+                    quit = badRequest(response, "request longer than " + MAX_REQUEST_CHARS + " characters");
+                } else {
+                    quit = handleSafely(line.toString(), response);
+                }
+                out.append(response);
+                response.setLength(0);
+                if (quit || !in.ready()) {
+                    out.flush();
+                }
+                if (quit) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // Client went away, or the server is closing
+        } catch (IOException e) {
+            // Nothing sensible to answer on a broken connection
+        } finally {
+            open.remove(socket);
+            activeConnections.decrementAndGet();
+        }
+    }
+
+    // Reads one request line into 'line', without its line ending ("\n" or "\r\n"). Returns its length,
+    // END_OF_STREAM if the client closed the connection before sending another line, or TOO_LONG for a
+    // line longer than MAX_REQUEST_CHARS, whose rest is read and dropped so a client cannot make the
+    // server buffer without end.
+    private static int readRequest(BufferedReader in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (line.length() == MAX_REQUEST_CHARS) {
+                while ((c = in.read()) != -1 && c != '\n') {
+                    // Skip to the end of the line
+                }
+                return TOO_LONG;
+            }
+            line.append((char) c);
+        }
+        if (c == -1 && line.isEmpty()) {
+            return END_OF_STREAM;
+        }
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return line.length();
+    }
+
+    // Handles one request, answering "ERR FAILED <message>" instead if the bank throws, so one bad
+    // request neither kills the connection nor leaves the client waiting for its response.
+    private boolean handleSafely(String line, StringBuilder response) {
+        try {
+            return handle(line, response);
+        } catch (RuntimeException e) {
+            response.setLength(0);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            response.append("ERR FAILED ").append(message.replace('\r', ' ').replace('\n', ' ')).append('\n');
+            return false;
+        }
+    }
+
+    // Handles one request line, appending the response (with its line ending) to 'response'.
+    // Returns true if the connection should be closed afterwards.
+    private boolean handle(String line, StringBuilder response) {
+        String[] parts = line.trim().split(" +", 4);
+        String command = parts[0].toUpperCase(Locale.ROOT);
+        switch (command) {
+            case "DEPOSIT":
+            case "WITHDRAW":
+                if (parts.length != 3) {
+                    return badRequest(response, "usage: " + command + " <account> <amount>");
+                }
+                appendResult(response, applyToAccount(parts[1], command.equals("DEPOSIT"), parts[2]));
+                return false;
+            case "TRANSFER":
+                if (parts.length != 4) {
+                    return badRequest(response, "usage: TRANSFER <from> <to> <amount>");
+                }
+                long cents = BatchProcessor.parseCents(parts[3], 0);
+                appendResult(response, cents < 0
+                        ? TransactionResult.INVALID_AMOUNT
+                        : bank.transferCents(parts[1], parts[2], cents));
+                return false;
+            case "BALANCE":
+                if (parts.length != 2) {
+                    return badRequest(response, "usage: BALANCE <account>");
+                }
+                Optional<Account> account = bank.findAccount(parts[1]);
+                if (account.isPresent()) {
+                    ok(response).append(' ').append(Account.formatCents(account.get().getBalanceCents())).append('\n');
+                } else {
+                    accountNotFound(response);
+                }
+                return false;
+            case "CREATE":
+                if (parts.length != 4) {
+                    return badRequest(response, "usage: CREATE <account> <amount> <owner>");
+                }
+                create(parts[1], parts[2], parts[3], response);
+                return false;
+            case "DELETE":
+                if (parts.length != 2) {
+                    return badRequest(response, "usage: DELETE <account>");
+                }
+                if (bank.deleteAccount(parts[1])) {
+                    ok(response).append('\n');
+                } else {
+                    accountNotFound(response);
+                }
+                return false;
+            case "DETAILS":
+                if (parts.length != 2) {
+                    return badRequest(response, "usage: DETAILS <account>");
+                }
+                bank.findAccount(parts[1]).ifPresentOrElse(
+                        found -> describe(ok(response).append(' '), found),
+                        () -> accountNotFound(response));
+                return false;
+            case "LIST":
+                // Listed from the index, so paged-out accounts are not loaded. In creation order the
+                // cursor is just the sequence of the last account sent, which stays valid if it is deleted.
+                if (parts.length > 2) {
+                    return badRequest(response, "usage: LIST [<cursor>]");
+                }
+                AccountSummary after = null;
+                if (parts.length == 2) {
+                    try {
+                        after = new AccountSummary(null, null, 0, Long.parseLong(parts[1]));
+                    } catch (NumberFormatException e) {
+                        return badRequest(response, "invalid cursor " + parts[1]);
+                    }
+                }
+                AccountPage page = bank.listAccounts(AccountOrder.CREATED, after, LIST_PAGE_SIZE);
+                ok(response).append(' ').append(page.accounts().size());
+                if (page.hasMore()) {
+                    response.append(' ').append(page.last().sequence());
+                }
+                response.append('\n');
+                for (AccountSummary each : page.accounts()) {
+                    response.append(each.accountNumber()).append(' ').append(Account.formatCents(each.balanceCents()))
+                            .append(' ').append(each.ownerName()).append('\n');
+                }
+                return false;
+            case "QUIT":
+                ok(response).append(" BYE\n");
+                return true;
+            default:
+                return badRequest(response, "unknown command " + parts[0]);
+        }
+    }
+
+    private TransactionResult applyToAccount(String accountNumber, boolean deposit, String amount) {
+        Account account = bank.findAccount(accountNumber).orElse(null);
+        if (account == null) {
+            return TransactionResult.ACCOUNT_NOT_FOUND;
+        }
+        long cents = BatchProcessor.parseCents(amount, 0);
+        if (cents < 0) {
+            return TransactionResult.INVALID_AMOUNT;
+        }
+        return deposit ? account.depositCents(cents) : account.withdrawCents(cents);
+    }
+
+    private void create(String accountNumber, String amount, String owner, StringBuilder response) {
+        long cents = BatchProcessor.parseCents(amount, 0);
+        if (cents < 0) {
+            appendResult(response, TransactionResult.INVALID_AMOUNT);
+            return;
+        }
+        Account account = new Account(accountNumber, owner.trim(), cents, System.currentTimeMillis());
+        if (bank.addAccount(account)) {
+            ok(response).append(' ').append(Account.formatCents(cents)).append('\n');
+        } else {
+            response.append("ERR ACCOUNT_EXISTS\n");
+        }
+    }
+
+    private static void appendResult(StringBuilder response, TransactionResult result) {
+        if (result.isSuccess()) {
+            ok(response).append(' ').append(Account.formatCents(result.balanceCents())).append('\n');
+            return;
+        }
+        response.append("ERR ").append(result.status());
+        if (result.status() == TransactionResult.Status.INSUFFICIENT_FUNDS
+                || result.status() == TransactionResult.Status.BALANCE_LIMIT_EXCEEDED) {
+            response.append(' ').append(Account.formatCents(result.balanceCents()));
+        }
+        response.append('\n');
+    }
+
+    private static void describe(StringBuilder response, Account account) {
+        response.append(account.getAccountNumber()).append(' ').append(Account.formatCents(account.getBalanceCents()))
+                .append(' ').append(account.getTransactionCount()).append(' ').append(account.getOwnerName()).append('\n');
+    }
+
+    private static StringBuilder ok(StringBuilder response) {
+        return response.append("OK");
+    }
+
+    private static void accountNotFound(StringBuilder response) {
+        response.append("ERR ").append(TransactionResult.Status.ACCOUNT_NOT_FOUND).append('\n');
+    }
+
+    private static boolean badRequest(StringBuilder response, String reason) {
+        response.append("ERR BAD_REQUEST ").append(reason).append('\n');
+        return false;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.bankapp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Applies a file of deposits and withdrawals to a Bank, e.g. an end-of-day settlement file.
+//
+// The file is CSV with one operation per line: accountNumber,DEPOSIT|WITHDRAWAL,amount
+// (amount in dollars with up to two decimals, e.g. 125.50). A first line that is the header
+// "account,type,amount" (or "accountNumber,type,amount", any case) and blank lines are skipped.
+//
+// The file is read as a stream by one thread, so it never has to fit in memory. Each line is
+// routed by the hash of its account number to one of N worker threads, in chunks, through a
+// bounded queue. All operations on one account go to the same worker in file order, so they are
+// applied in the order they appear, while different accounts are processed in parallel.
+public final class BatchProcessor {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int QUEUED_CHUNKS_PER_WORKER = 8;
+    private static final TransactionResult.Status[] STATUSES = TransactionResult.Status.values();
+
+    private final Bank bank;
+    private final int workers;
+
+    // A batch of parsed operations bound for one worker. A chunk with no entries ends the stream.
+    private static final class Chunk {
+        private final String[] accounts = new String[CHUNK_SIZE];
+        private final boolean[] deposits = new boolean[CHUNK_SIZE];
+        private final long[] amounts = new long[CHUNK_SIZE];
+        private int size;
+
+        boolean isFull() {
+            return size == CHUNK_SIZE;
+        }
+    }
+
+    // Thrown by process() when a worker fails on an operation, e.g. because the bank's write-ahead
+    // log cannot be written. That worker skips the rest of its operations and the others finish
+    // theirs; partialResult() counts what was done. The operation that failed is not counted,
+    // whether or not it had already changed the bank.
+    public static final class WorkerFailedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        private final transient BatchResult partialResult;
+
+        WorkerFailedException(Throwable cause, BatchResult partialResult) {
+            super("Batch worker failed", cause);
+            this.partialResult = partialResult;
+        }
+
+        public BatchResult partialResult() {
+            return partialResult;
+        }
+    }
+
+    // What one worker did: counts per result status.
+    private static final class Tally {
+        private final long[] byStatus = new long[STATUSES.length];
+        private Throwable failure;
+    }
+
+    public BatchProcessor(Bank bank, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.bank = bank;
+        this.workers = workers;
+    }
+
+    // Processes the CSV file at 'file'. Throws WorkerFailedException if applying an operation fails.
+    public BatchResult process(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return process(reader);
+        }
+    }
+
+    // Processes CSV lines from 'reader' until it is exhausted.
+    public BatchResult process(BufferedReader reader) throws IOException {
+        long started = System.nanoTime();
+        List<BlockingQueue<Chunk>> queues = new ArrayList<>(workers);
+        Tally[] tallies = new Tally[workers];
+        Thread[] threads = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS_PER_WORKER);
+            Tally tally = new Tally();
+            queues.add(queue);
+            tallies[i] = tally;
+            threads[i] = new Thread(() -> work(queue, tally), "batch-worker-" + i);
+            threads[i].start();
+        }
+
+        Chunk[] filling = new Chunk[workers];
+        for (int i = 0; i < workers; i++) {
+            filling[i] = new Chunk();
+        }
+        long lines = 0;
+        long malformed = 0;
+        boolean finished = false;
+        try {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                boolean header = first && isHeader(line);
+                first = false;
+                if (header) {
+                    continue;
+                }
+                lines++;
+                int firstComma = line.indexOf(',');
+                int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+                if (secondComma < 0) {
+                    malformed++;
+                    continue;
+                }
+                String account = line.substring(0, firstComma).trim();
+                String type = line.substring(firstComma + 1, secondComma).trim();
+                long cents = parseCents(line, secondComma + 1);
+                boolean deposit = type.equalsIgnoreCase("DEPOSIT");
+                if (account.isEmpty() || cents < 0 || (!deposit && !type.equalsIgnoreCase("WITHDRAWAL"))) {
+                    malformed++;
+                    continue;
+                }
+                int worker = Math.floorMod(account.hashCode(), workers);
+                Chunk chunk = filling[worker];
+                chunk.accounts[chunk.size] = account;
+                chunk.deposits[chunk.size] = deposit;
+                chunk.amounts[chunk.size] = cents;
+                chunk.size++;
+                if (chunk.isFull()) {
+                    queues.get(worker).put(chunk);
+                    filling[worker] = new Chunk();
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                if (filling[i].size > 0) {
+                    queues.get(i).put(filling[i]);
+                }
+                queues.get(i).put(new Chunk());
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch processing interrupted", e);
+        } finally {
+            if (!finished) {
+                // Reading failed (e.g. a line that is not valid UTF-8) or was interrupted
+                stopWorkers(threads);
+            }
+        }
+
+        Map<TransactionResult.Status, Long> outcomes = new EnumMap<>(TransactionResult.Status.class);
+        Throwable failure = null;
+        for (Tally tally : tallies) {
+            if (failure == null) {
+                failure = tally.failure;
+            }
+            for (int s = 0; s < STATUSES.length; s++) {
+                if (tally.byStatus[s] > 0) {
+                    outcomes.merge(STATUSES[s], tally.byStatus[s], Long::sum);
+                }
+            }
+        }
+        BatchResult result = new BatchResult(lines, malformed, outcomes, System.nanoTime() - started);
+        if (failure != null) {
+            throw new WorkerFailedException(failure, result);
+        }
+        return result;
+    }
+
+    // Worker loop: apply chunks in arrival order until the empty end-of-stream chunk arrives.
+    private void work(BlockingQueue<Chunk> queue, Tally tally) {
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk.size == 0) {
+                    return;
+                }
+                for (int i = 0; i < chunk.size; i++) {
+                    TransactionResult.Status status = apply(chunk.accounts[i], chunk.deposits[i], chunk.amounts[i]);
+                    tally.byStatus[status.ordinal()]++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            tally.failure = e;
+            // Keep draining so the reader is never blocked on this worker's full queue.
+            drainQuietly(queue);
+        }
+    }
+
+    // Stops the workers when the reader gives up early: they drop what is still queued and exit,
+    // and this waits for that so no worker outlives the call.
+    private static void stopWorkers(Thread[] threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // True if 'line' is the header row rather than an operation.
+    private static boolean isHeader(String line) {
+        String[] fields = line.split(",", -1);
+        return fields.length == 3
+                && (fields[0].trim().equalsIgnoreCase("account") || fields[0].trim().equalsIgnoreCase("accountNumber"))
+                && fields[1].trim().equalsIgnoreCase("type")
+                && fields[2].trim().equalsIgnoreCase("amount");
+    }
+
+    private TransactionResult.Status apply(String accountNumber, boolean deposit, long cents) {
+        Account account = bank.findAccount(accountNumber).orElse(null);
+        if (account == null) {
+            return TransactionResult.Status.ACCOUNT_NOT_FOUND;
+        }
+        return TransactionResult.statusOf(deposit ? account.depositOutcome(cents) : account.withdrawOutcome(cents));
+    }
+
+    private static void drainQuietly(BlockingQueue<Chunk> queue) {
+        try {
+            while (queue.take().size != 0) {
+                // Discard
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Parses a dollar amount such as "12", "12.5" or "12.50" starting at 'from', without going
+    // through double. Returns the amount in cents, or -1 if the text is not a valid amount.
+    static long parseCents(String text, int from) {
+        int end = text.length();
+        while (from < end && text.charAt(from) == ' ') {
+            from++;
+        }
+        while (end > from && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        long cents = 0;
+        int decimals = -1;
+        boolean digits = false;
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 2) {
+                if (cents > (Long.MAX_VALUE - 9) / 10) {
+                    return -1;
+                }
+                cents = cents * 10 + (c - '0');
+                digits = true;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return -1;
+            }
+        }
+        if (!digits) {
+            return -1;
+        }
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            if (cents > Long.MAX_VALUE / 10) {
+                return -1;
+            }
+            cents *= 10;
+        }
+        return cents;
+    }
+}
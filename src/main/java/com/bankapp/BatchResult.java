@@ -0,0 +1,47 @@
+package com.bankapp;
+
+import java.util.Map;
+
+// Summary of a BatchProcessor run. 'lines' counts operation lines read (header and blank lines
+// excluded); 'malformed' lines could not be parsed; 'outcomes' counts the parsed ones by result.
+public record BatchResult(long lines, long malformed, Map<TransactionResult.Status, Long> outcomes,
+                          long elapsedNanos) {
+
+    public BatchResult {
+        outcomes = Map.copyOf(outcomes);
+    }
+
+    // Operations that were applied to the bank.
+    public long applied() {
+        return outcomes.getOrDefault(TransactionResult.Status.SUCCESS, 0L);
+    }
+
+    // Lines that were turned down, either because they were malformed or because the bank rejected them.
+    public long rejected() {
+        return lines - applied();
+    }
+
+    // Lines processed per second, over the whole run.
+    public double linesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines / (elapsedNanos / 1e9);
+    }
+
+    // A short multi-line report for the console.
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Processed %,d operations in %.3f s (%,.0f ops/s)%n",
+                lines, elapsedNanos / 1e9, linesPerSecond()));
+        text.append(String.format("  Applied:  %,d%n", applied()));
+        text.append(String.format("  Rejected: %,d%n", rejected()));
+        if (malformed > 0) {
+            text.append(String.format("    MALFORMED_LINE: %,d%n", malformed));
+        }
+        for (TransactionResult.Status status : TransactionResult.Status.values()) {
+            long count = outcomes.getOrDefault(status, 0L);
+            if (status != TransactionResult.Status.SUCCESS && count > 0) {
+                text.append(String.format("    %s: %,d%n", status, count));
+            }
+        }
+        return text.toString();
+    }
+}
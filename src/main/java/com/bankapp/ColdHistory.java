@@ -0,0 +1,146 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// The on-disk part of a tiered TransactionLog: its oldest entries, in blocks of BLOCK_ENTRIES.
+//
+// Only the file offset of each block is kept in memory (8 bytes per 1024 entries). Reading an entry
+// decodes its whole block, and the last decoded block is cached, so walking the history in order
+// costs one read per block. The file is scratch space owned by one log, rewritten from scratch when
+// the log is created; durability comes from the write-ahead log and snapshots, not from here.
+//
+// Not thread-safe: the owning TransactionLog calls it under its own lock.
+final class ColdHistory implements AutoCloseable {
+    static final int BLOCK_ENTRIES = 1024;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    // Sequence number of the first entry in the file.
+    private final int firstSequence;
+    private long[] blockOffsets = new long[16];
+    private int blocks;
+    private long end;
+
+    // The last block read back, column by column like TransactionLog itself.
+    private int cachedBlock = -1;
+    private final long[] timestamps = new long[BLOCK_ENTRIES];
+    private final byte[] types = new byte[BLOCK_ENTRIES];
+    private final long[] amounts = new long[BLOCK_ENTRIES];
+    private final long[] balances = new long[BLOCK_ENTRIES];
+    private final String[] counterparties = new String[BLOCK_ENTRIES];
+
+    ColdHistory(Path file, int firstSequence) throws IOException {
+        this.file = file;
+        this.firstSequence = firstSequence;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Appends BLOCK_ENTRIES entries taken from the given columns, starting at 'from'.
+    void appendBlock(long[] timestampColumn, byte[] typeColumn, long[] amountColumn, long[] balanceColumn,
+                     String[] counterpartyColumn, int from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + BLOCK_ENTRIES * 32);
+        buffer.position(Integer.BYTES);
+        for (int i = from; i < from + BLOCK_ENTRIES; i++) {
+            String counterparty = counterpartyColumn[i];
+            byte[] bytes = counterparty == null ? null : counterparty.getBytes(StandardCharsets.UTF_8);
+            if (bytes != null && bytes.length >= NULL_STRING) {
+                throw new IllegalArgumentException("String too long for cold history: " + bytes.length + " bytes");
+            }
+            int needed = 27 + (bytes == null ? 0 : bytes.length);
+            if (buffer.remaining() < needed) {
+                buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed))
+                        .put(buffer.flip());
+            }
+            buffer.putLong(timestampColumn[i]).put(typeColumn[i]).putLong(amountColumn[i]).putLong(balanceColumn[i]);
+            if (bytes == null) {
+                buffer.putShort((short) NULL_STRING);
+            } else {
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+        }
+        buffer.putInt(0, buffer.position() - Integer.BYTES).flip();
+        long position = end;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        if (blocks == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+        }
+        blockOffsets[blocks++] = end;
+        end = position;
+    }
+
+    long timestampAt(int index) throws IOException {
+        return timestamps[load(index)];
+    }
+
+    TransactionType typeAt(int index) throws IOException {
+        return TYPES[types[load(index)]];
+    }
+
+    long amountAt(int index) throws IOException {
+        return amounts[load(index)];
+    }
+
+    long balanceAfterAt(int index) throws IOException {
+        return balances[load(index)];
+    }
+
+    String counterpartyAt(int index) throws IOException {
+        return counterparties[load(index)];
+    }
+
+    // Closes and deletes the file.
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    // Makes sure the block holding sequence 'index' is decoded, and returns the entry's position in it.
+    private int load(int index) throws IOException {
+        int offset = index - firstSequence;
+        int block = offset / BLOCK_ENTRIES;
+        if (block != cachedBlock) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, blockOffsets[block]);
+            ByteBuffer payload = ByteBuffer.allocate(length.flip().getInt());
+            readFully(payload, blockOffsets[block] + Integer.BYTES);
+            payload.flip();
+            for (int i = 0; i < BLOCK_ENTRIES; i++) {
+                timestamps[i] = payload.getLong();
+                types[i] = payload.get();
+                amounts[i] = payload.getLong();
+                balances[i] = payload.getLong();
+                int stringLength = Short.toUnsignedInt(payload.getShort());
+                if (stringLength == NULL_STRING) {
+                    counterparties[i] = null;
+                } else {
+                    byte[] bytes = new byte[stringLength];
+                    payload.get(bytes);
+                    counterparties[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            cachedBlock = block;
+        }
+        return offset % BLOCK_ENTRIES;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bankapp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A bounded queue with many producers and one consumer, on a preallocated ring of slots.
+//
+// Producers claim a slot by advancing the shared tail with one compare-and-set and then publish
+// the item by stamping the slot's sequence number, so they never wait for each other while the
+// ring has room (Vyukov's bounded queue). The consumer owns the head outright and takes items
+// without any atomic read-modify-write. offer() fails instead of blocking when the ring is full,
+// which leaves it to the caller to decide how to wait.
+final class CommandRing<T> {
+    private final Object[] items;
+    // For each slot: the position that may be written next (free) or that position + 1 (published).
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer.
+    private long head;
+
+    // Creates a ring with at least 'capacity' slots (rounded up to a power of two).
+    CommandRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    // Adds an item. Returns false if the ring is full. Safe to call from any thread.
+    boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[slot] = item;
+                    // A volatile write, so a producer that then checks whether the consumer sleeps
+                    // cannot have that check reordered before the item became visible.
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Takes the next item, or returns null if there is none. Consumer thread only.
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        T item = (T) items[slot];
+        items[slot] = null;
+        sequences.setRelease(slot, head + items.length);
+        head++;
+        return item;
+    }
+
+    // True if no published item is waiting. Exact when called by the consumer.
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    // Number of items ever offered successfully.
+    long offered() {
+        return tail.get();
+    }
+}
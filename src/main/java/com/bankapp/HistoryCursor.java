@@ -0,0 +1,75 @@
+package com.bankapp;
+
+// Walks a TransactionLog in order without copying it: each next() loads one entry's fields into
+// this cursor, which are then read through the getters. Nothing is allocated per entry (apart from
+// decoding blocks that were moved to disk), so a cursor can scan millions of entries cheaply.
+//
+//     HistoryCursor cursor = log.cursor(0);
+//     while (cursor.next()) {
+//         total += cursor.amountCents();
+//     }
+//
+// The cursor reaches entries appended after it was opened. Not thread-safe.
+public final class HistoryCursor {
+    private final TransactionLog log;
+    private int nextSequence;
+    private int sequence = -1;
+    private long timestamp;
+    private TransactionType type;
+    private long amountCents;
+    private long balanceAfterCents;
+    private String counterparty;
+
+    HistoryCursor(TransactionLog log, int fromSequence) {
+        this.log = log;
+        this.nextSequence = Math.max(0, fromSequence);
+    }
+
+    // Moves to the next entry. Returns false (and stays put) when there is none yet.
+    public boolean next() {
+        if (!log.readInto(nextSequence, this)) {
+            return false;
+        }
+        nextSequence = sequence + 1;
+        return true;
+    }
+
+    void set(int sequence, long timestamp, TransactionType type, long amountCents, long balanceAfterCents,
+             String counterparty) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.amountCents = amountCents;
+        this.balanceAfterCents = balanceAfterCents;
+        this.counterparty = counterparty;
+    }
+
+    public int sequence() {
+        return sequence;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public TransactionType type() {
+        return type;
+    }
+
+    public long amountCents() {
+        return amountCents;
+    }
+
+    public long balanceAfterCents() {
+        return balanceAfterCents;
+    }
+
+    public String counterparty() {
+        return counterparty;
+    }
+
+    // The current entry as a value, for keeping it after the cursor moves on.
+    public TransactionEntry toEntry() {
+        return new TransactionEntry(sequence, timestamp, type, amountCents, balanceAfterCents, counterparty);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bankapp;
+
+import java.util.List;
+
+// One page of TransactionLog.page(): the entries, the sequence number the next page starts at,
+// and whether the log held more entries when the page was read.
+public record HistoryPage(List<TransactionEntry> entries, int nextSequence, boolean hasMore) {
+
+    public HistoryPage {
+        entries = List.copyOf(entries);
+    }
+}
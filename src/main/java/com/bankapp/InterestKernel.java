@@ -0,0 +1,48 @@
+package com.bankapp;
+
+// The arithmetic of an interest and fee run (Bank.applyInterestAndFees), over columns of balances.
+//
+// Rates are fixed-point: parts per million of the balance, so 0.25% is 2,500. Interest is
+// balance * rate / 1,000,000 rounded down to the cent, computed exactly for every balance an account
+// can hold (the product itself would overflow a long, so it is split at the million). The fee is a
+// flat amount per account, capped at the balance after interest so no account is overdrawn.
+//
+// With the jdk.incubator.vector module present (run with --add-modules jdk.incubator.vector) the
+// columns are processed with the Vector API, several accounts per instruction; without it the
+// scalar loop below computes the same amounts.
+final class InterestKernel {
+    static final long PARTS_PER_MILLION = 1_000_000;
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private InterestKernel() {
+    }
+
+    // Fills interest[i] and fees[i] for every i in [from, to) from balances[i].
+    static void compute(long[] balances, long[] interest, long[] fees, int from, int to,
+                        long ratePpm, long feeCents) {
+        if (VECTORIZED) {
+            VectorInterestKernel.compute(balances, interest, fees, from, to, ratePpm, feeCents);
+        } else {
+            computeScalar(balances, interest, fees, from, to, ratePpm, feeCents);
+        }
+    }
+
+    // As compute, one account at a time. Also finishes the tail the vector loop leaves.
+    static void computeScalar(long[] balances, long[] interest, long[] fees, int from, int to,
+                              long ratePpm, long feeCents) {
+        for (int i = from; i < to; i++) {
+            long balance = balances[i];
+            long credit = interest(balance, ratePpm);
+            interest[i] = credit;
+            fees[i] = Math.min(feeCents, balance + credit);
+        }
+    }
+
+    // Interest on one balance, capped so the balance stays within Account.MAX_BALANCE_CENTS.
+    static long interest(long balanceCents, long ratePpm) {
+        long millions = balanceCents / PARTS_PER_MILLION;
+        long rest = balanceCents - millions * PARTS_PER_MILLION;
+        long credit = millions * ratePpm + rest * ratePpm / PARTS_PER_MILLION;
+        return Math.min(credit, Account.MAX_BALANCE_CENTS - balanceCents);
+    }
+}
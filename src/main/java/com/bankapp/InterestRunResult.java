@@ -0,0 +1,26 @@
+package com.bankapp;
+
+// Summary of a Bank.applyInterestAndFees run. 'accounts' counts the accounts the run went over
+// (ones deleted while it ran excluded); the cents are the amounts actually posted.
+public record InterestRunResult(long accounts, long interestCents, long feeCents, long elapsedNanos) {
+
+    // Change in the bank's total from this run.
+    public long netCents() {
+        return interestCents - feeCents;
+    }
+
+    // Accounts processed per second, over the whole run.
+    public double accountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accounts / (elapsedNanos / 1e9);
+    }
+
+    // A short multi-line report for the console.
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Posted to %,d accounts in %.3f s (%,.0f accounts/s)%n",
+                accounts, elapsedNanos / 1e9, accountsPerSecond()));
+        text.append(String.format("  Interest: $%s%n", Account.formatCents(interestCents)));
+        text.append(String.format("  Fees:     $%s%n", Account.formatCents(feeCents)));
+        return text.toString();
+    }
+}
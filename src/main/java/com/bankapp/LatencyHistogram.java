@@ -0,0 +1,114 @@
+package com.bankapp;
+
+import java.util.Arrays;
+
+// A fixed-size histogram of latencies (or any non-negative long values) for measuring tails.
+//
+// Values are counted in log-linear buckets: exact below 32, then 32 buckets for every power of
+// two, so each bucket is at most 1/32 (about 3%) of its value wide. The counts live in one array
+// that is allocated up front, so record() never allocates and costs a few instructions, which
+// keeps the measurement from disturbing what is being measured.
+//
+// Not thread-safe: give each thread its own histogram and add() them together at the end.
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    // Records one value. Negative values are counted as 0.
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[indexFor(v)]++;
+        count++;
+        sum += v;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    // Adds every value recorded in 'other' to this histogram.
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    // Adds counts gathered elsewhere with the same buckets (see StripedLatencyHistogram):
+    // 'bucketCounts' by bucket index, plus the exact sum and maximum of those values.
+    void add(long[] bucketCounts, long valueSum, long valueMax) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+            count += bucketCounts[i];
+        }
+        sum += valueSum;
+        max = Math.max(max, valueMax);
+    }
+
+    // Forgets everything recorded so far.
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    // Number of values recorded.
+    public long getCount() {
+        return count;
+    }
+
+    // Largest value recorded (exact), or 0 if none.
+    public long getMax() {
+        return max;
+    }
+
+    // Mean of the values recorded (exact), or 0 if none.
+    public double getMean() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    // The value below which the fraction 'quantile' (0 to 1) of recordings fall, e.g. 0.99 for p99.
+    // Reported as the top of its bucket, so it is never below the true value and at most ~3% above it.
+    public long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Bucket index for a non-negative value.
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,354 @@
+package com.bankapp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+// Drives a realistic mix of operations against an in-process Bank for a fixed time and reports
+// throughput and latency percentiles per operation, e.g. to size hardware or to find the thread
+// count at which throughput stops scaling.
+//
+// Usage: LoadGenerator [--accounts N] [--mix balance=60,deposit=20,withdraw=15,create=3,delete=2]
+//                      [--skew uniform|zipf[:theta]] [--threads 1,2,4,8] [--duration 10s] [--warmup 2s]
+//
+// With several thread counts the run is repeated once per count, each time on a fresh bank.
+// CREATE and DELETE pick their account number from the same key space as the other operations,
+// so with equal weights the number of accounts stays roughly where it started.
+public final class LoadGenerator {
+
+    // The operations the generator can issue.
+    public enum Op { BALANCE, DEPOSIT, WITHDRAW, CREATE, DELETE }
+
+    private static final Op[] OPS = Op.values();
+    private static final String USAGE = "Usage: LoadGenerator [--accounts N] [--mix balance=60,deposit=20,...]"
+            + " [--skew uniform|zipf[:theta]] [--threads 1,2,4,8] [--duration 10s] [--warmup 2s]";
+
+    // What to run. 'mix' holds one relative weight per Op (by ordinal); 'zipfTheta' is 0 for uniform keys.
+    public record Config(int accounts, int[] mix, double zipfTheta, int threads, Duration duration, Duration warmup) {
+
+        public Config {
+            if (accounts <= 0 || threads <= 0) {
+                throw new IllegalArgumentException("accounts and threads must be positive");
+            }
+            if (mix.length != OPS.length || Arrays.stream(mix).anyMatch(w -> w < 0)
+                    || Arrays.stream(mix).sum() == 0) {
+                throw new IllegalArgumentException("mix needs a non-negative weight per operation, not all zero");
+            }
+            if (zipfTheta < 0 || zipfTheta >= 1) {
+                throw new IllegalArgumentException("zipf theta must be in [0, 1)");
+            }
+            mix = mix.clone();
+        }
+
+        @Override
+        public int[] mix() {
+            return mix.clone();
+        }
+    }
+
+    // What one run measured: latencies in nanoseconds per operation, over the measured period only.
+    public record Result(Config config, LatencyHistogram[] latencies, long elapsedNanos) {
+
+        // Operations completed per second, all kinds together.
+        public double opsPerSecond() {
+            return total().getCount() / (elapsedNanos / 1e9);
+        }
+
+        // All operation kinds merged into one histogram.
+        public LatencyHistogram total() {
+            LatencyHistogram total = new LatencyHistogram();
+            for (LatencyHistogram histogram : latencies) {
+                total.add(histogram);
+            }
+            return total;
+        }
+
+        // A table with one line per operation kind plus the total, latencies in microseconds.
+        public String report() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.ROOT, "%d thread(s): %,.0f ops/s%n", config.threads(), opsPerSecond()));
+            text.append(String.format(Locale.ROOT, "  %-9s %12s %10s %10s %10s %10s%n",
+                    "op", "count", "p50 us", "p99 us", "p999 us", "max us"));
+            for (Op op : OPS) {
+                if (latencies[op.ordinal()].getCount() > 0) {
+                    appendRow(text, op.name(), latencies[op.ordinal()]);
+                }
+            }
+            appendRow(text, "ALL", total());
+            return text.toString();
+        }
+
+        private static void appendRow(StringBuilder text, String name, LatencyHistogram histogram) {
+            text.append(String.format(Locale.ROOT, "  %-9s %,12d %10.2f %10.2f %10.2f %10.2f%n", name,
+                    histogram.getCount(), histogram.getValueAtQuantile(0.50) / 1e3, histogram.getValueAtQuantile(0.99) / 1e3,
+                    histogram.getValueAtQuantile(0.999) / 1e3, histogram.getMax() / 1e3));
+        }
+    }
+
+    private LoadGenerator() {
+    }
+
+    // Fills a fresh bank with config.accounts() accounts, then runs the configured load against it.
+    public static Result run(Config config) throws InterruptedException {
+        Bank bank = new Bank();
+        String[] keys = new String[config.accounts()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.format("L%09d", i);
+            bank.addAccount(new Account(keys[i], "Load " + i, i % 1000 * 100L, System.currentTimeMillis()));
+        }
+        return run(bank, keys, config);
+    }
+
+    // Runs the configured load against 'bank', choosing account numbers from 'keys'.
+    static Result run(Bank bank, String[] keys, Config config) throws InterruptedException {
+        KeyChooser.Zipf zipf = config.zipfTheta() > 0 ? new KeyChooser.Zipf(keys.length, config.zipfTheta()) : null;
+        int[] cumulative = config.mix();
+        for (int i = 1; i < cumulative.length; i++) {
+            cumulative[i] += cumulative[i - 1];
+        }
+        long measureFrom = System.nanoTime() + config.warmup().toNanos();
+        long measureUntil = measureFrom + config.duration().toNanos();
+        CountDownLatch done = new CountDownLatch(config.threads());
+        List<LatencyHistogram[]> perThread = new ArrayList<>();
+        for (int t = 0; t < config.threads(); t++) {
+            LatencyHistogram[] histograms = new LatencyHistogram[OPS.length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+            perThread.add(histograms);
+            KeyChooser chooser = zipf == null ? new KeyChooser(keys.length, t) : zipf.forThread(t);
+            Thread worker = new Thread(() -> {
+                try {
+                    drive(bank, keys, cumulative, chooser, histograms, measureFrom, measureUntil);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + t);
+            worker.start();
+        }
+        done.await();
+
+        LatencyHistogram[] merged = new LatencyHistogram[OPS.length];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = new LatencyHistogram();
+            for (LatencyHistogram[] histograms : perThread) {
+                merged[i].add(histograms[i]);
+            }
+        }
+        return new Result(config, merged, measureUntil - measureFrom);
+    }
+
+    // Worker loop: pick an operation and a key, time the call, record it once the warm-up is over.
+    private static void drive(Bank bank, String[] keys, int[] cumulative, KeyChooser chooser,
+                              LatencyHistogram[] histograms, long measureFrom, long measureUntil) {
+        SplittableRandom random = chooser.random;
+        int totalWeight = cumulative[cumulative.length - 1];
+        long now = System.nanoTime();
+        while (now < measureUntil) {
+            int pick = random.nextInt(totalWeight);
+            int op = 0;
+            while (cumulative[op] <= pick) {
+                op++;
+            }
+            String key = keys[chooser.next()];
+            long started = now;
+            switch (OPS[op]) {
+                case BALANCE:
+                    bank.findAccount(key).ifPresent(Account::getBalanceCents);
+                    break;
+                case DEPOSIT:
+                    bank.findAccount(key).ifPresent(account -> account.depositCents(100));
+                    break;
+                case WITHDRAW:
+                    bank.findAccount(key).ifPresent(account -> account.withdrawCents(100));
+                    break;
+                case CREATE:
+                    bank.addAccount(new Account(key, "Load", 10_000, System.currentTimeMillis()));
+                    break;
+                default:
+                    bank.deleteAccount(key);
+                    break;
+            }
+            now = System.nanoTime();
+            if (started >= measureFrom) {
+                histograms[op].record(now - started);
+            }
+        }
+    }
+
+    // Chooses account indexes uniformly. Each thread has its own instance and random stream.
+    // Also used by the tiering demo in src/jmh.
+    static class KeyChooser {
+        final SplittableRandom random;
+        private final int size;
+
+        KeyChooser(int size, long seed) {
+            this.size = size;
+            this.random = new SplittableRandom(0x5DEECE66DL + seed);
+        }
+
+        int next() {
+            return random.nextInt(size);
+        }
+
+        // Zipf-distributed indexes: index 0 is the hottest, and 'theta' sets how steep the skew is
+        // (0.99 is the usual "a few accounts get most of the traffic" setting). Uses the closed-form
+        // approximation from Gray et al., "Quickly Generating Billion-Record Synthetic Databases",
+        // so each draw is O(1) after an O(n) set-up that is shared by all threads.
+        static final class Zipf extends KeyChooser {
+            private final double theta;
+            private final double alpha;
+            private final double zetaN;
+            private final double eta;
+
+            Zipf(int size, double theta) {
+                this(size, theta, 0, zeta(size, theta));
+            }
+
+            private Zipf(int size, double theta, long seed, double zetaN) {
+                super(size, seed);
+                this.theta = theta;
+                this.alpha = 1 / (1 - theta);
+                this.zetaN = zetaN;
+                this.eta = (1 - Math.pow(2.0 / size, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+            }
+
+            // A chooser with the same distribution and its own random stream.
+            Zipf forThread(long seed) {
+                return new Zipf(super.size, theta, seed, zetaN);
+            }
+
+            @Override
+            int next() {
+                double u = random.nextDouble();
+                double uz = u * zetaN;
+                if (uz < 1) {
+                    return 0;
+                }
+                if (uz < 1 + Math.pow(0.5, theta)) {
+                    return Math.min(1, super.size - 1);
+                }
+                return Math.min(super.size - 1, (int) (super.size * Math.pow(eta * u - eta + 1, alpha)));
+            }
+
+            private static double zeta(int n, double theta) {
+                double sum = 0;
+                for (int i = 1; i <= n; i++) {
+                    sum += 1 / Math.pow(i, theta);
+                }
+                return sum;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int accounts = 100_000;
+        int[] mix = {60, 20, 15, 3, 2};
+        double theta = 0;
+        int[] threadCounts = {Runtime.getRuntime().availableProcessors()};
+        Duration duration = Duration.ofSeconds(10);
+        Duration warmup = Duration.ofSeconds(2);
+        List<Config> configs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : "";
+                switch (args[i]) {
+                    case "--accounts":
+                        accounts = Integer.parseInt(value);
+                        break;
+                    case "--mix":
+                        mix = parseMix(value);
+                        break;
+                    case "--skew":
+                        theta = parseSkew(value);
+                        break;
+                    case "--threads":
+                        threadCounts = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                        break;
+                    case "--duration":
+                        duration = parseDuration(value);
+                        break;
+                    case "--warmup":
+                        warmup = parseDuration(value);
+                        break;
+                    default:
+                        System.out.println("❌ Unknown option: " + args[i]);
+                        System.out.println(USAGE);
+                        return;
+                }
+                i++;
+            }
+            // Built up front, so bad settings are reported before anything runs
+            for (int threads : threadCounts) {
+                configs.add(new Config(accounts, mix, theta, threads, duration, warmup));
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+
+        System.out.printf(Locale.ROOT, "🏋️ Load: %,d accounts, mix %s, %s keys, %,d ms per run after %,d ms warm-up%n",
+                accounts, describeMix(mix), theta == 0 ? "uniform" : "zipf(" + theta + ")",
+                duration.toMillis(), warmup.toMillis());
+        for (Config config : configs) {
+            System.out.print(run(config).report());
+        }
+    }
+
+    // Parses "balance=60,deposit=20,..."; operations that are not named get weight 0.
+    static int[] parseMix(String text) {
+        int[] mix = new int[OPS.length];
+        for (String part : text.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + part);
+            }
+            mix[Op.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(pair[1].trim());
+        }
+        return mix;
+    }
+
+    // Parses "uniform", "zipf" (theta 0.99) or "zipf:<theta>".
+    static double parseSkew(String text) {
+        if (text.equalsIgnoreCase("uniform")) {
+            return 0;
+        }
+        if (text.equalsIgnoreCase("zipf")) {
+            return 0.99;
+        }
+        if (text.regionMatches(true, 0, "zipf:", 0, 5)) {
+            return Double.parseDouble(text.substring(5));
+        }
+        throw new IllegalArgumentException("Bad skew: " + text);
+    }
+
+    // Parses "500ms", "10s" or "2m".
+    static Duration parseDuration(String text) {
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        throw new IllegalArgumentException("Bad duration: " + text);
+    }
+
+    private static String describeMix(int[] mix) {
+        StringBuilder text = new StringBuilder();
+        for (Op op : OPS) {
+            if (mix[op.ordinal()] > 0) {
+                text.append(text.length() == 0 ? "" : ",").append(op.name().toLowerCase(Locale.ROOT))
+                        .append('=').append(mix[op.ordinal()]);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -1,19 +1,251 @@
 package com.bankapp;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Scanner;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    // Number of history entries shown under "View Account Details".
+    private static final int RECENT_TRANSACTIONS = 5;
+    // Most accounts listed by "Search Accounts by Holder".
+    private static final int SEARCH_RESULTS = 20;
+    // Accounts per page under "View All Accounts".
+    private static final int PAGE_SIZE = 20;
+    // How long a shutdown hook waits for main to checkpoint and close before the JVM halts.
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+    // Counted down once main has finished shutting down, so the server's shutdown hook can wait for it.
+    private static final CountDownLatch FINISHED = new CountDownLatch(1);
+
+    // Prints the bank's event messages in the background; flushed before each prompt so output stays in order.
+    private static final AsyncConsoleSink EVENTS = new AsyncConsoleSink(System.out);
+
+    // Usage: Main [--wal <directory> [--wal-async]] [--batch <file> | --server <port> [--bind <address>]]
+    //   --wal <directory>  keep the bank in a write-ahead log in <directory>, restoring it on startup
+    //   --wal-async        acknowledge operations before they reach the disk (faster, may lose the last batch)
+    //   --batch <file>     apply a CSV file of deposits and withdrawals, print a summary and exit
+    //   --server <port>    serve the bank over TCP (see BankServer for the protocol) until the process is
+    //                      stopped (Ctrl+C or SIGTERM), then checkpoint and exit
+    //   --bind <address>   address the server listens on: loopback unless given, 0.0.0.0 for all interfaces
+    //   --metrics <seconds> print the bank's metrics every <seconds> (they are always available over JMX)
+    //   --history-dir <directory>  keep only recent account history in memory and move older entries here
+    //   --account-dir <directory>  keep only recently used accounts in memory and page the others out here
     public static void main(String[] args) {
+        Path walDirectory = null;
+        Path historyDirectory = null;
+        Path accountDirectory = null;
+        Path batchFile = null;
+        int serverPort = -1;
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        int metricsSeconds = 0;
+        WriteAheadLog.Durability durability = WriteAheadLog.Durability.GROUP_COMMIT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--wal":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --wal needs a directory.");
+                        return;
+                    }
+                    walDirectory = Path.of(args[++i]);
+                    break;
+                case "--wal-async":
+                    durability = WriteAheadLog.Durability.ASYNC;
+                    break;
+                case "--batch":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --batch needs a file.");
+                        return;
+                    }
+                    batchFile = Path.of(args[++i]);
+                    break;
+                case "--server":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --server needs a port.");
+                        return;
+                    }
+                    try {
+                        serverPort = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        System.out.println("❌ Invalid port: " + args[i]);
+                        return;
+                    }
+                    break;
+                case "--bind":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --bind needs an address.");
+                        return;
+                    }
+                    try {
+                        bindAddress = InetAddress.getByName(args[++i]);
+                    } catch (UnknownHostException e) {
+                        System.out.println("❌ Invalid bind address: " + args[i]);
+                        return;
+                    }
+                    break;
+                case "--history-dir":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --history-dir needs a directory.");
+                        return;
+                    }
+                    historyDirectory = Path.of(args[++i]);
+                    break;
+                case "--account-dir":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --account-dir needs a directory.");
+                        return;
+                    }
+                    accountDirectory = Path.of(args[++i]);
+                    break;
+                case "--metrics":
+                    if (i + 1 == args.length) {
+                        System.out.println("❌ --metrics needs an interval in seconds.");
+                        return;
+                    }
+                    try {
+                        metricsSeconds = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        metricsSeconds = -1;
+                    }
+                    if (metricsSeconds <= 0) {
+                        System.out.println("❌ Invalid metrics interval: " + args[i]);
+                        return;
+                    }
+                    break;
+                default:
+                    System.out.println("❌ Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
         Bank bank = new Bank();
-        Scanner scanner = new Scanner(System.in);
+        if (historyDirectory != null) {
+            try {
+                bank.enableHistoryTiering(historyDirectory);
+            } catch (IOException e) {
+                System.out.println("❌ Could not use the history directory: " + e.getMessage());
+                return;
+            }
+        }
+        if (accountDirectory != null) {
+            try {
+                bank.enableAccountTiering(accountDirectory);
+            } catch (IOException e) {
+                System.out.println("❌ Could not use the account directory: " + e.getMessage());
+                return;
+            }
+        }
+        WriteAheadLog wal = null;
+        if (walDirectory != null) {
+            try {
+                wal = WriteAheadLog.open(walDirectory, bank, durability, 0);
+            } catch (IOException e) {
+                System.out.println("❌ Could not open the write-ahead log: " + e.getMessage());
+                return;
+            }
+            System.out.println("📂 Restored " + wal.getSnapshotAccounts() + " accounts from the last checkpoint and "
+                    + wal.getReplayedRecords() + " logged operations from " + walDirectory);
+            if (wal.getOrphanedRecords() > 0) {
+                System.out.println("⚠️ " + wal.getOrphanedRecords()
+                        + " logged operations named accounts that did not exist and were skipped");
+            }
+        }
+        // Batch and server runs only report summaries, so per-operation console messages are left out.
+        BankEventListener console = batchFile == null && serverPort < 0 ? EVENTS : BankEventListener.NONE;
+        bank.setEventListener(wal == null ? console : BankEventListener.of(wal, console));
 
         // Create some sample accounts
-        bank.addAccount(new Account("ACC001", "Alice", 500.0));
-        bank.addAccount(new Account("ACC002", "Bob", 1200.0));
+        if (bank.getAccountCount() == 0) {
+            bank.addAccount(new Account("ACC001", "Alice", 500.0));
+            bank.addAccount(new Account("ACC002", "Bob", 1200.0));
+        }
 
+        try {
+            bank.getMetrics().registerMBean("main");
+        } catch (javax.management.JMException e) {
+            System.out.println("⚠️  Metrics are not available over JMX: " + e.getMessage());
+        }
+        MetricsReporter reporter = metricsSeconds > 0
+                ? MetricsReporter.start(bank.getMetrics(), System.out, Duration.ofSeconds(metricsSeconds))
+                : null;
+
+        if (batchFile != null) {
+            runBatch(bank, batchFile);
+        } else if (serverPort >= 0) {
+            runServer(bank, serverPort, bindAddress);
+        } else {
+            runInteractive(bank);
+        }
+        if (reporter != null) {
+            reporter.close();
+        }
+        EVENTS.close();
+        if (wal != null) {
+            // Checkpoint on the way out so the next start loads a snapshot instead of replaying the whole log.
+            try (WriteAheadLog log = wal) {
+                log.checkpoint(WriteAheadLog.DEFAULT_HISTORY_TAIL);
+            } catch (IOException e) {
+                System.out.println("❌ Could not checkpoint the write-ahead log: " + e.getMessage());
+            }
+        }
+        FINISHED.countDown();
+    }
+
+    // Applies a batch file using one worker per available core and prints throughput and rejects.
+    static void runBatch(Bank bank, Path batchFile) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        System.out.println("📦 Processing " + batchFile + " with " + workers + " workers...");
+        try {
+            System.out.print(new BatchProcessor(bank, workers).process(batchFile).summary());
+        } catch (IOException e) {
+            System.out.println("❌ Could not read the batch file: " + e.getMessage());
+        } catch (BatchProcessor.WorkerFailedException e) {
+            // Reported like a read error, so main still closes the log and the console on the way out
+            System.out.println("❌ The batch stopped after applying " + e.partialResult().applied()
+                    + " operations: " + e.getCause());
+        }
+    }
+
+    // Serves the bank over TCP at 'address' until the JVM is asked to shut down (Ctrl+C, SIGTERM).
+    // Standard input is not read, so the server keeps running under nohup or with input from /dev/null.
+    // The shutdown hook only wakes this thread and then holds the JVM open until main has finished,
+    // so the server is closed and the write-ahead log checkpointed on the way out.
+    private static void runServer(Bank bank, int port, InetAddress address) {
+        try (BankServer server = BankServer.start(bank, port, address)) {
+            System.out.println("🌐 Bank server listening on " + address.getHostAddress() + ":" + server.getPort()
+                    + ". Press Ctrl+C to stop.");
+            CountDownLatch stop = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                stop.countDown();
+                try {
+                    FINISHED.await(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bank-server-shutdown"));
+            try {
+                stop.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println("🛑 Stopping after " + server.getRequestCount() + " requests.");
+        } catch (IOException e) {
+            System.out.println("❌ Could not start the server: " + e.getMessage());
+        }
+    }
+
+    // The interactive menu loop, reading choices from standard input until the user exits.
+    private static void runInteractive(Bank bank) {
+        Scanner scanner = new Scanner(System.in);
         boolean exit = false;
         while (!exit) {
+            EVENTS.flush();
             System.out.println("\n" + "=".repeat(50));
             System.out.println("🏦 WELCOME TO SIMPLE BANKING APP 🏦");
             System.out.println("=".repeat(50));
@@ -24,9 +256,10 @@ public class Main {
             System.out.println("5. 📋 View All Accounts");
             System.out.println("6. 🗑️  Delete Account");
             System.out.println("7. 📈 View Account Details");
-            System.out.println("8. ❌ Exit");
+            System.out.println("8. 🔍 Search Accounts by Holder");
+            System.out.println("9. ❌ Exit");
             System.out.println("=".repeat(50));
-            System.out.print("Choose an option (1-8): ");
+            System.out.print("Choose an option (1-9): ");
 
             try {
                 int choice = scanner.nextInt();
@@ -46,7 +279,7 @@ public class Main {
                         handleCreateAccount(scanner, bank);
                         break;
                     case 5:
-                        handleViewAllAccounts(bank);
+                        handleViewAllAccounts(scanner, bank);
                         break;
                     case 6:
                         handleDeleteAccount(scanner, bank);
@@ -55,12 +288,15 @@ public class Main {
                         handleViewAccountDetails(scanner, bank);
                         break;
                     case 8:
+                        handleSearchByOwner(scanner, bank);
+                        break;
+                    case 9:
                         exit = true;
                         System.out.println("\n🎉 Thank you for using the Simple Banking App! 🎉");
                         System.out.println("Have a great day! 👋");
                         break;
                     default:
-                        System.out.println("❌ Invalid option. Please choose a number between 1-8.");
+                        System.out.println("❌ Invalid option. Please choose a number between 1-9.");
                 }
             } catch (java.util.InputMismatchException e) {
                 System.out.println("Invalid input. Please enter a number.");
@@ -129,7 +365,7 @@ public class Main {
         }
     }
 
-    private static void handleCreateAccount(Scanner scanner, Bank bank) {
+    static void handleCreateAccount(Scanner scanner, Bank bank) {
         try {
             System.out.println("\n📝 Creating New Account");
             System.out.println("-".repeat(30));
@@ -164,9 +400,16 @@ public class Main {
                 System.out.println("❌ Initial deposit cannot be negative.");
                 return;
             }
+
+            long initialCents = Account.toCents(initialDeposit);
+            if (initialCents < 0 || initialCents > Account.MAX_BALANCE_CENTS) {
+                System.out.println("❌ Initial deposit cannot exceed $" + Account.formatCents(Account.MAX_BALANCE_CENTS) + ".");
+                return;
+            }
             
             Account newAccount = new Account(accNum, name, initialDeposit);
             bank.addAccount(newAccount);
+            EVENTS.flush();
             System.out.println("✅ Account created successfully!");
             System.out.println("📊 Account Details:");
             System.out.println("   Account Number: " + newAccount.getAccountNumber());
@@ -181,22 +424,79 @@ public class Main {
         }
     }
 
-    private static void handleViewAllAccounts(Bank bank) {
-        System.out.println("\n📋 All Accounts in the Bank");
-        System.out.println("-".repeat(50));
-        
-        if (bank.getAllAccounts().isEmpty()) {
-            System.out.println("📭 No accounts found in the bank.");
-        } else {
+    // Lists the accounts a page at a time, in an order the user picks. Each page is fetched from the
+    // bank only when the user asks for it, and written to the console in one buffered write.
+    private static void handleViewAllAccounts(Scanner scanner, Bank bank) {
+        try {
+            System.out.println("\n📋 All Accounts in the Bank");
+            System.out.println("-".repeat(50));
+            System.out.print("Sort by: 1) date opened  2) account number  3) highest balance  4) lowest balance [1]: ");
+            AccountOrder order = switch (scanner.nextLine().trim()) {
+                case "2" -> AccountOrder.NUMBER;
+                case "3" -> AccountOrder.BALANCE_DESCENDING;
+                case "4" -> AccountOrder.BALANCE_ASCENDING;
+                default -> AccountOrder.CREATED;
+            };
+
+            AccountPage page = bank.listAccounts(order, PAGE_SIZE);
+            if (page.accounts().isEmpty()) {
+                System.out.println("📭 No accounts found in the bank.");
+                return;
+            }
+            // Not closed: that would close System.out
+            AccountReport report = new AccountReport(new OutputStreamWriter(System.out, System.out.charset()));
+            report.writeHeader();
+            while (true) {
+                report.writeRows(page.accounts());
+                report.flush();
+                if (!page.hasMore()) {
+                    break;
+                }
+                System.out.print("-- Press Enter for more, or q to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+                page = bank.listAccounts(order, page.last(), PAGE_SIZE);
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Could not write the list: " + e.getMessage());
+        } catch (java.util.NoSuchElementException e) {
+            System.out.println("No input available. Returning to main menu.");
+        }
+    }
+
+    private static void handleSearchByOwner(Scanner scanner, Bank bank) {
+        try {
+            System.out.println("\n🔍 Search Accounts by Holder");
+            System.out.println("-".repeat(30));
+
+            System.out.print("Enter holder name (or the start of it): ");
+            String prefix = scanner.nextLine().trim();
+
+            if (prefix.isEmpty()) {
+                System.out.println("❌ Search text cannot be empty.");
+                return;
+            }
+
+            // Ask for one more than is shown, to know whether there are more
+            List<Account> matches = bank.findAccountsByOwnerPrefix(prefix, SEARCH_RESULTS + 1);
+            if (matches.isEmpty()) {
+                System.out.println("📭 No accounts found for \"" + prefix + "\".");
+                return;
+            }
             System.out.printf("%-15s %-20s %-15s%n", "Account #", "Holder Name", "Balance");
             System.out.println("-".repeat(50));
-            
-            for (Account account : bank.getAllAccounts()) {
-                System.out.printf("%-15s %-20s $%-15.2f%n", 
-                    account.getAccountNumber(), 
-                    account.getOwnerName(), 
+            for (Account account : matches.subList(0, Math.min(SEARCH_RESULTS, matches.size()))) {
+                System.out.printf("%-15s %-20s $%-15.2f%n",
+                    account.getAccountNumber(),
+                    account.getOwnerName(),
                     account.getBalance());
             }
+            if (matches.size() > SEARCH_RESULTS) {
+                System.out.println("... more than " + SEARCH_RESULTS + " matches; type more of the name to narrow it down.");
+            }
+        } catch (java.util.NoSuchElementException e) {
+            System.out.println("No input available. Returning to main menu.");
         }
     }
 
@@ -253,6 +553,13 @@ public class Main {
                         System.out.println("   Holder Name: " + account.getOwnerName());
                         System.out.println("   Current Balance: $" + String.format("%.2f", account.getBalance()));
                         System.out.println("   Account Status: Active");
+                        List<TransactionEntry> recent = account.getRecentTransactions(RECENT_TRANSACTIONS);
+                        if (!recent.isEmpty()) {
+                            System.out.println("🧾 Recent Transactions:");
+                            for (TransactionEntry entry : recent) {
+                                System.out.println("   " + entry.describe());
+                            }
+                        }
                     },
                     () -> System.out.println("❌ Account not found.")
                 );
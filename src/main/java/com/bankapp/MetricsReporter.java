@@ -0,0 +1,45 @@
+package com.bankapp;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Prints BankMetrics.format() at a fixed interval on a background daemon thread until closed.
+public final class MetricsReporter implements AutoCloseable {
+    private final ScheduledExecutorService scheduler;
+
+    private MetricsReporter(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    // Starts printing 'metrics' to 'out' every 'interval', the first time one interval from now.
+    public static MetricsReporter start(BankMetrics metrics, PrintStream out, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            out.print(metrics.format());
+            out.flush();
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        return new MetricsReporter(scheduler);
+    }
+
+    // Stops printing. A report that is being printed right now is allowed to finish.
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
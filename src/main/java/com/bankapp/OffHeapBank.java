@@ -0,0 +1,490 @@
+package com.bankapp;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+// A bank that keeps its accounts off the Java heap, for account counts where one Account object
+// (plus its String key, map entry and history) per account would mean a multi-GB heap and long
+// GC pauses.
+//
+// Every account is a fixed 128-byte record (balance, account number, owner name) in a slab of
+// 65,536 records allocated with the Foreign Memory API, and the account numbers are indexed by an
+// open-addressing hash table that also lives off-heap (8 bytes per slot, at most half full). The
+// heap only holds a few arrays, whatever the number of accounts, so the garbage collector has
+// nothing to trace. Deleted records go on a free list and are reused.
+//
+// Deposits, withdrawals and transfers have the same results as on Bank, but there is no per-account
+// history, listener or metrics: this is the balance-keeping core only. Account numbers can be up to
+// MAX_NUMBER_CHARS characters and owner names up to MAX_OWNER_BYTES bytes of UTF-8.
+//
+// Safe to use from many threads. Operations on one account run under its lock stripe (the same
+// scheme Bank uses for transfers); adding and deleting accounts also take a write lock on the index,
+// which lookups read optimistically. Close the bank to free its memory; it cannot be used after that.
+public final class OffHeapBank implements AutoCloseable {
+    public static final int MAX_NUMBER_CHARS = 24;
+    public static final int MAX_OWNER_BYTES = 64;
+
+    private static final int DEFAULT_EXPECTED_ACCOUNTS = 1024;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MIN_INDEX_SLOTS = 16;
+
+    // Record layout: balance, the two lengths, the account number as UTF-16 chars, the owner name as UTF-8.
+    private static final long RECORD_BYTES = 128;
+    private static final long BALANCE = 0;
+    private static final long NUMBER_LENGTH = 8;
+    private static final long OWNER_LENGTH = 9;
+    private static final long NUMBER = 16;
+    private static final long OWNER = 64;
+    private static final int SLAB_SHIFT = 16;
+    private static final int SLAB_RECORDS = 1 << SLAB_SHIFT;
+    private static final int MAX_RECORDS = Integer.MAX_VALUE - 1;
+
+    // An index slot holds the key's hash in the high 32 bits and (record + 1) in the low 32 bits.
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1L;
+
+    // The index and the slabs, replaced as a whole when either grows so a reader always sees a matching pair.
+    // Slabs never move, so a record found through an old table is still valid in a newer one.
+    private record Table(MemorySegment index, long mask, MemorySegment[] slabs) {
+    }
+
+    private final Arena arena = Arena.ofShared();
+    private final StampedLock structure = new StampedLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final LongAdder totalCents = new LongAdder();
+    private volatile Table table;
+    private volatile int accountCount;
+    // Guarded by the write lock: next never-used record, reusable records, and index slots in use (live + tombstones).
+    private int nextRecord;
+    private int[] freeRecords = new int[16];
+    private int freeCount;
+    private long usedSlots;
+
+    public OffHeapBank() {
+        this(DEFAULT_EXPECTED_ACCOUNTS);
+    }
+
+    // Creates a bank whose index is sized for 'expectedAccounts', so filling it up to that many never rehashes.
+    public OffHeapBank(int expectedAccounts) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("expectedAccounts must not be negative");
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        long slots = indexSlotsFor(expectedAccounts);
+        this.table = new Table(allocateIndex(slots), slots - 1, new MemorySegment[0]);
+    }
+
+    // A copy of one account's fields, as returned by findAccount.
+    public record AccountRecord(String accountNumber, String ownerName, long balanceCents) {
+        public double getBalance() {
+            return balanceCents / 100.0;
+        }
+    }
+
+    // Adds an account with an opening balance in dollars (negative amounts open at 0, as with Account).
+    public boolean addAccount(String accountNumber, String ownerName, double initialDeposit) {
+        return addAccountCents(accountNumber, ownerName, Math.max(0, Account.toCents(initialDeposit)));
+    }
+
+    // Adds an account with an exact opening balance. Returns false if the number is already taken.
+    // Balances are capped at Account.MAX_BALANCE_CENTS, as on Bank: a larger opening balance is rejected.
+    public boolean addAccountCents(String accountNumber, String ownerName, long openingCents) {
+        if (accountNumber.isEmpty() || accountNumber.length() > MAX_NUMBER_CHARS) {
+            throw new IllegalArgumentException("Account number must be 1 to " + MAX_NUMBER_CHARS + " characters");
+        }
+        byte[] owner = ownerName.getBytes(StandardCharsets.UTF_8);
+        if (owner.length > MAX_OWNER_BYTES) {
+            throw new IllegalArgumentException("Owner name must be at most " + MAX_OWNER_BYTES + " bytes of UTF-8");
+        }
+        if (openingCents < 0) {
+            throw new IllegalArgumentException("Opening balance must not be negative");
+        }
+        if (openingCents > Account.MAX_BALANCE_CENTS) {
+            throw new IllegalArgumentException("Opening balance too large");
+        }
+        int hash = hash(accountNumber);
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            long stamp = structure.writeLock();
+            try {
+                if (probe(table, accountNumber, hash) >= 0) {
+                    return false;
+                }
+                int record = allocateRecord();
+                Table current = table;
+                MemorySegment slab = slabOf(current, record);
+                long at = offsetOf(record);
+                slab.set(ValueLayout.JAVA_LONG, at + BALANCE, openingCents);
+                slab.set(ValueLayout.JAVA_BYTE, at + NUMBER_LENGTH, (byte) accountNumber.length());
+                slab.set(ValueLayout.JAVA_BYTE, at + OWNER_LENGTH, (byte) owner.length);
+                for (int i = 0; i < accountNumber.length(); i++) {
+                    slab.set(ValueLayout.JAVA_CHAR, at + NUMBER + 2L * i, accountNumber.charAt(i));
+                }
+                MemorySegment.copy(owner, 0, slab, ValueLayout.JAVA_BYTE, at + OWNER, owner.length);
+                if ((usedSlots + 1) * 2 > current.mask() + 1) {
+                    current = rehash(accountCount + 1);
+                }
+                insert(current, hash, record);
+                accountCount = accountCount + 1;
+            } finally {
+                structure.unlockWrite(stamp);
+            }
+            totalCents.add(openingCents);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Finds an account by its number and copies out its fields.
+    public Optional<AccountRecord> findAccount(String accountNumber) {
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            int record = find(accountNumber);
+            if (record < 0) {
+                return Optional.empty();
+            }
+            MemorySegment slab = slabOf(table, record);
+            long at = offsetOf(record);
+            byte[] owner = new byte[Byte.toUnsignedInt(slab.get(ValueLayout.JAVA_BYTE, at + OWNER_LENGTH))];
+            MemorySegment.copy(slab, ValueLayout.JAVA_BYTE, at + OWNER, owner, 0, owner.length);
+            return Optional.of(new AccountRecord(accountNumber, new String(owner, StandardCharsets.UTF_8),
+                    slab.get(ValueLayout.JAVA_LONG, at + BALANCE)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes an account. Its balance is taken out of the bank total and its record is reused later.
+    public boolean deleteAccount(String accountNumber) {
+        int hash = hash(accountNumber);
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            long balance;
+            long stamp = structure.writeLock();
+            try {
+                Table current = table;
+                long slot = probe(current, accountNumber, hash);
+                if (slot < 0) {
+                    return false;
+                }
+                int record = (int) current.index().getAtIndex(ValueLayout.JAVA_LONG, slot) - 1;
+                current.index().setAtIndex(ValueLayout.JAVA_LONG, slot, TOMBSTONE);
+                MemorySegment slab = slabOf(current, record);
+                long at = offsetOf(record);
+                balance = slab.get(ValueLayout.JAVA_LONG, at + BALANCE);
+                slab.asSlice(at, RECORD_BYTES).fill((byte) 0);
+                if (freeCount == freeRecords.length) {
+                    freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+                }
+                freeRecords[freeCount++] = record;
+                accountCount = accountCount - 1;
+            } finally {
+                structure.unlockWrite(stamp);
+            }
+            totalCents.add(-balance);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TransactionResult deposit(String accountNumber, double amount) {
+        return depositCents(accountNumber, Account.toCents(amount));
+    }
+
+    // Deposits an exact amount of cents into an account.
+    public TransactionResult depositCents(String accountNumber, long cents) {
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            int record = find(accountNumber);
+            if (record < 0) {
+                return TransactionResult.ACCOUNT_NOT_FOUND;
+            }
+            if (cents <= 0) {
+                return TransactionResult.INVALID_AMOUNT;
+            }
+            MemorySegment slab = slabOf(table, record);
+            long at = offsetOf(record) + BALANCE;
+            long balance = slab.get(ValueLayout.JAVA_LONG, at);
+            if (cents > Account.MAX_BALANCE_CENTS - balance) {
+                return new TransactionResult(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED, balance);
+            }
+            slab.set(ValueLayout.JAVA_LONG, at, balance + cents);
+            totalCents.add(cents);
+            return new TransactionResult(TransactionResult.Status.SUCCESS, balance + cents);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TransactionResult withdraw(String accountNumber, double amount) {
+        return withdrawCents(accountNumber, Account.toCents(amount));
+    }
+
+    // Withdraws an exact amount of cents from an account, if it holds enough.
+    public TransactionResult withdrawCents(String accountNumber, long cents) {
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            int record = find(accountNumber);
+            if (record < 0) {
+                return TransactionResult.ACCOUNT_NOT_FOUND;
+            }
+            if (cents <= 0) {
+                return TransactionResult.INVALID_AMOUNT;
+            }
+            MemorySegment slab = slabOf(table, record);
+            long at = offsetOf(record) + BALANCE;
+            long balance = slab.get(ValueLayout.JAVA_LONG, at);
+            if (balance < cents) {
+                return new TransactionResult(TransactionResult.Status.INSUFFICIENT_FUNDS, balance);
+            }
+            slab.set(ValueLayout.JAVA_LONG, at, balance - cents);
+            totalCents.add(-cents);
+            return new TransactionResult(TransactionResult.Status.SUCCESS, balance - cents);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TransactionResult transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return transferCents(fromAccountNumber, toAccountNumber, Account.toCents(amount));
+    }
+
+    // Moves an exact amount of cents between two accounts, holding both lock stripes (lowest first) like Bank.
+    public TransactionResult transferCents(String fromAccountNumber, String toAccountNumber, long cents) {
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            return TransactionResult.SAME_ACCOUNT;
+        }
+        int first = stripeFor(fromAccountNumber);
+        int second = stripeFor(toAccountNumber);
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        stripes[first].lock();
+        try {
+            if (second != first) {
+                stripes[second].lock();
+            }
+            try {
+                int from = find(fromAccountNumber);
+                int to = find(toAccountNumber);
+                if (from < 0 || to < 0) {
+                    return TransactionResult.ACCOUNT_NOT_FOUND;
+                }
+                if (cents <= 0) {
+                    return TransactionResult.INVALID_AMOUNT;
+                }
+                Table current = table;
+                MemorySegment fromSlab = slabOf(current, from);
+                MemorySegment toSlab = slabOf(current, to);
+                long fromAt = offsetOf(from) + BALANCE;
+                long toAt = offsetOf(to) + BALANCE;
+                long fromBalance = fromSlab.get(ValueLayout.JAVA_LONG, fromAt);
+                long toBalance = toSlab.get(ValueLayout.JAVA_LONG, toAt);
+                if (fromBalance < cents) {
+                    return new TransactionResult(TransactionResult.Status.INSUFFICIENT_FUNDS, fromBalance);
+                }
+                if (cents > Account.MAX_BALANCE_CENTS - toBalance) {
+                    return new TransactionResult(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED, fromBalance);
+                }
+                fromSlab.set(ValueLayout.JAVA_LONG, fromAt, fromBalance - cents);
+                toSlab.set(ValueLayout.JAVA_LONG, toAt, toBalance + cents);
+                return new TransactionResult(TransactionResult.Status.SUCCESS, fromBalance - cents);
+            } finally {
+                if (second != first) {
+                    stripes[second].unlock();
+                }
+            }
+        } finally {
+            stripes[first].unlock();
+        }
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    public double getTotalBankBalance() {
+        return getTotalBankBalanceCents() / 100.0;
+    }
+
+    // The exact total balance in cents, kept up to date as operations happen (see Bank).
+    public long getTotalBankBalanceCents() {
+        return totalCents.sum();
+    }
+
+    // Native memory held by the records and the index, in bytes.
+    public long getOffHeapBytes() {
+        Table current = table;
+        return current.slabs().length * (long) SLAB_RECORDS * RECORD_BYTES + current.index().byteSize();
+    }
+
+    // Frees the records. The bank must not be used, or be in use, afterwards.
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // Looks up the record holding 'accountNumber', or returns -1. The index is read without locking
+    // and the read is retried under the read lock if an add or delete changed it meanwhile.
+    private int find(String accountNumber) {
+        int hash = hash(accountNumber);
+        long stamp = structure.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Table current = table;
+                long slot = probe(current, accountNumber, hash);
+                long entry = slot < 0 ? EMPTY : current.index().getAtIndex(ValueLayout.JAVA_LONG, slot);
+                if (structure.validate(stamp)) {
+                    return (int) entry - 1;
+                }
+            } catch (IndexOutOfBoundsException e) {
+                // Read a slot of an index that was being changed: look again under the lock
+            }
+        }
+        stamp = structure.readLock();
+        try {
+            Table current = table;
+            long slot = probe(current, accountNumber, hash);
+            return slot < 0 ? -1 : (int) current.index().getAtIndex(ValueLayout.JAVA_LONG, slot) - 1;
+        } finally {
+            structure.unlockRead(stamp);
+        }
+    }
+
+    // Index slot holding 'accountNumber', or -1. Gives up after one pass over the table, which only
+    // happens when an optimistic read sees a table that is being changed.
+    private static long probe(Table table, String accountNumber, int hash) {
+        MemorySegment index = table.index();
+        long mask = table.mask();
+        long slot = hash & mask;
+        for (long probes = 0; probes <= mask; probes++) {
+            long entry = index.getAtIndex(ValueLayout.JAVA_LONG, slot);
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && (int) (entry >>> 32) == hash
+                    && numberMatches(table, (int) entry - 1, accountNumber)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean numberMatches(Table table, int record, String accountNumber) {
+        MemorySegment slab = slabOf(table, record);
+        long at = offsetOf(record);
+        int length = accountNumber.length();
+        if (Byte.toUnsignedInt(slab.get(ValueLayout.JAVA_BYTE, at + NUMBER_LENGTH)) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (slab.get(ValueLayout.JAVA_CHAR, at + NUMBER + 2L * i) != accountNumber.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Puts a record known not to be in the index into the first free or deleted slot of its probe sequence.
+    private void insert(Table table, int hash, int record) {
+        long slot = hash & table.mask();
+        long entry;
+        while ((entry = table.index().getAtIndex(ValueLayout.JAVA_LONG, slot)) != EMPTY && entry != TOMBSTONE) {
+            slot = (slot + 1) & table.mask();
+        }
+        if (entry == EMPTY) {
+            usedSlots++;
+        }
+        table.index().setAtIndex(ValueLayout.JAVA_LONG, slot, ((long) hash << 32) | (record + 1L));
+    }
+
+    // Builds a new index big enough for 'accounts' accounts, dropping the tombstones. The old index
+    // is left to the garbage collector (Arena.ofAuto), since optimistic readers may still be reading it.
+    private Table rehash(int accounts) {
+        Table old = table;
+        long slots = Math.max(indexSlotsFor(accounts), old.mask() + 1);
+        if (accountCount * 4L >= slots) {
+            slots *= 2;
+        }
+        Table rebuilt = new Table(allocateIndex(slots), slots - 1, old.slabs());
+        usedSlots = 0;
+        for (long slot = 0; slot <= old.mask(); slot++) {
+            long entry = old.index().getAtIndex(ValueLayout.JAVA_LONG, slot);
+            if (entry != EMPTY && entry != TOMBSTONE) {
+                insert(rebuilt, (int) (entry >>> 32), (int) entry - 1);
+            }
+        }
+        table = rebuilt;
+        return rebuilt;
+    }
+
+    // Takes a record from the free list, or the next unused one, allocating a new slab when needed.
+    private int allocateRecord() {
+        if (freeCount > 0) {
+            return freeRecords[--freeCount];
+        }
+        if (nextRecord == MAX_RECORDS) {
+            throw new IllegalStateException("OffHeapBank is full");
+        }
+        int record = nextRecord++;
+        if ((record & (SLAB_RECORDS - 1)) == 0) {
+            Table current = table;
+            MemorySegment[] slabs = Arrays.copyOf(current.slabs(), current.slabs().length + 1);
+            slabs[slabs.length - 1] = arena.allocate(SLAB_RECORDS * RECORD_BYTES, 64);
+            table = new Table(current.index(), current.mask(), slabs);
+        }
+        return record;
+    }
+
+    private static MemorySegment slabOf(Table table, int record) {
+        return table.slabs()[record >>> SLAB_SHIFT];
+    }
+
+    private static long offsetOf(int record) {
+        return (record & (SLAB_RECORDS - 1)) * RECORD_BYTES;
+    }
+
+    private static MemorySegment allocateIndex(long slots) {
+        return Arena.ofAuto().allocate(slots * Long.BYTES, Long.BYTES);
+    }
+
+    // Index size for 'accounts' accounts: a power of two at least twice as large.
+    private static long indexSlotsFor(int accounts) {
+        long needed = Math.max(MIN_INDEX_SLOTS, accounts * 2L);
+        return Long.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int hash(String accountNumber) {
+        int h = accountNumber.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private ReentrantLock lockFor(String accountNumber) {
+        return stripes[stripeFor(accountNumber)];
+    }
+
+    // Maps an account number to its lock stripe, the same way Bank does.
+    private int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+}
@@ -0,0 +1,525 @@
+package com.bankapp;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// A bank engine that splits the accounts into shards by account-number hash and gives every shard
+// one thread that owns its accounts outright (the single-writer principle).
+//
+// Callers never touch account state: each operation is queued on the owning shard's CommandRing
+// and returns a CompletableFuture that the shard thread completes. Since only one thread ever
+// writes a shard's accounts and counters, those cache lines stay in that core's cache instead of
+// bouncing between cores, and no locks are taken anywhere. Completions run on the shard thread,
+// so callbacks attached to the futures must be quick and must not block.
+//
+// A transfer between two shards is done in two steps, without either shard waiting on the other:
+//   1. the sender's shard debits the sender and passes a credit message to the receiver's shard;
+//   2. the receiver's shard credits the receiver and completes the transfer, or, if the receiver
+//      no longer exists (or its balance would overflow), passes a refund back to the sender's shard,
+//      which puts the money back and completes the transfer with the failure. If the sender was
+//      deleted meanwhile, the money is held in suspense instead (see getSuspenseCents).
+// While a credit is on its way the money is in neither account; getTotalBankBalanceCents counts it
+// as in flight, so the total stays exact. Shards pass messages through their own outbox when the
+// other shard's ring is full, so two busy shards can never deadlock waiting for each other.
+//
+// Shard threads are ordinary platform threads named "shard-<n>". Java cannot pin a thread to a core;
+// for strict pinning, run the process under the OS affinity tools (e.g. taskset, one core per shard).
+public final class ShardedBank implements AutoCloseable {
+    private static final int DEFAULT_RING_CAPACITY = 1 << 14;
+    // Empty polls before a shard thread parks until a producer wakes it.
+    private static final int SPINS_BEFORE_PARKING = 1_000;
+    // How long a shard with messages it could not deliver yet waits before trying again.
+    private static final long OUTBOX_RETRY_NANOS = 20_000;
+
+    // An operation queued for a shard; it runs on the shard's thread and completes result(), which is
+    // completed exceptionally instead if run throws. Each kind is a record holding its arguments, so
+    // queuing one allocates no more than the lambda it replaces did.
+    private interface Command {
+        void run(Shard shard);
+
+        CompletableFuture<?> result();
+    }
+
+    private record AddAccount(String accountNumber, String ownerName, double initialDeposit,
+                              CompletableFuture<Boolean> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.add(new Account(accountNumber, ownerName, initialDeposit), result);
+        }
+    }
+
+    private record DeleteAccount(String accountNumber, CompletableFuture<Boolean> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.delete(accountNumber, result);
+        }
+    }
+
+    private record Balance(String accountNumber, CompletableFuture<TransactionResult> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.balance(accountNumber, result);
+        }
+    }
+
+    private record Deposit(String accountNumber, long cents, CompletableFuture<TransactionResult> result)
+            implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.deposit(accountNumber, cents, result);
+        }
+    }
+
+    private record Withdraw(String accountNumber, long cents, CompletableFuture<TransactionResult> result)
+            implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.withdraw(accountNumber, cents, result);
+        }
+    }
+
+    private record TransferOut(String from, String to, long cents, Shard target,
+                               CompletableFuture<TransactionResult> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.transferOut(from, to, cents, target, result);
+        }
+    }
+
+    private record TransferIn(String from, String to, long cents, long senderBalance, Shard source,
+                              CompletableFuture<TransactionResult> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.transferIn(from, to, cents, senderBalance, source, result);
+        }
+    }
+
+    private record Refund(String from, String to, long cents, TransactionResult.Status status,
+                          CompletableFuture<TransactionResult> result) implements Command {
+        @Override
+        public void run(Shard shard) {
+            shard.refund(from, to, cents, status, result);
+        }
+    }
+
+    private final Shard[] shards;
+    private volatile boolean closed;
+
+    // One shard per available processor.
+    public ShardedBank() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedBank(int shardCount) {
+        this(shardCount, DEFAULT_RING_CAPACITY);
+    }
+
+    // Creates and starts 'shardCount' shards, each with a command ring of 'ringCapacity' slots.
+    public ShardedBank(int shardCount, int ringCapacity) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Adds an account with an opening balance in dollars. Completes with false if the number is taken.
+    public CompletableFuture<Boolean> addAccount(String accountNumber, String ownerName, double initialDeposit) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        submit(shardFor(accountNumber), new AddAccount(accountNumber, ownerName, initialDeposit, result));
+        return result;
+    }
+
+    // Deletes an account. Completes with false if there is no such account.
+    public CompletableFuture<Boolean> deleteAccount(String accountNumber) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        submit(shardFor(accountNumber), new DeleteAccount(accountNumber, result));
+        return result;
+    }
+
+    // Completes with SUCCESS and the account's balance, or ACCOUNT_NOT_FOUND.
+    public CompletableFuture<TransactionResult> balance(String accountNumber) {
+        CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        submit(shardFor(accountNumber), new Balance(accountNumber, result));
+        return result;
+    }
+
+    public CompletableFuture<TransactionResult> deposit(String accountNumber, double amount) {
+        return depositCents(accountNumber, Account.toCents(amount));
+    }
+
+    public CompletableFuture<TransactionResult> depositCents(String accountNumber, long cents) {
+        CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        submit(shardFor(accountNumber), new Deposit(accountNumber, cents, result));
+        return result;
+    }
+
+    public CompletableFuture<TransactionResult> withdraw(String accountNumber, double amount) {
+        return withdrawCents(accountNumber, Account.toCents(amount));
+    }
+
+    public CompletableFuture<TransactionResult> withdrawCents(String accountNumber, long cents) {
+        CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        submit(shardFor(accountNumber), new Withdraw(accountNumber, cents, result));
+        return result;
+    }
+
+    public CompletableFuture<TransactionResult> transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return transferCents(fromAccountNumber, toAccountNumber, Account.toCents(amount));
+    }
+
+    // Moves cents between two accounts with the same results as Bank.transferCents (see the class
+    // comment for how it works across shards). The result's balance is the sender's.
+    public CompletableFuture<TransactionResult> transferCents(String fromAccountNumber, String toAccountNumber, long cents) {
+        CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            result.complete(TransactionResult.SAME_ACCOUNT);
+            return result;
+        }
+        Shard target = shardFor(toAccountNumber);
+        submit(shardFor(fromAccountNumber), new TransferOut(fromAccountNumber, toAccountNumber, cents, target, result));
+        return result;
+    }
+
+    public int getAccountCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.accountCount.get();
+        }
+        return count;
+    }
+
+    // Money refunded to senders that had been deleted by the time the refund reached them: it is no
+    // longer in any account, but still the bank's, and counted in getTotalBankBalanceCents.
+    public long getSuspenseCents() {
+        long suspense = 0;
+        for (Shard shard : shards) {
+            suspense += shard.suspenseCents.get();
+        }
+        return suspense;
+    }
+
+    // The exact total balance in cents, including money in flight between shards and in suspense.
+    // Like Bank's total, it may miss operations that are still finishing while it is read.
+    public long getTotalBankBalanceCents() {
+        // Received before sent: then no transfer can look received without also looking sent.
+        long received = 0;
+        for (Shard shard : shards) {
+            received += shard.receivedCents.get();
+        }
+        long total = 0;
+        long sent = 0;
+        for (Shard shard : shards) {
+            total += shard.balanceCents.get() + shard.suspenseCents.get();
+            sent += shard.sentCents.get();
+        }
+        return total + sent - received;
+    }
+
+    // Stops taking operations, lets every queued operation and transfer in flight finish, then stops
+    // the shard threads. Call it once the callers have stopped submitting.
+    @Override
+    public void close() {
+        closed = true;
+        while (!quiescent()) {
+            LockSupport.parkNanos(100_000);
+        }
+        for (Shard shard : shards) {
+            shard.stopping = true;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // True when every shard has run every command queued on it and no transfer is half done.
+    private boolean quiescent() {
+        long received = 0;
+        for (Shard shard : shards) {
+            received += shard.receivedCents.get();
+        }
+        long sent = 0;
+        for (Shard shard : shards) {
+            if (shard.processed.get() != shard.ring.offered() || shard.undelivered.get() != 0) {
+                return false;
+            }
+            sent += shard.sentCents.get();
+        }
+        return sent == received;
+    }
+
+    private Shard shardFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    // Queues a caller's command, waiting while the ring is full (back-pressure on the caller).
+    private void submit(Shard shard, Command command) {
+        if (closed) {
+            command.result().completeExceptionally(new RejectedExecutionException("ShardedBank is closed"));
+            return;
+        }
+        int attempts = 0;
+        while (!shard.ring.offer(command)) {
+            if (++attempts < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        shard.wake();
+    }
+
+    // One partition of the accounts and the thread that owns it.
+    private final class Shard implements Runnable {
+        final int index;
+        final CommandRing<Command> ring;
+        final Thread thread;
+        // Written only by this shard's thread (with release stores), read by anyone.
+        final AtomicLong balanceCents = new AtomicLong();
+        final AtomicLong sentCents = new AtomicLong();
+        final AtomicLong receivedCents = new AtomicLong();
+        final AtomicLong suspenseCents = new AtomicLong();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicInteger accountCount = new AtomicInteger();
+        final AtomicInteger undelivered = new AtomicInteger();
+        volatile boolean sleeping;
+        volatile boolean stopping;
+
+        // Only touched by this shard's thread.
+        private final Map<String, Account> accounts = new HashMap<>();
+        // Messages for other shards whose rings were full, per target shard, in order.
+        private final ArrayDeque<Command>[] outboxes;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Shard(int index, int ringCapacity) {
+            this.index = index;
+            this.ring = new CommandRing<>(ringCapacity);
+            this.outboxes = new ArrayDeque[shards.length];
+            this.thread = new Thread(this, "shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                Command command = ring.poll();
+                if (command != null) {
+                    try {
+                        command.run(this);
+                    } catch (RuntimeException e) {
+                        // A failing command must not take the shard down with it, nor leave its caller waiting
+                        command.result().completeExceptionally(e);
+                    }
+                    processed.setRelease(processed.getPlain() + 1);
+                    idle = 0;
+                    continue;
+                }
+                if (undelivered.getPlain() > 0 && deliverOutboxes()) {
+                    idle = 0;
+                    continue;
+                }
+                if (stopping) {
+                    return;
+                }
+                if (++idle < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else if (undelivered.getPlain() > 0) {
+                    LockSupport.parkNanos(this, OUTBOX_RETRY_NANOS);
+                } else {
+                    // Announce the nap before the last look at the ring; a producer publishes before
+                    // it checks 'sleeping', so one of the two always sees the other.
+                    sleeping = true;
+                    if (ring.isEmpty() && !stopping) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        void wake() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void add(Account account, CompletableFuture<Boolean> result) {
+            if (accounts.putIfAbsent(account.getAccountNumber(), account) != null) {
+                result.complete(false);
+                return;
+            }
+            add(balanceCents, account.getBalanceCents());
+            accountCount.setRelease(accountCount.getPlain() + 1);
+            result.complete(true);
+        }
+
+        void delete(String accountNumber, CompletableFuture<Boolean> result) {
+            Account account = accounts.remove(accountNumber);
+            if (account == null) {
+                result.complete(false);
+                return;
+            }
+            add(balanceCents, -account.close());
+            accountCount.setRelease(accountCount.getPlain() - 1);
+            result.complete(true);
+        }
+
+        void balance(String accountNumber, CompletableFuture<TransactionResult> result) {
+            Account account = accounts.get(accountNumber);
+            result.complete(account == null
+                    ? TransactionResult.ACCOUNT_NOT_FOUND
+                    : new TransactionResult(TransactionResult.Status.SUCCESS, account.getBalanceCents()));
+        }
+
+        void deposit(String accountNumber, long cents, CompletableFuture<TransactionResult> result) {
+            Account account = accounts.get(accountNumber);
+            if (account == null) {
+                result.complete(TransactionResult.ACCOUNT_NOT_FOUND);
+                return;
+            }
+            TransactionResult outcome = account.depositCents(cents);
+            if (outcome.isSuccess()) {
+                add(balanceCents, cents);
+            }
+            result.complete(outcome);
+        }
+
+        void withdraw(String accountNumber, long cents, CompletableFuture<TransactionResult> result) {
+            Account account = accounts.get(accountNumber);
+            if (account == null) {
+                result.complete(TransactionResult.ACCOUNT_NOT_FOUND);
+                return;
+            }
+            TransactionResult outcome = account.withdrawCents(cents);
+            if (outcome.isSuccess()) {
+                add(balanceCents, -cents);
+            }
+            result.complete(outcome);
+        }
+
+        // Step 1 of a transfer, on the sender's shard. Within one shard the whole transfer happens here.
+        void transferOut(String from, String to, long cents, Shard target, CompletableFuture<TransactionResult> result) {
+            Account sender = accounts.get(from);
+            Account receiver = target == this ? accounts.get(to) : null;
+            if (sender == null || (target == this && receiver == null)) {
+                result.complete(TransactionResult.ACCOUNT_NOT_FOUND);
+                return;
+            }
+            if (cents <= 0) {
+                result.complete(TransactionResult.INVALID_AMOUNT);
+                return;
+            }
+            long senderBalance = sender.transferOut(cents, to);
+            if (senderBalance < 0) {
+                result.complete(new TransactionResult(TransactionResult.Status.INSUFFICIENT_FUNDS, sender.getBalanceCents()));
+                return;
+            }
+            if (target == this) {
+                if (receiver.transferIn(cents, from) < 0) {
+                    result.complete(new TransactionResult(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED,
+                            sender.transferIn(cents, to)));
+                    return;
+                }
+                result.complete(new TransactionResult(TransactionResult.Status.SUCCESS, senderBalance));
+                return;
+            }
+            add(balanceCents, -cents);
+            add(sentCents, cents);
+            Shard source = this;
+            send(target, new TransferIn(from, to, cents, senderBalance, source, result));
+        }
+
+        // Step 2, on the receiver's shard.
+        void transferIn(String from, String to, long cents, long senderBalance, Shard source,
+                        CompletableFuture<TransactionResult> result) {
+            Account receiver = accounts.get(to);
+            long receiverBalance = receiver == null ? Account.CLOSED : receiver.transferIn(cents, from);
+            if (receiverBalance < 0) {
+                TransactionResult.Status status = receiverBalance == Account.CLOSED
+                        ? TransactionResult.Status.ACCOUNT_NOT_FOUND
+                        : TransactionResult.Status.BALANCE_LIMIT_EXCEEDED;
+                send(source, new Refund(from, to, cents, status, result));
+                return;
+            }
+            add(balanceCents, cents);
+            add(receivedCents, cents);
+            result.complete(new TransactionResult(TransactionResult.Status.SUCCESS, senderBalance));
+        }
+
+        // Step 2b, back on the sender's shard: the receiver could not take the money, so it goes back.
+        // If the sender was deleted meanwhile (or can no longer take it) it is held in suspense.
+        void refund(String from, String to, long cents, TransactionResult.Status status,
+                    CompletableFuture<TransactionResult> result) {
+            Account sender = accounts.get(from);
+            long senderBalance = sender == null ? Account.CLOSED : sender.transferIn(cents, to);
+            add(senderBalance >= 0 ? balanceCents : suspenseCents, cents);
+            add(receivedCents, cents);
+            result.complete(status == TransactionResult.Status.ACCOUNT_NOT_FOUND
+                    ? TransactionResult.ACCOUNT_NOT_FOUND
+                    : new TransactionResult(status, Math.max(0, senderBalance)));
+        }
+
+        // Passes a message to another shard, keeping it in the outbox if that shard's ring is full
+        // (or if earlier messages to it are still waiting, so they arrive in order).
+        private void send(Shard target, Command message) {
+            ArrayDeque<Command> outbox = outboxes[target.index];
+            if ((outbox == null || outbox.isEmpty()) && target.ring.offer(message)) {
+                target.wake();
+                return;
+            }
+            if (outbox == null) {
+                outbox = new ArrayDeque<>();
+                outboxes[target.index] = outbox;
+            }
+            outbox.add(message);
+            undelivered.setRelease(undelivered.getPlain() + 1);
+        }
+
+        // Tries to hand every waiting message over. Returns true if at least one went.
+        private boolean deliverOutboxes() {
+            boolean delivered = false;
+            for (int i = 0; i < outboxes.length; i++) {
+                ArrayDeque<Command> outbox = outboxes[i];
+                int handedOver = 0;
+                while (outbox != null && !outbox.isEmpty() && shards[i].ring.offer(outbox.peek())) {
+                    outbox.poll();
+                    handedOver++;
+                }
+                if (handedOver > 0) {
+                    undelivered.setRelease(undelivered.getPlain() - handedOver);
+                    shards[i].wake();
+                    delivered = true;
+                }
+            }
+            return delivered;
+        }
+
+        // Adds to a counter that only this thread writes: a plain read and a release store, no atomic add.
+        private void add(AtomicLong counter, long delta) {
+            counter.setRelease(counter.getPlain() + delta);
+        }
+    }
+}
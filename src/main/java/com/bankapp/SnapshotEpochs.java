@@ -0,0 +1,74 @@
+package com.bankapp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Tells a balance snapshot which changes belong to it.
+//
+// Every operation that changes balances runs inside an epoch: enter() tags it with the current epoch
+// and exit() marks it finished. advance() starts the next epoch and then waits until no operation
+// tagged with an older one is still running. From then on every change tagged up to the old epoch
+// is complete and no new one can appear, so the old epoch is a consistent cut: a transfer is either
+// wholly before it or wholly after it.
+//
+// Operations never wait here; only advance() does. Running operations are counted per thread stripe
+// (each on its own cache line, with separate counters for odd and even epochs), so entering an epoch
+// is an uncontended atomic add instead of an update of one shared counter.
+final class SnapshotEpochs {
+    private static final int STRIPES = 64;
+    // Longs per stripe: 128 bytes, so two stripes never share a cache line or an adjacent-line pair.
+    private static final int PAD = 16;
+
+    private volatile long epoch;
+    private final AtomicLongArray running = new AtomicLongArray(2 * STRIPES * PAD);
+
+    // Marks the start of an operation and returns the epoch it belongs to. Pass that to exit().
+    long enter() {
+        int stripe = stripe();
+        while (true) {
+            long tag = epoch;
+            int slot = slot(tag, stripe);
+            running.getAndIncrement(slot);
+            // Checked again after counting in: either advance() sees this operation running, or this
+            // operation sees the new epoch and counts itself there instead.
+            if (epoch == tag) {
+                return tag;
+            }
+            running.getAndDecrement(slot);
+        }
+    }
+
+    // Marks the end of an operation started with enter(), on the same thread.
+    void exit(long tag) {
+        running.getAndDecrement(slot(tag, stripe()));
+    }
+
+    // The epoch new operations are tagged with.
+    long current() {
+        return epoch;
+    }
+
+    // Starts the next epoch and waits until every operation of the previous one has finished.
+    // Returns the previous epoch. Callers must not run two of these at once, and must not call it
+    // from inside an operation.
+    long advance() {
+        long boundary = epoch;
+        epoch = boundary + 1;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            int slot = slot(boundary, stripe);
+            while (running.get(slot) != 0) {
+                // Usually a few microseconds; an operation may be waiting for a transfer lock
+                Thread.yield();
+            }
+        }
+        return boundary;
+    }
+
+    // A thread always uses the same stripe, so its enter and exit land on the same counter.
+    private static int stripe() {
+        return (int) Thread.currentThread().threadId() & (STRIPES - 1);
+    }
+
+    private static int slot(long tag, int stripe) {
+        return ((int) (tag & 1) * STRIPES + stripe) * PAD;
+    }
+}
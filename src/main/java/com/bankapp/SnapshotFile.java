@@ -0,0 +1,254 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Compact binary checkpoint of every account in a bank: number, owner, opening balance,
+// current balance and the last few history entries.
+//
+// A snapshot is named after the first log segment it does NOT contain, so on startup the bank
+// is loaded from the newest snapshot and only the segments from that number onwards are replayed.
+// Files are written under a temporary name and moved into place once complete, so a snapshot that
+// exists under its final name is always whole. The directory is synced after the move, so the new
+// name survives a crash before the log segments it replaces are deleted.
+//
+// Layout: [int magic][int version][long firstSegment][long accountCount] followed by blocks of
+// [int payloadLength][int crc32c(payload)][int accountsInBlock][accounts...]. Blocks are mapped
+// into memory one at a time when loading, which avoids read() copies and the 2 GB mapping limit.
+final class SnapshotFile {
+    private static final int MAGIC = 0x42414E4B; // "BANK"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 24;
+    private static final int BLOCK_HEADER_BYTES = 12;
+    private static final int BLOCK_SIZE = 4 << 20;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    // Windows cannot open a directory as a FileChannel; its file systems make renames durable anyway.
+    private static final boolean CAN_SYNC_DIRECTORIES =
+            !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    // What loadLatest found: the first log segment to replay and how many accounts were loaded.
+    record Loaded(long firstSegment, int accounts) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    // Path of the snapshot that covers every segment below 'firstSegment'.
+    static Path path(Path directory, long firstSegment) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, firstSegment, SUFFIX));
+    }
+
+    // Writes 'accounts' (in iteration order) with at most 'historyTail' history entries each.
+    static void write(Path directory, long firstSegment, Collection<Account> accounts, int historyTail)
+            throws IOException {
+        Path target = path(directory, firstSegment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(firstSegment).putLong(accounts.size()).flip();
+            writeFully(channel, header);
+
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            ByteBuffer account = ByteBuffer.allocate(64 * 1024);
+            CRC32C crc = new CRC32C();
+            int inBlock = 0;
+            block.position(BLOCK_HEADER_BYTES);
+            for (Account source : accounts) {
+                account = encode(source, historyTail, account);
+                if (block.remaining() < account.remaining() && inBlock > 0) {
+                    writeBlock(channel, block, inBlock, crc);
+                    inBlock = 0;
+                }
+                if (block.remaining() < account.remaining()) {
+                    block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + account.remaining());
+                    block.position(BLOCK_HEADER_BYTES);
+                }
+                block.put(account);
+                inBlock++;
+            }
+            if (inBlock > 0) {
+                writeBlock(channel, block, inBlock, crc);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+    }
+
+    // Forces the entries of 'directory' (new, renamed and deleted names) to disk. Forcing a file only
+    // covers its contents, so without this a file that was just created or moved into place can be
+    // missing after a crash even though its data was synced.
+    static void syncDirectory(Path directory) throws IOException {
+        if (!CAN_SYNC_DIRECTORIES) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Loads the newest snapshot in 'directory' into 'bank'. With no snapshot, nothing is loaded and
+    // replay starts at segment 1.
+    static Loaded loadLatest(Path directory, Bank bank) throws IOException {
+        long newest = -1;
+        for (long id : list(directory)) {
+            newest = Math.max(newest, id);
+        }
+        if (newest < 0) {
+            return new Loaded(1, 0);
+        }
+        return new Loaded(newest, load(path(directory, newest), bank));
+    }
+
+    // Deletes every snapshot older than 'keep'.
+    static void deleteOlderThan(Path directory, long keep) throws IOException {
+        for (long id : list(directory)) {
+            if (id < keep) {
+                Files.deleteIfExists(path(directory, id));
+            }
+        }
+    }
+
+    private static int load(Path file, Bank bank) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a bank snapshot: " + file);
+            }
+            header.getLong(); // First segment, already known from the file name
+            long expected = header.getLong();
+            long position = FILE_HEADER_BYTES;
+            long size = channel.size();
+            int loaded = 0;
+            CRC32C crc = new CRC32C();
+            while (position < size) {
+                MappedByteBuffer blockHeader = channel.map(FileChannel.MapMode.READ_ONLY, position, Integer.BYTES * 2);
+                int length = blockHeader.getInt();
+                int checksum = blockHeader.getInt();
+                MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, position + Integer.BYTES * 2, length);
+                crc.reset();
+                crc.update(block.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Corrupt block at offset " + position + " in " + file);
+                }
+                int count = block.getInt();
+                for (int i = 0; i < count; i++) {
+                    bank.addAccount(decode(block));
+                }
+                loaded += count;
+                position += Integer.BYTES * 2 + length;
+            }
+            if (loaded != expected) {
+                throw new IOException("Snapshot " + file + " holds " + loaded + " accounts, expected " + expected);
+            }
+            return loaded;
+        }
+    }
+
+    // Serializes one account into 'buffer' (growing it if needed) and returns it flipped for reading.
+    // Also used by AccountStore, with the whole history.
+    static ByteBuffer encode(Account account, int historyTail, ByteBuffer buffer) {
+        TransactionLog log = account.getTransactionLog();
+        while (true) {
+            try {
+                buffer.clear();
+                putString(buffer, account.getAccountNumber());
+                putString(buffer, account.getOwnerName());
+                buffer.putLong(account.getOpeningBalanceCents()).putLong(account.getReplayedBalanceCents());
+                int size = log.size();
+                int first = Math.max(log.firstSequence(), size - historyTail);
+                buffer.putInt(size - first);
+                for (int i = first; i < size; i++) {
+                    buffer.putLong(log.timestampAt(i)).put((byte) log.typeAt(i).ordinal())
+                            .putLong(log.amountAt(i)).putLong(log.balanceAfterAt(i));
+                    putString(buffer, log.counterpartyAt(i));
+                }
+                return buffer.flip();
+            } catch (java.nio.BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    static Account decode(ByteBuffer buffer) {
+        String number = getString(buffer);
+        String owner = getString(buffer);
+        long opening = buffer.getLong();
+        long balance = buffer.getLong();
+        int entries = buffer.getInt();
+        TransactionLog log = new TransactionLog();
+        for (int i = 0; i < entries; i++) {
+            long timestamp = buffer.getLong();
+            TransactionType type = TYPES[buffer.get()];
+            long amount = buffer.getLong();
+            long balanceAfter = buffer.getLong();
+            log.append(timestamp, type, amount, balanceAfter, getString(buffer));
+        }
+        return new Account(number, owner, opening, balance, log);
+    }
+
+    private static void writeBlock(FileChannel channel, ByteBuffer block, int accounts, CRC32C crc)
+            throws IOException {
+        int end = block.position();
+        block.putInt(Integer.BYTES * 2, accounts);
+        crc.reset();
+        crc.update(block.duplicate().position(Integer.BYTES * 2).limit(end));
+        block.putInt(0, end - Integer.BYTES * 2).putInt(Integer.BYTES, (int) crc.getValue());
+        block.flip();
+        writeFully(channel, block);
+        block.clear();
+        block.position(BLOCK_HEADER_BYTES);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long[] list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .toArray();
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("String too long for a snapshot: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bankapp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A LatencyHistogram that many threads can record into at once, for metrics that stay on all the time.
+//
+// Counts are spread over a few stripes (about two per core) picked by thread id, so threads rarely
+// update the same cache lines and a record() is one uncontended atomic increment plus an add. Reading
+// merges the stripes into a plain LatencyHistogram. Stripes hold counts only, so memory stays fixed
+// no matter how many threads (virtual ones included) record.
+final class StripedLatencyHistogram {
+    // Each stripe: BUCKETS counts, then the sum and the maximum of the values recorded in it.
+    private static final int SUM = LatencyHistogram.BUCKETS;
+    private static final int MAX = SUM + 1;
+
+    private final AtomicLongArray[] stripes;
+
+    StripedLatencyHistogram() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int stripeCount = Integer.highestOneBit(cores * 2 - 1) << 1; // Smallest power of two >= 2 * cores
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(LatencyHistogram.BUCKETS + 2);
+        }
+    }
+
+    // Records one value. Negative values are counted as 0.
+    void record(long value) {
+        long v = Math.max(0, value);
+        long id = Thread.currentThread().threadId();
+        AtomicLongArray stripe = stripes[(int) (id ^ (id >>> 16)) & (stripes.length - 1)];
+        stripe.getAndIncrement(LatencyHistogram.indexFor(v));
+        stripe.getAndAdd(SUM, v);
+        long max = stripe.get(MAX);
+        while (v > max && !stripe.weakCompareAndSetVolatile(MAX, max, v)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    // A copy of everything recorded so far. Recordings that race with the copy may be left out.
+    LatencyHistogram snapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = stripe.get(i);
+            }
+            histogram.add(counts, stripe.get(SUM), stripe.get(MAX));
+        }
+        return histogram;
+    }
+}
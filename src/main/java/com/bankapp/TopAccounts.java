@@ -0,0 +1,146 @@
+package com.bankapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keeps the first 'limit' accounts offered to it under an AccountOrder (optionally only those after
+// a given account), in a bounded heap whose root is the worst account kept. Offering an account that
+// does not make the cut costs one comparison and allocates nothing, so ranking n accounts costs
+// O(n log limit) instead of copying and sorting all of them. Each account's balance is read once,
+// when it is offered, so the heap stays consistent while balances keep changing.
+//
+// Not thread-safe: give each thread its own and merge them (see Bank.listAccounts).
+final class TopAccounts {
+    private final AccountOrder order;
+    private final AccountSummary after;
+    private final int limit;
+    private String[] numbers = new String[0];
+    private String[] owners = new String[0];
+    private long[] balances = new long[0];
+    private long[] sequences = new long[0];
+    private int size;
+
+    TopAccounts(AccountOrder order, AccountSummary after, int limit) {
+        this.order = order;
+        this.after = after;
+        this.limit = limit;
+    }
+
+    void offer(Account account, long sequence) {
+        // An account being paged out is closed but still there, with its final balance
+        if (!account.isClosed() || account.isEvicted()) {
+            offer(account.getAccountNumber(), account.getOwnerName(), account.getBalanceCents(), sequence);
+        }
+    }
+
+    // Offers an account by its details, e.g. one that is paged out and has no Account object.
+    void offer(String number, String owner, long balance, long sequence) {
+        if (limit == 0) {
+            return;
+        }
+        if (after != null && order.compare(number, balance, sequence,
+                after.accountNumber(), after.balanceCents(), after.sequence()) <= 0) {
+            return;
+        }
+        keep(number, owner, balance, sequence);
+    }
+
+    // Adds everything kept by 'other' (built with the same order, cursor and limit).
+    TopAccounts merge(TopAccounts other) {
+        for (int i = 0; i < other.size; i++) {
+            keep(other.numbers[i], other.owners[i], other.balances[i], other.sequences[i]);
+        }
+        return this;
+    }
+
+    // The accounts kept, best first.
+    List<AccountSummary> toList() {
+        List<AccountSummary> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new AccountSummary(numbers[i], owners[i], balances[i], sequences[i]));
+        }
+        result.sort(order::compare);
+        return result;
+    }
+
+    // Puts an account that passed offer's checks into the heap if it ranks before the worst one kept.
+    private void keep(String number, String owner, long balance, long sequence) {
+        if (size < limit) {
+            if (size == numbers.length) {
+                int capacity = (int) Math.min(limit, Math.max(16, size * 2L));
+                numbers = Arrays.copyOf(numbers, capacity);
+                owners = Arrays.copyOf(owners, capacity);
+                balances = Arrays.copyOf(balances, capacity);
+                sequences = Arrays.copyOf(sequences, capacity);
+            }
+            set(size, number, owner, balance, sequence);
+            siftUp(size++);
+        } else if (compare(number, balance, sequence, 0) < 0) {
+            set(0, number, owner, balance, sequence);
+            siftDown(0);
+        }
+    }
+
+    private void set(int i, String number, String owner, long balance, long sequence) {
+        numbers[i] = number;
+        owners[i] = owner;
+        balances[i] = balance;
+        sequences[i] = sequence;
+    }
+
+    // Compares an account with the one at heap position 'i'.
+    private int compare(String number, long balance, long sequence, int i) {
+        return order.compare(number, balance, sequence, numbers[i], balances[i], sequences[i]);
+    }
+
+    private int compareAt(int i, int j) {
+        return compare(numbers[i], balances[i], sequences[i], j);
+    }
+
+    // The heap keeps the worst account at the root: a parent never ranks before its children.
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compareAt(i, parent) <= 0) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && compareAt(left, worst) > 0) {
+                worst = left;
+            }
+            if (right < size && compareAt(right, worst) > 0) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String number = numbers[i];
+        numbers[i] = numbers[j];
+        numbers[j] = number;
+        String owner = owners[i];
+        owners[i] = owners[j];
+        owners[j] = owner;
+        long balance = balances[i];
+        balances[i] = balances[j];
+        balances[j] = balance;
+        long sequence = sequences[i];
+        sequences[i] = sequences[j];
+        sequences[j] = sequence;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankapp;
+
+// One entry of a TransactionLog, as returned by its range queries. 'sequence' is the entry's
+// position in the log; amounts are in cents and 'counterparty' is null except for transfers.
+public record TransactionEntry(int sequence, long timestamp, TransactionType type, long amountCents,
+                               long balanceAfterCents, String counterparty) {
+
+    // Renders the entry as text, e.g. "Deposit: $50.00 | New balance: $150.00".
+    public String describe() {
+        String amount = Account.formatCents(amountCents);
+        String newBalance = " | New balance: $" + Account.formatCents(balanceAfterCents);
+        switch (type) {
+            case INITIAL_DEPOSIT:
+                return "Initial deposit: $" + amount;
+            case DEPOSIT:
+                return "Deposit: $" + amount + newBalance;
+            case WITHDRAWAL:
+                return "Withdrawal: $" + amount + newBalance;
+            case TRANSFER_IN:
+                return "Transfer from " + counterparty + ": $" + amount + newBalance;
+            case TRANSFER_OUT:
+                return "Transfer to " + counterparty + ": $" + amount + newBalance;
+            case INTEREST:
+                return "Interest: $" + amount + newBalance;
+            case FEE:
+                return "Fee: $" + amount + newBalance;
+            default:
+                throw new IllegalStateException("Unknown transaction type: " + type);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A compact, append-only transaction history for one account.
+// Entries are stored column by column in primitive arrays (timestamp, type, amount,
+// resulting balance, counterparty) instead of one formatted String per entry, which
+// brings an entry down from a few hundred bytes to about 29. Text is only built when
+// somebody asks for it.
+//
+// Every entry has a sequence number: its position in the log, starting at 0. Besides reading
+// single entries, the log answers range queries (last(), since(), page()) that copy only the
+// entries asked for, and cursor() walks the history in place without copying anything.
+//
+// With enableTiering() the log keeps only its most recent entries in memory and moves older ones,
+// a block at a time, to a ColdHistory file. Sequence numbers and every query work the same either
+// way; reading old entries just costs a disk read per block. If a block cannot be written, tiering
+// stops for this log (see getSpillFailure): what is on disk stays readable and newer entries stay
+// in memory.
+public final class TransactionLog {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final long[] NO_LONGS = new long[0];
+    private static final byte[] NO_BYTES = new byte[0];
+    private static final String[] NO_STRINGS = new String[0];
+    private static final Runnable NO_CALLBACK = () -> {
+    };
+
+    // In-memory columns hold the entries from sequence 'base' up to 'size' (column index = sequence - base).
+    private long[] timestamps;
+    private byte[] types;
+    private long[] amounts;
+    private long[] balances;
+    // Only transfers have a counterparty; the String is the other account's own number, so no copy is made.
+    private String[] counterparties;
+    private int base;
+    private volatile int size;
+    // Entries below this were dropped along with the cold file (see dropColdHistory).
+    private int firstAvailable;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    // Tiering: entries from firstAvailable up to 'base' live in 'cold'.
+    private ColdHistory cold;
+    private int hotEntries;
+    // Why the last spill failed, or null; once set, no more entries move to the cold file.
+    private Exception spillFailure;
+    private Runnable onSpillFailure = NO_CALLBACK;
+    // Set while the account is being paged out by Bank's account tiering: appends are refused then.
+    private boolean sealed;
+
+    // The columns start out empty and are only allocated on the first append, so dormant
+    // accounts do not pay for history they never write.
+    public TransactionLog() {
+        this.timestamps = NO_LONGS;
+        this.types = NO_BYTES;
+        this.amounts = NO_LONGS;
+        this.balances = NO_LONGS;
+        this.counterparties = NO_STRINGS;
+    }
+
+    // Appends one entry. Amounts and balances are in cents. Timestamps are kept in order: an entry
+    // stamped earlier than the one before it (threads race between reading the clock and appending)
+    // is recorded with the previous entry's time, so since() can binary-search the log.
+    // Returns false, and records nothing, if the log is sealed.
+    synchronized boolean append(long timestamp, TransactionType type, long amountCents, long balanceCents,
+                                String counterparty) {
+        if (sealed) {
+            return false;
+        }
+        int index = size - base;
+        if (index == timestamps.length) {
+            // Full: move old blocks to disk if there are enough of them, otherwise grow.
+            while (cold != null && spillFailure == null && index >= hotEntries + ColdHistory.BLOCK_ENTRIES) {
+                spillOldestBlock();
+                index = size - base;
+            }
+            if (index == timestamps.length) {
+                grow();
+            }
+        }
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        timestamps[index] = lastTimestamp;
+        types[index] = (byte) type.ordinal();
+        amounts[index] = amountCents;
+        balances[index] = balanceCents;
+        counterparties[index] = counterparty;
+        size = size + 1;
+        return true;
+    }
+
+    // Refuses every later append until unseal(), so the log can be copied knowing nothing is missed.
+    synchronized void seal() {
+        sealed = true;
+    }
+
+    synchronized void unseal() {
+        sealed = false;
+    }
+
+    // Number of entries in the log, including those moved to disk. Also the sequence number the next entry will get.
+    public int size() {
+        return size;
+    }
+
+    // Sequence number of the oldest entry that can still be read (0 unless cold history was dropped).
+    public synchronized int firstSequence() {
+        return firstAvailable;
+    }
+
+    // Number of entries currently held in memory.
+    public synchronized int inMemorySize() {
+        return size - base;
+    }
+
+    // Time the entry was recorded, in milliseconds since the epoch.
+    public synchronized long timestampAt(int index) {
+        checkIndex(index);
+        try {
+            return index >= base ? timestamps[index - base] : cold.timestampAt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized TransactionType typeAt(int index) {
+        checkIndex(index);
+        try {
+            return index >= base ? TYPES[types[index - base]] : cold.typeAt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized long amountAt(int index) {
+        checkIndex(index);
+        try {
+            return index >= base ? amounts[index - base] : cold.amountAt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Balance of the account right after this entry was applied.
+    public synchronized long balanceAfterAt(int index) {
+        checkIndex(index);
+        try {
+            return index >= base ? balances[index - base] : cold.balanceAfterAt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The other account of a transfer, or null for other entry types.
+    public synchronized String counterpartyAt(int index) {
+        checkIndex(index);
+        try {
+            return index >= base ? counterparties[index - base] : cold.counterpartyAt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The entry with sequence number 'index' as one value.
+    public synchronized TransactionEntry entryAt(int index) {
+        checkIndex(index);
+        return readEntry(index);
+    }
+
+    // Renders a single entry as text, e.g. "Deposit: $50.00 | New balance: $150.00".
+    public synchronized String describe(int index) {
+        return entryAt(index).describe();
+    }
+
+    // Renders every entry as text, oldest first. This copies the whole history; prefer the range
+    // queries below or cursor() for long logs.
+    public synchronized List<String> describeAll() {
+        List<String> lines = new ArrayList<>(size - firstAvailable);
+        for (int i = firstAvailable; i < size; i++) {
+            lines.add(readEntry(i).describe());
+        }
+        return lines;
+    }
+
+    // The most recent 'count' entries (fewer if the log is shorter), oldest first.
+    public synchronized List<TransactionEntry> last(int count) {
+        return range(Math.max(firstAvailable, size - Math.max(0, count)), size);
+    }
+
+    // Up to 'limit' entries recorded at or after 'timestampMillis', oldest first.
+    public synchronized List<TransactionEntry> since(long timestampMillis, int limit) {
+        int low = firstAvailable;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestampAt(middle) < timestampMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return range(low, (int) Math.min(size, (long) low + Math.max(0, limit)));
+    }
+
+    // Up to 'limit' entries starting at sequence number 'fromSequence', plus where the next page starts.
+    // Start at 0 (or firstSequence()) and keep passing page.nextSequence() until hasMore() is false.
+    public synchronized HistoryPage page(int fromSequence, int limit) {
+        int from = Math.max(fromSequence, firstAvailable);
+        int to = (int) Math.min(size, (long) from + Math.max(0, limit));
+        List<TransactionEntry> entries = range(Math.min(from, to), to);
+        return new HistoryPage(entries, to, to < size);
+    }
+
+    // A cursor over the entries from 'fromSequence' onwards that reads them in place, one at a time.
+    // It sees entries appended while it is open.
+    public HistoryCursor cursor(int fromSequence) {
+        return new HistoryCursor(this, fromSequence);
+    }
+
+    // Loads entry 'sequence' into 'cursor'. Returns false if the log has no such entry (yet).
+    synchronized boolean readInto(int sequence, HistoryCursor cursor) {
+        if (sequence >= size) {
+            return false;
+        }
+        int index = Math.max(sequence, firstAvailable);
+        try {
+            if (index >= base) {
+                int column = index - base;
+                cursor.set(index, timestamps[column], TYPES[types[column]], amounts[column], balances[column],
+                        counterparties[column]);
+            } else {
+                cursor.set(index, cold.timestampAt(index), cold.typeAt(index), cold.amountAt(index),
+                        cold.balanceAfterAt(index), cold.counterpartyAt(index));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    // Keeps roughly the newest 'hotEntries' entries in memory and moves older ones to 'file', which is
+    // created or overwritten. Entries already in the log move too, once the in-memory columns fill up.
+    public synchronized void enableTiering(Path file, int hotEntries) throws IOException {
+        enableTiering(file, hotEntries, NO_CALLBACK);
+    }
+
+    // As above, running 'onSpillFailure' (under the log's lock) if moving entries to 'file' ever fails.
+    synchronized void enableTiering(Path file, int hotEntries, Runnable onSpillFailure) throws IOException {
+        if (hotEntries < 0) {
+            throw new IllegalArgumentException("hotEntries must not be negative");
+        }
+        if (cold != null) {
+            throw new IllegalStateException("Tiering is already enabled");
+        }
+        cold = new ColdHistory(file, base);
+        this.hotEntries = hotEntries;
+        this.onSpillFailure = onSpillFailure;
+    }
+
+    // Why moving entries to the cold file failed, or null if it never has. After a failure the
+    // entries already on disk can still be read, but every newer one stays in memory.
+    public synchronized Exception getSpillFailure() {
+        return spillFailure;
+    }
+
+    // Deletes the cold file. The entries in it can no longer be read, and firstSequence() moves past them.
+    // Used when the account is deleted, so no files are left behind for accounts that no longer exist.
+    public synchronized void dropColdHistory() {
+        if (cold == null) {
+            return;
+        }
+        try {
+            cold.close();
+        } catch (IOException e) {
+            // Nothing left to do with a file we could not delete
+        }
+        cold = null;
+        firstAvailable = base;
+    }
+
+    private List<TransactionEntry> range(int from, int to) {
+        List<TransactionEntry> entries = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            entries.add(readEntry(i));
+        }
+        return entries;
+    }
+
+    private TransactionEntry readEntry(int index) {
+        try {
+            if (index >= base) {
+                int column = index - base;
+                return new TransactionEntry(index, timestamps[column], TYPES[types[column]], amounts[column],
+                        balances[column], counterparties[column]);
+            }
+            return new TransactionEntry(index, cold.timestampAt(index), cold.typeAt(index), cold.amountAt(index),
+                    cold.balanceAfterAt(index), cold.counterpartyAt(index));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes the oldest in-memory block to the cold file and shifts the rest down. If the write
+    // fails, spilling stops for good: the block and everything newer stay in memory, and the cold
+    // file keeps serving the entries it already holds.
+    private void spillOldestBlock() {
+        try {
+            cold.appendBlock(timestamps, types, amounts, balances, counterparties, 0);
+        } catch (IOException | IllegalArgumentException e) {
+            spillFailure = e;
+            onSpillFailure.run();
+            return;
+        }
+        int remaining = size - base - ColdHistory.BLOCK_ENTRIES;
+        System.arraycopy(timestamps, ColdHistory.BLOCK_ENTRIES, timestamps, 0, remaining);
+        System.arraycopy(types, ColdHistory.BLOCK_ENTRIES, types, 0, remaining);
+        System.arraycopy(amounts, ColdHistory.BLOCK_ENTRIES, amounts, 0, remaining);
+        System.arraycopy(balances, ColdHistory.BLOCK_ENTRIES, balances, 0, remaining);
+        System.arraycopy(counterparties, ColdHistory.BLOCK_ENTRIES, counterparties, 0, remaining);
+        Arrays.fill(counterparties, remaining, remaining + ColdHistory.BLOCK_ENTRIES, null);
+        base += ColdHistory.BLOCK_ENTRIES;
+    }
+
+    // Grows every column by about 50%.
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, timestamps.length + (timestamps.length >> 1));
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        types = Arrays.copyOf(types, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+        counterparties = Arrays.copyOf(counterparties, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < firstAvailable || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bankapp;
+
+// The outcome of a deposit, withdrawal or transfer.
+// 'balanceCents' is the account balance right after the operation (for a transfer, the sender's),
+// or the balance that was seen when the operation was turned down.
+public record TransactionResult(Status status, long balanceCents) {
+
+    // Why an operation succeeded or failed.
+    public enum Status {
+        SUCCESS,
+        INVALID_AMOUNT,
+        INSUFFICIENT_FUNDS,
+        BALANCE_LIMIT_EXCEEDED,
+        ACCOUNT_NOT_FOUND,
+        SAME_ACCOUNT,
+        // Turned down by the bank's WithdrawalLimits
+        VELOCITY_LIMIT_EXCEEDED
+    }
+
+    // Shared results for failures that do not depend on a balance.
+    static final TransactionResult INVALID_AMOUNT = new TransactionResult(Status.INVALID_AMOUNT, 0);
+    static final TransactionResult ACCOUNT_NOT_FOUND = new TransactionResult(Status.ACCOUNT_NOT_FOUND, 0);
+    static final TransactionResult SAME_ACCOUNT = new TransactionResult(Status.SAME_ACCOUNT, 0);
+
+    // Hot paths pass an outcome around as one long instead: the status ordinal above the low
+    // BALANCE_BITS, the balance in them (a balance never exceeds Account.MAX_BALANCE_CENTS), so
+    // nothing is allocated until a caller asks for the record (see Account.depositOutcome).
+    private static final int BALANCE_BITS = 56;
+    private static final long BALANCE_MASK = (1L << BALANCE_BITS) - 1;
+    private static final Status[] STATUSES = Status.values();
+
+    static long pack(Status status, long balanceCents) {
+        return (long) status.ordinal() << BALANCE_BITS | balanceCents;
+    }
+
+    static Status statusOf(long outcome) {
+        return STATUSES[(int) (outcome >>> BALANCE_BITS)];
+    }
+
+    static long balanceOf(long outcome) {
+        return outcome & BALANCE_MASK;
+    }
+
+    // The record for a packed outcome; the shared instance where there is one.
+    static TransactionResult of(long outcome) {
+        Status status = statusOf(outcome);
+        if (status == Status.INVALID_AMOUNT && balanceOf(outcome) == 0) {
+            return INVALID_AMOUNT;
+        }
+        return new TransactionResult(status, balanceOf(outcome));
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    // The balance as a dollar amount.
+    public double getBalance() {
+        return balanceCents / 100.0;
+    }
+}
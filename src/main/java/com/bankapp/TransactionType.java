@@ -0,0 +1,13 @@
+package com.bankapp;
+
+// The kinds of entries that can appear in an account's transaction history.
+public enum TransactionType {
+    INITIAL_DEPOSIT,
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER_IN,
+    TRANSFER_OUT,
+    // Posted by an interest and fee run (Bank.applyInterestAndFees)
+    INTEREST,
+    FEE
+}
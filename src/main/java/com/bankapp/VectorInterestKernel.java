@@ -0,0 +1,47 @@
+package com.bankapp;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// InterestKernel.compute with the Vector API. Only loaded when the jdk.incubator.vector module is
+// present (see InterestKernel.VECTORIZED).
+//
+// There is no SIMD instruction for dividing longs, so each division by a million is estimated in
+// doubles and then corrected: the estimate is off by at most one, and one multiply and compare per
+// lane finds out which way. That keeps the result exactly the scalar one, rounding included.
+final class VectorInterestKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final long MILLION = InterestKernel.PARTS_PER_MILLION;
+
+    private VectorInterestKernel() {
+    }
+
+    static void compute(long[] balances, long[] interest, long[] fees, int from, int to,
+                        long ratePpm, long feeCents) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            LongVector balance = LongVector.fromArray(SPECIES, balances, i);
+            LongVector millions = divideByMillion(balance);
+            LongVector rest = balance.sub(millions.mul(MILLION));
+            LongVector credit = millions.mul(ratePpm).add(divideByMillion(rest.mul(ratePpm)))
+                    .min(balance.neg().add(Account.MAX_BALANCE_CENTS));
+            credit.intoArray(interest, i);
+            balance.add(credit).min(feeCents).intoArray(fees, i);
+        }
+        InterestKernel.computeScalar(balances, interest, fees, i, to, ratePpm, feeCents);
+    }
+
+    // Lanewise x / 1,000,000 rounded down, for 0 <= x < 2^56. Up to there a double holds x to within
+    // a few units, so the estimate is at most one off the true quotient.
+    private static LongVector divideByMillion(LongVector x) {
+        DoubleVector estimate = (DoubleVector) x.convert(VectorOperators.L2D, 0);
+        LongVector quotient = (LongVector) estimate.mul(1.0 / MILLION).convert(VectorOperators.D2L, 0);
+        LongVector remainder = x.sub(quotient.mul(MILLION));
+        VectorMask<Long> tooHigh = remainder.compare(VectorOperators.LT, 0);
+        VectorMask<Long> tooLow = remainder.compare(VectorOperators.GE, MILLION);
+        return quotient.sub(1, tooHigh).add(1, tooLow);
+    }
+}
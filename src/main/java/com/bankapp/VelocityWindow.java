@@ -0,0 +1,56 @@
+package com.bankapp;
+
+// One account's recent withdrawals, for the velocity limits of WithdrawalLimits: how many there were
+// and how much they took, over a sliding window.
+//
+// The window is a ring of BUCKETS buckets, each a fixed slice of time (windowMillis / BUCKETS,
+// rounded up). A bucket is reused once its slice has left the window, so the sums cover the last
+// windowMillis to within one bucket, and a window that does not divide evenly is widened rather
+// than narrowed. Everything is primitive and preallocated: checking and counting a withdrawal
+// allocates nothing and is a short loop over the ring under the window's monitor, which only the
+// account's own operations ever take.
+final class VelocityWindow {
+    static final int BUCKETS = 8;
+
+    // For each bucket, the slice it counts (time / bucket length), and its count and amount.
+    private final long[] slices = new long[BUCKETS];
+    private final long[] counts = new long[BUCKETS];
+    private final long[] cents = new long[BUCKETS];
+
+    // Counts a withdrawal of 'amountCents' at 'nowMillis' if it stays within 'limits'. Returns the
+    // slice it was counted in, to pass to release if the withdrawal does not go through after all,
+    // or -1 if it would break a limit (and was not counted).
+    synchronized long tryAcquire(long nowMillis, long amountCents, WithdrawalLimits limits) {
+        long slice = nowMillis / limits.bucketMillis();
+        long count = 0;
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (slices[i] > slice - BUCKETS) {
+                count += counts[i];
+                total += cents[i];
+            }
+        }
+        if (count >= limits.maxWithdrawals() || total > limits.maxAmountCents() - amountCents) {
+            return -1;
+        }
+        int bucket = (int) (slice & (BUCKETS - 1));
+        if (slices[bucket] != slice) {
+            slices[bucket] = slice;
+            counts[bucket] = 0;
+            cents[bucket] = 0;
+        }
+        counts[bucket]++;
+        cents[bucket] += amountCents;
+        return slice;
+    }
+
+    // Takes back a withdrawal counted by tryAcquire that was turned down afterwards (e.g. for lack of
+    // funds). Nothing to do once its slice has left the window.
+    synchronized void release(long slice, long amountCents) {
+        int bucket = (int) (slice & (BUCKETS - 1));
+        if (slices[bucket] == slice) {
+            counts[bucket]--;
+            cents[bucket] -= amountCents;
+        }
+    }
+}
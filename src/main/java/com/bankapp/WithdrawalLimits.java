@@ -0,0 +1,39 @@
+package com.bankapp;
+
+// Per-account velocity limits checked before every withdrawal and outgoing transfer of a Bank (see
+// Bank.setWithdrawalLimits): at most 'maxWithdrawals' of them, and at most 'maxAmountCents' in total,
+// within any 'windowMillis'. One that would break either limit is turned down with
+// VELOCITY_LIMIT_EXCEEDED. Independently, one of 'largeAmountCents' or more is flagged to the bank's
+// listener (BankEventListener.onLargeTransaction) but still goes through. NO_LIMIT turns a check off.
+public record WithdrawalLimits(long maxWithdrawals, long maxAmountCents, long windowMillis, long largeAmountCents) {
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    public WithdrawalLimits {
+        if (maxWithdrawals < 0 || maxAmountCents < 0) {
+            throw new IllegalArgumentException("Limits must not be negative");
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        if (largeAmountCents <= 0) {
+            throw new IllegalArgumentException("largeAmountCents must be positive");
+        }
+    }
+
+    // Only flags large withdrawals and transfers, with no velocity limit.
+    public static WithdrawalLimits flagAbove(long largeAmountCents) {
+        return new WithdrawalLimits(NO_LIMIT, NO_LIMIT, 1, largeAmountCents);
+    }
+
+    // True if withdrawals have to be counted at all.
+    boolean limitsVelocity() {
+        return maxWithdrawals != NO_LIMIT || maxAmountCents != NO_LIMIT;
+    }
+
+    // Length of one bucket of the sliding window (see VelocityWindow). Rounded up, so the buckets
+    // together span at least windowMillis and the limits are never looser than configured.
+    long bucketMillis() {
+        long bucket = windowMillis / VelocityWindow.BUCKETS;
+        return windowMillis % VelocityWindow.BUCKETS == 0 ? bucket : bucket + 1;
+    }
+}
@@ -0,0 +1,570 @@
+package com.bankapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Durable, append-only binary log of everything that changes a Bank: account creation and
+// deletion, successful deposits, withdrawals and transfers, and interest and fee postings.
+//
+// The log is a BankEventListener: install it on the bank (after open() has replayed the
+// existing log) and every operation is appended as it happens. Records go into an in-memory
+// buffer; a single writer thread swaps the buffer out, writes it through a FileChannel and
+// forces it to disk. Everything that arrived while the previous fsync was running goes out
+// in the next one, so concurrent writers share one fsync per batch (group commit).
+//
+// The log is split into numbered segment files (wal-<n>.log). checkpoint() seals the current
+// segment, folds the sealed segments into a SnapshotFile and deletes them, so startup loads one
+// snapshot and replays only the short tail of the log written since.
+//
+// Record layout: [int payloadLength][int crc32c(payload)][payload], where the payload is
+// [byte kind][long timestamp][long amountCents][string account][string other] and a string is
+// an unsigned short byte length (0xFFFF for null) followed by UTF-8 bytes. 'other' is the
+// owner name for a creation and the receiving account for a transfer.
+public final class WriteAheadLog implements BankEventListener, AutoCloseable {
+
+    // How long an operation waits for its record before returning.
+    public enum Durability {
+        // Return only after the record has been forced to disk. Nothing acknowledged is lost in a crash.
+        GROUP_COMMIT,
+        // Return as soon as the record is buffered. Batches are still forced in the background,
+        // but a crash can lose the last batch.
+        ASYNC
+    }
+
+    // History entries kept per account in a snapshot when none is given.
+    public static final int DEFAULT_HISTORY_TAIL = 100;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int HEADER_BYTES = 8;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final byte CREATE = 1;
+    private static final byte DELETE = 2;
+    private static final byte DEPOSIT = 3;
+    private static final byte WITHDRAWAL = 4;
+    private static final byte TRANSFER = 5;
+    private static final byte INTEREST = 6;
+    private static final byte FEE = 7;
+
+    private final Path directory;
+    private final Durability durability;
+    private final long maxBatchDelayNanos;
+    private final long replayedRecords;
+    private final long orphanedRecords;
+    private final int snapshotAccounts;
+    private final Thread writer;
+    private final CRC32C checksum = new CRC32C();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasData = lock.newCondition();
+    private final Condition spaceFreed = lock.newCondition();
+    private final Condition batchWritten = lock.newCondition();
+    private final Condition rotated = lock.newCondition();
+    // The fields below are guarded by 'lock', except 'writing' and 'channel' which only the writer
+    // thread touches while it runs.
+    private FileChannel channel;
+    private long activeSegment;
+    private boolean rotateRequested;
+    private ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long appendedRecords;
+    private long durableRecords;
+    // Batches written and forced to disk, i.e. fsyncs, so tests can see records share them.
+    private long syncedBatches;
+    private IOException failure;
+    private boolean closed;
+
+    private WriteAheadLog(Path directory, FileChannel channel, long activeSegment, Durability durability,
+                          long maxBatchDelayNanos, long replayedRecords, long orphanedRecords, int snapshotAccounts) {
+        this.directory = directory;
+        this.channel = channel;
+        this.activeSegment = activeSegment;
+        this.durability = durability;
+        this.maxBatchDelayNanos = maxBatchDelayNanos;
+        this.replayedRecords = replayedRecords;
+        this.orphanedRecords = orphanedRecords;
+        this.snapshotAccounts = snapshotAccounts;
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Opens the log in 'directory' (creating it if needed), loads the newest snapshot and replays
+    // the log segments written after it into 'bank', then gets ready to append. Call this before
+    // installing listeners on the bank so the restored state is not reported again; then install
+    // the returned log as a listener.
+    //
+    // 'maxBatchDelayMicros' is how long the writer waits for more records before each fsync.
+    // Zero gives the lowest latency; a few hundred microseconds gives bigger batches and fewer fsyncs.
+    public static WriteAheadLog open(Path directory, Bank bank, Durability durability, long maxBatchDelayMicros)
+            throws IOException {
+        Files.createDirectories(directory);
+        SnapshotFile.Loaded snapshot = SnapshotFile.loadLatest(directory, bank);
+        long[] replayed = new long[2];
+        long lastSegment = replaySegments(directory, snapshot.firstSegment(), Long.MAX_VALUE, bank, replayed);
+        long active = Math.max(lastSegment, snapshot.firstSegment());
+        FileChannel channel = FileChannel.open(segmentPath(directory, active),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        SnapshotFile.syncDirectory(directory);
+        return new WriteAheadLog(directory, channel, active, durability,
+                TimeUnit.MICROSECONDS.toNanos(maxBatchDelayMicros), replayed[0], replayed[1], snapshot.accounts());
+    }
+
+    // Path of log segment number 'segment'.
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // Number of accounts that were loaded from a snapshot when the log was opened.
+    public int getSnapshotAccounts() {
+        return snapshotAccounts;
+    }
+
+    // Number of log records that were replayed into the bank when the log was opened.
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    // Number of replayed records that named an account the bank did not have at that point, so
+    // they changed nothing. A deposit or withdrawal that races with the delete of its account can
+    // be logged just after the delete; anything beyond a few of those means records were lost.
+    public long getOrphanedRecords() {
+        return orphanedRecords;
+    }
+
+    // Number of records appended since the log was opened that are known to be on disk.
+    public long getDurableRecords() {
+        lock.lock();
+        try {
+            return durableRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of batches forced to disk since the log was opened; below getDurableRecords() when
+    // concurrent writers share fsyncs.
+    long getSyncedBatches() {
+        lock.lock();
+        try {
+            return syncedBatches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onAccountCreated(Account account) {
+        append(CREATE, System.currentTimeMillis(), account.getOpeningBalanceCents(),
+                account.getAccountNumber(), account.getOwnerName());
+    }
+
+    @Override
+    public void onAccountDeleted(Account account) {
+        append(DELETE, System.currentTimeMillis(), 0, account.getAccountNumber(), null);
+    }
+
+    @Override
+    public void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+        if (result.isSuccess()) {
+            byte kind = type == TransactionType.DEPOSIT ? DEPOSIT : WITHDRAWAL;
+            append(kind, System.currentTimeMillis(), amountCents, account.getAccountNumber(), null);
+        }
+    }
+
+    @Override
+    public void onTransfer(Account from, Account to, long amountCents, TransactionResult result) {
+        if (result.isSuccess()) {
+            append(TRANSFER, System.currentTimeMillis(), amountCents, from.getAccountNumber(), to.getAccountNumber());
+        }
+    }
+
+    // Logs the amounts actually posted rather than the run's rate, so replay gives the same balances
+    // whatever order the records of one account come back in.
+    @Override
+    public void onInterestPosted(Account account, long interestCents, long feeCents) {
+        long now = System.currentTimeMillis();
+        if (interestCents > 0) {
+            append(INTEREST, now, interestCents, account.getAccountNumber(), null);
+        }
+        if (feeCents > 0) {
+            append(FEE, now, feeCents, account.getAccountNumber(), null);
+        }
+    }
+
+    // Seals the current segment and folds every sealed segment into a new snapshot with up to
+    // 'historyTail' history entries per account, then deletes those segments and older snapshots.
+    // The snapshot's name is synced to disk before anything is deleted.
+    //
+    // The snapshot is built by replaying the sealed segments on top of the previous snapshot in a
+    // separate, private Bank, so the live bank is never paused or read while it changes, and the
+    // snapshot is exactly the state after the last sealed record. The price is holding that second
+    // copy of the accounts in memory while the checkpoint runs. Returns the accounts written.
+    public synchronized int checkpoint(int historyTail) throws IOException {
+        long firstUnsealed = rotate();
+        Bank shadow = new Bank();
+        SnapshotFile.Loaded previous = SnapshotFile.loadLatest(directory, shadow);
+        replaySegments(directory, previous.firstSegment(), firstUnsealed, shadow, new long[2]);
+        List<Account> accounts = shadow.getAllAccounts();
+        SnapshotFile.write(directory, firstUnsealed, accounts, historyTail);
+        for (long segment : listSegments(directory)) {
+            if (segment < firstUnsealed) {
+                Files.deleteIfExists(segmentPath(directory, segment));
+            }
+        }
+        SnapshotFile.deleteOlderThan(directory, firstUnsealed);
+        return accounts.size();
+    }
+
+    // Asks the writer to finish the current segment and start a new one. Every record appended
+    // before this returns is in a sealed segment. Returns the number of the new segment.
+    long rotate() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            rotateRequested = true;
+            hasData.signal();
+            while (rotateRequested && failure == null) {
+                rotated.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return activeSegment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes out everything buffered, waits for it to reach the disk and closes the file.
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            hasData.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Encodes one record into the pending buffer and, for GROUP_COMMIT, waits until it is durable.
+    // A write failure is reported to every waiting caller as an UncheckedIOException.
+    private void append(byte kind, long timestamp, long amountCents, String account, String other) {
+        byte[] accountBytes = encode(account);
+        byte[] otherBytes = encode(other);
+        int payload = 1 + Long.BYTES + Long.BYTES + stringBytes(accountBytes) + stringBytes(otherBytes);
+        int recordSize = HEADER_BYTES + payload;
+        if (recordSize > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Record too large for the log: " + recordSize + " bytes");
+        }
+        long sequence;
+        lock.lock();
+        try {
+            while (pending.remaining() < recordSize && failure == null && !closed) {
+                hasData.signal();
+                spaceFreed.awaitUninterruptibly();
+            }
+            checkUsable();
+            int start = pending.position();
+            pending.position(start + HEADER_BYTES);
+            pending.put(kind).putLong(timestamp).putLong(amountCents);
+            putString(pending, accountBytes);
+            putString(pending, otherBytes);
+            checksum.reset();
+            checksum.update(pending.duplicate().position(start + HEADER_BYTES).limit(start + recordSize));
+            pending.putInt(start, payload).putInt(start + Integer.BYTES, (int) checksum.getValue());
+            sequence = ++appendedRecords;
+            hasData.signal();
+            if (durability == Durability.GROUP_COMMIT) {
+                while (durableRecords < sequence && failure == null) {
+                    batchWritten.awaitUninterruptibly();
+                }
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    // Writer thread: wait for records, optionally linger for more, then swap buffers, write and
+    // fsync. A pending rotation is handled right after a batch, so it always falls between records.
+    private void writeLoop() {
+        while (true) {
+            boolean linger;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed && !rotateRequested) {
+                    hasData.awaitUninterruptibly();
+                }
+                if (pending.position() == 0 && !rotateRequested) {
+                    return;
+                }
+                linger = !rotateRequested && !closed;
+            } finally {
+                lock.unlock();
+            }
+            if (linger && maxBatchDelayNanos > 0) {
+                LockSupport.parkNanos(maxBatchDelayNanos);
+            }
+            long batchEnd;
+            boolean rotate;
+            lock.lock();
+            try {
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appendedRecords;
+                rotate = rotateRequested;
+                spaceFreed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            FileChannel next = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                if (rotate) {
+                    next = FileChannel.open(segmentPath(directory, activeSegment + 1),
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    // So records acknowledged from the new segment cannot vanish with its name
+                    SnapshotFile.syncDirectory(directory);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            writing.clear();
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableRecords = batchEnd;
+                    syncedBatches++;
+                    if (rotate) {
+                        channel = next;
+                        activeSegment++;
+                        rotateRequested = false;
+                    }
+                }
+                batchWritten.signalAll();
+                spaceFreed.signalAll();
+                rotated.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                return;
+            }
+        }
+    }
+
+    // Replays segments numbered from 'first' up to (not including) 'end' into 'bank', oldest first.
+    // A torn record is only expected at the end of the newest segment (a crash in the middle of a
+    // write); it is cut off there. Anywhere else it means the log is damaged and replay fails.
+    // Returns the number of the last segment replayed, or 0 if there were none.
+    private static long replaySegments(Path directory, long first, long end, Bank bank, long[] replayed)
+            throws IOException {
+        long[] segments = listSegments(directory);
+        long last = 0;
+        for (int i = 0; i < segments.length; i++) {
+            long segment = segments[i];
+            if (segment < first || segment >= end) {
+                continue;
+            }
+            boolean newest = i == segments.length - 1;
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, segment),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long validEnd = replay(channel, bank, replayed);
+                if (validEnd < channel.size()) {
+                    if (!newest) {
+                        throw new IOException("Damaged record at offset " + validEnd + " in log segment " + segment);
+                    }
+                    channel.truncate(validEnd);
+                }
+            }
+            last = segment;
+        }
+        return last;
+    }
+
+    // Numbers of the segment files in 'directory', in ascending order.
+    private static long[] listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    // Reads records from the start of 'channel' and applies them to 'bank'. Stops at the end of the
+    // file or at the first record that is incomplete or fails its checksum (a write torn by a crash).
+    // Returns the position just after the last valid record; replayed[0] receives the record count
+    // and replayed[1] the count of records for accounts that did not exist.
+    private static long replay(FileChannel channel, Bank bank, long[] replayed) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CRC32C crc = new CRC32C();
+        long validEnd = 0;
+        long readPosition = 0;
+        buffer.flip();
+        while (true) {
+            if (buffer.remaining() >= HEADER_BYTES) {
+                int start = buffer.position();
+                int payload = buffer.getInt(start);
+                if (payload <= 0 || payload > BUFFER_SIZE - HEADER_BYTES) {
+                    return validEnd;
+                }
+                if (buffer.remaining() >= HEADER_BYTES + payload) {
+                    crc.reset();
+                    crc.update(buffer.duplicate().position(start + HEADER_BYTES).limit(start + HEADER_BYTES + payload));
+                    if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+                        return validEnd;
+                    }
+                    buffer.position(start + HEADER_BYTES);
+                    apply(buffer, bank, replayed);
+                    buffer.position(start + HEADER_BYTES + payload);
+                    validEnd += HEADER_BYTES + payload;
+                    replayed[0]++;
+                    continue;
+                }
+            }
+            // The next record is not fully in the buffer yet: keep the partial bytes and read more.
+            buffer.compact();
+            int read = channel.read(buffer, readPosition);
+            buffer.flip();
+            if (read <= 0) {
+                return validEnd;
+            }
+            readPosition += read;
+        }
+    }
+
+    // Applies one decoded record to the bank. Records for accounts the bank does not have are
+    // counted in replayed[1] rather than applied.
+    private static void apply(ByteBuffer record, Bank bank, long[] replayed) {
+        byte kind = record.get();
+        long timestamp = record.getLong();
+        long amountCents = record.getLong();
+        String account = getString(record);
+        String other = getString(record);
+        switch (kind) {
+            case CREATE:
+                if (!bank.addAccount(new Account(account, other, amountCents, timestamp))) {
+                    replayed[1]++;
+                }
+                break;
+            case DELETE:
+                if (!bank.deleteAccount(account)) {
+                    replayed[1]++;
+                }
+                break;
+            case DEPOSIT:
+                replayInto(bank, account, TransactionType.DEPOSIT, amountCents, null, timestamp, replayed);
+                break;
+            case WITHDRAWAL:
+                replayInto(bank, account, TransactionType.WITHDRAWAL, amountCents, null, timestamp, replayed);
+                break;
+            case TRANSFER:
+                replayInto(bank, account, TransactionType.TRANSFER_OUT, amountCents, other, timestamp, replayed);
+                replayInto(bank, other, TransactionType.TRANSFER_IN, amountCents, account, timestamp, replayed);
+                break;
+            case INTEREST:
+                replayInto(bank, account, TransactionType.INTEREST, amountCents, null, timestamp, replayed);
+                break;
+            case FEE:
+                replayInto(bank, account, TransactionType.FEE, amountCents, null, timestamp, replayed);
+                break;
+            default:
+                throw new IllegalStateException("Unknown log record kind: " + kind);
+        }
+    }
+
+    private static void replayInto(Bank bank, String number, TransactionType type, long amountCents,
+                                   String other, long timestamp, long[] replayed) {
+        Optional<Account> account = bank.findAccount(number);
+        if (account.isPresent()) {
+            account.get().replay(type, amountCents, other, timestamp);
+        } else {
+            replayed[1]++;
+        }
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("String too long for the log: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(byte[] bytes) {
+        return Short.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+        } else {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
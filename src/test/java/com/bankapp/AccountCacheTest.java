@@ -0,0 +1,51 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+    @Test
+    @DisplayName("Should evict accounts used rarely before accounts used often")
+    void testFrequentAccountsSurvive() {
+        AccountCache cache = new AccountCache(2);
+        Account hot = new Account("HOT", "Owner", 1.0);
+        Account cold = new Account("COLD", "Owner", 1.0);
+        cache.admit(hot);
+        cache.admit(cold);
+        for (int i = 0; i < 5; i++) {
+            cache.hit(hot);
+        }
+        assertNull(cache.nextVictim(), "Nothing should be evicted while everything fits");
+
+        Account scanned = new Account("SCAN", "Owner", 1.0);
+        cache.admit(scanned);
+        assertSame(cold, cache.nextVictim(), "The least used account should go first");
+        assertNull(cache.nextVictim());
+
+        // A run of accounts touched once each should not push out the frequently used one
+        for (int i = 0; i < 5; i++) {
+            cache.admit(new Account("ONCE" + i, "Owner", 1.0));
+            assertNotSame(hot, cache.nextVictim());
+        }
+        assertEquals(6, cache.getEvictions());
+        assertEquals(5, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("Should drop closed accounts without counting them as evictions")
+    void testClosedAccountsAreDropped() {
+        AccountCache cache = new AccountCache(1);
+        Account deleted = new Account("DEL", "Owner", 1.0);
+        Account kept = new Account("KEEP", "Owner", 1.0);
+        cache.admit(deleted);
+        cache.admit(kept);
+        deleted.close();
+
+        assertNull(cache.nextVictim(), "A closed account only needs to be dropped");
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+}
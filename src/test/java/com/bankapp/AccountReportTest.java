@@ -0,0 +1,60 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountReportTest {
+
+    @Test
+    @DisplayName("Should write a header and one fixed-width row per account")
+    void testWriteAll() throws IOException {
+        Bank bank = new Bank();
+        bank.addAccount(new Account("ACC002", "Bob", 1000.0));
+        bank.addAccount(new Account("ACC001", "Alice", 5.5));
+        bank.addAccount(new Account("ACC003", "Carol", 0.0));
+
+        StringWriter out = new StringWriter();
+        long written = new AccountReport(out).writeAll(bank, AccountOrder.NUMBER);
+
+        String n = System.lineSeparator();
+        assertEquals(3, written);
+        assertEquals(String.format("%-15s %-20s %s%n", "Account #", "Holder Name", "Balance")
+                + "-".repeat(50) + n
+                + String.format("%-15s %-20s $%s%n", "ACC001", "Alice", "5.50")
+                + String.format("%-15s %-20s $%s%n", "ACC002", "Bob", "1000.00")
+                + String.format("%-15s %-20s $%s%n", "ACC003", "Carol", "0.00"), out.toString());
+    }
+
+    @Test
+    @DisplayName("Should write a large bank in order in one pass")
+    void testLargeBank() throws IOException {
+        Bank bank = new Bank();
+        int accounts = 25_000;
+        for (int i = accounts - 1; i >= 0; i--) {
+            bank.addAccount(new Account(String.format("ACC%05d", i), "Owner", 1.0));
+        }
+
+        StringWriter out = new StringWriter();
+        assertEquals(accounts, new AccountReport(out).writeAll(bank, AccountOrder.NUMBER));
+
+        List<String> rows = out.toString().lines().skip(2).toList();
+        assertEquals(accounts, rows.size());
+        for (int i = 0; i < accounts; i++) {
+            assertTrue(rows.get(i).startsWith(String.format("ACC%05d ", i)), "Rows should follow the order");
+        }
+    }
+
+    @Test
+    @DisplayName("Should write nothing but the header for an empty bank")
+    void testEmptyBank() throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(0, new AccountReport(out).writeAll(new Bank(), AccountOrder.CREATED));
+        assertEquals(2, out.toString().lines().count());
+    }
+}
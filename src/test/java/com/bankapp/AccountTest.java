@@ -3,6 +3,12 @@ package com.bankapp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountTest {
@@ -79,5 +85,144 @@ class AccountTest {
         account.withdraw(0.0);
         assertEquals(originalBalance, account.getBalance(), "Balance should not change with zero withdrawal");
     }
-}
 
+    @Test
+    @DisplayName("Should keep balances exact in cents")
+    void testBalanceIsExactInCents() {
+        for (int i = 0; i < 10; i++) {
+            account.deposit(0.10);
+        }
+        assertEquals(10100, account.getBalanceCents(), "Ten 10-cent deposits should add exactly one dollar");
+        assertEquals(101.0, account.getBalance(), "The balance should be exactly 101.0");
+    }
+
+    @Test
+    @DisplayName("Should not lose updates under concurrent deposits")
+    void testConcurrentDepositsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int depositsPerThread = 1_000;
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < depositsPerThread; i++) {
+                account.depositCents(1);
+            }
+        });
+
+        assertEquals(10_000 + threads * depositsPerThread, account.getBalanceCents(),
+                "Every concurrent deposit should be reflected in the balance");
+    }
+
+    @Test
+    @DisplayName("Should never overdraw under concurrent withdrawals")
+    void testConcurrentWithdrawalsNeverOverdraw() throws InterruptedException {
+        int threads = 8;
+        int attemptsPerThread = 500;
+        AtomicInteger successes = new AtomicInteger();
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < attemptsPerThread; i++) {
+                if (account.withdrawCents(7).isSuccess()) {
+                    successes.incrementAndGet();
+                }
+                assertTrue(account.getBalanceCents() >= 0, "Balance must never go negative");
+            }
+        });
+
+        assertEquals(10_000 - successes.get() * 7L, account.getBalanceCents(),
+                "Balance should drop by exactly the successful withdrawals");
+        assertTrue(account.getBalanceCents() < 7, "Withdrawals should drain the account down to less than one unit");
+    }
+
+    @Test
+    @DisplayName("Should report the outcome of each operation")
+    void testTransactionResults() {
+        TransactionResult deposit = account.deposit(25.0);
+        assertTrue(deposit.isSuccess(), "Deposit should succeed");
+        assertEquals(12_500, deposit.balanceCents(), "Result should carry the new balance");
+
+        TransactionResult overdraw = account.withdraw(1_000.0);
+        assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, overdraw.status(), "Overdraw should be rejected");
+        assertEquals(12_500, overdraw.balanceCents(), "Rejected result should carry the current balance");
+
+        assertEquals(TransactionResult.Status.INVALID_AMOUNT, account.deposit(0.0).status(),
+                "Zero deposit should be invalid");
+    }
+
+    @Test
+    @DisplayName("Should report the same outcome packed into a long as in a result record")
+    void testPackedOutcomes() {
+        long deposit = account.depositOutcome(2_500);
+        assertEquals(TransactionResult.Status.SUCCESS, TransactionResult.statusOf(deposit));
+        assertEquals(12_500, TransactionResult.balanceOf(deposit));
+
+        long overdraw = account.withdrawOutcome(100_000);
+        assertEquals(new TransactionResult(TransactionResult.Status.INSUFFICIENT_FUNDS, 12_500), TransactionResult.of(overdraw));
+        assertSame(TransactionResult.INVALID_AMOUNT, TransactionResult.of(account.depositOutcome(0)),
+                "Invalid amounts should share one result");
+
+        long full = TransactionResult.pack(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, Account.MAX_BALANCE_CENTS);
+        assertEquals(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, TransactionResult.statusOf(full));
+        assertEquals(Account.MAX_BALANCE_CENTS, TransactionResult.balanceOf(full), "The largest balance should fit");
+    }
+
+    @Test
+    @DisplayName("Should notify the event listener of every operation")
+    void testEventListener() {
+        List<String> events = new ArrayList<>();
+        account.setEventListener(new BankEventListener() {
+            @Override
+            public void onTransaction(Account source, TransactionType type, long amountCents, TransactionResult result) {
+                events.add(type + ":" + amountCents + ":" + result.status());
+            }
+        });
+
+        account.deposit(1.0);
+        account.withdraw(500.0);
+
+        assertEquals(List.of("DEPOSIT:100:SUCCESS", "WITHDRAWAL:50000:INSUFFICIENT_FUNDS"), events,
+                "Listener should see successes and failures");
+    }
+
+    @Test
+    @DisplayName("Should keep the balance of an earlier snapshot epoch once a later one writes")
+    void testBalanceAtEpochBoundary() {
+        assertEquals(10_500, account.transferIn(500, "X", 1), "The first change of epoch 1 should apply");
+        assertEquals(10_000, account.balanceAt(0), "A snapshot of epoch 0 should not see it");
+        assertEquals(10_500, account.balanceAt(1));
+
+        // A change of epoch 0 finishing late belongs to the epoch 0 snapshot as well
+        assertEquals(10_493, account.transferOut(7, "X", 0));
+        assertEquals(9_993, account.balanceAt(0));
+        assertEquals(10_493, account.getBalanceCents());
+
+        assertEquals(10_493, account.close(2), "Closing should return the final balance");
+        assertEquals(10_493, account.balanceAt(1), "A snapshot of epoch 1 should still see the closed account");
+        assertTrue(account.isClosed());
+    }
+
+    // Starts all tasks at the same moment and waits for them to finish, rethrowing the first failure.
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Worker failed", failures.get(0));
+        }
+    }
+}
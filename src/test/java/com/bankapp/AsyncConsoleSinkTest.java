@@ -0,0 +1,59 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConsoleSinkTest {
+
+    @Test
+    @DisplayName("Should write event messages in order once flushed")
+    void testMessagesAreWrittenInOrder() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (AsyncConsoleSink sink = new AsyncConsoleSink(new PrintStream(buffer, true, StandardCharsets.UTF_8))) {
+            Bank bank = new Bank();
+            bank.setEventListener(sink);
+            Account account = new Account("ACC001", "Alice", 100.0);
+            bank.addAccount(account);
+            account.deposit(50.0);
+            account.withdraw(500.0);
+            sink.flush();
+
+            String[] lines = buffer.toString(StandardCharsets.UTF_8).split("\\R");
+            assertEquals(3, lines.length, "Each event should produce one line");
+            assertEquals("Account created for ACC001", lines[0]);
+            assertEquals("✅ Deposit successful. New balance: $150.00", lines[1]);
+            assertEquals("❌ Withdrawal failed. Insufficient funds. Current balance: $150.00", lines[2]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose events published from many threads")
+    void testConcurrentEventsAreAllWritten() throws InterruptedException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Account account = new Account("ACC001", "Alice", 0.0);
+        try (AsyncConsoleSink sink = new AsyncConsoleSink(new PrintStream(buffer, true, StandardCharsets.UTF_8), 16)) {
+            account.setEventListener(sink);
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        account.depositCents(1);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        long lines = buffer.toString(StandardCharsets.UTF_8).lines().count();
+        assertEquals(2_000, lines, "Closing the sink should write out every queued event");
+    }
+}
@@ -0,0 +1,124 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankMetricsTest {
+
+    private Bank bank;
+    private Account alice;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        alice = new Account("ACC001", "Alice", 100.0);
+        bank.addAccount(alice);
+        bank.addAccount(new Account("ACC002", "Bob", 0.0));
+    }
+
+    @Test
+    @DisplayName("Should count lookups and operations by outcome")
+    void testCounters() {
+        bank.findAccount("ACC001");
+        bank.findAccount("NOPE");
+        alice.deposit(10.0);
+        alice.withdraw(5.0);
+        alice.withdraw(1000.0);
+        alice.deposit(-1.0);
+        bank.transfer("ACC001", "ACC002", 1.0);
+        bank.transfer("ACC002", "ACC001", 50.0);
+        bank.deleteAccount("ACC002");
+
+        BankMetrics metrics = bank.getMetrics();
+        assertEquals(2, metrics.getLookups());
+        assertEquals(1, metrics.getLookupHits());
+        assertEquals(1, metrics.getLookupMisses());
+        assertEquals(1, metrics.getDeposits());
+        assertEquals(1, metrics.getWithdrawals());
+        assertEquals(1, metrics.getTransfers());
+        assertEquals(2, metrics.getInsufficientFunds(), "One withdrawal and one transfer lacked funds");
+        assertEquals(1, metrics.getOtherRejections(), "The negative deposit should be counted");
+        assertEquals(2, metrics.getAccountsCreated());
+        assertEquals(1, metrics.getAccountsDeleted());
+        assertEquals(2, metrics.getDepositLatency().getCount(), "Every deposit attempt should be timed");
+        assertEquals(2, metrics.getWithdrawalLatency().getCount(), "Every withdrawal attempt should be timed");
+        assertEquals(2, metrics.getTransferLatency().getCount(), "Every transfer attempt should be timed");
+        assertTrue(metrics.format().contains("lookups 2 (hits 1, misses 1)"), "Text dump should list the counters");
+    }
+
+    @Test
+    @DisplayName("Should stop recording while disabled")
+    void testDisable() {
+        bank.getMetrics().setEnabled(false);
+        alice.deposit(10.0);
+        bank.findAccount("ACC001");
+        bank.getMetrics().setEnabled(true);
+
+        assertEquals(0, bank.getMetrics().getDeposits());
+        assertEquals(0, bank.getMetrics().getDepositLatency().getCount());
+        assertEquals(0, bank.getMetrics().getLookups());
+        assertEquals(110.0, alice.getBalance(), "Disabling metrics must not affect the operation");
+    }
+
+    @Test
+    @DisplayName("Should not lose recordings from many threads")
+    void testConcurrentRecording() throws InterruptedException {
+        int threads = 8;
+        int perThread = 20_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    alice.depositCents(1);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, bank.getMetrics().getDeposits());
+        assertEquals(threads * perThread, bank.getMetrics().getDepositLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("Should expose the metrics through JMX")
+    void testMBean() throws Exception {
+        alice.deposit(10.0);
+        ObjectName name = bank.getMetrics().registerMBean("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "Deposits"));
+            assertEquals(2, server.getAttribute(name, "AccountCount"));
+            assertEquals(11_000L, server.getAttribute(name, "TotalBalanceCents"));
+            assertTrue((Double) server.getAttribute(name, "DepositLatencyP99Micros") > 0);
+        } finally {
+            BankMetrics.unregisterMBean("test");
+        }
+    }
+
+    @Test
+    @DisplayName("Should print the metrics periodically")
+    void testReporter() throws InterruptedException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        try (MetricsReporter reporter = MetricsReporter.start(bank.getMetrics(), out, Duration.ofMillis(20))) {
+            Thread.sleep(100);
+        }
+        assertTrue(buffer.toString(StandardCharsets.UTF_8).contains("Bank metrics: 2 accounts"),
+                "Reporter should have printed at least one dump");
+    }
+}
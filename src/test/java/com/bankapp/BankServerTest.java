@@ -0,0 +1,181 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankServerTest {
+
+    private Bank bank;
+    private BankServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bank = new Bank();
+        bank.addAccount(new Account("ACC001", "Alice", 500.0));
+        server = BankServer.start(bank, 0, InetAddress.getLoopbackAddress());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should answer every command of the protocol")
+    void testProtocol() throws IOException {
+        try (BankClient client = connect()) {
+            assertEquals("OK 200.00", client.call("CREATE ACC002 200 Bob Smith"));
+            assertEquals("ERR ACCOUNT_EXISTS", client.call("CREATE ACC002 1 Mallory"));
+            assertEquals("OK 525.50", client.call("DEPOSIT ACC001 25.50"));
+            assertEquals("OK 500.50", client.call("withdraw ACC001 25"));
+            assertEquals("ERR INSUFFICIENT_FUNDS 500.50", client.call("WITHDRAW ACC001 1000"));
+            assertEquals("ERR INVALID_AMOUNT", client.call("DEPOSIT ACC001 -5"));
+            assertEquals("OK 400.50", client.call("TRANSFER ACC001 ACC002 100"));
+            assertEquals("OK 300.00", client.call("BALANCE ACC002"));
+            assertEquals("OK ACC002 300.00 2 Bob Smith", client.call("DETAILS ACC002"));
+            assertEquals("OK 2\nACC001 400.50 Alice\nACC002 300.00 Bob Smith", client.call("LIST"));
+            assertEquals("OK", client.call("DELETE ACC002"));
+            assertEquals("ERR ACCOUNT_NOT_FOUND", client.call("BALANCE ACC002"));
+            assertTrue(client.call("FROB").startsWith("ERR BAD_REQUEST"), "Unknown commands should be rejected");
+            assertTrue(client.call("DEPOSIT ACC001").startsWith("ERR BAD_REQUEST"), "Missing arguments should be rejected");
+            assertEquals("OK BYE", client.call("QUIT"));
+        }
+        assertEquals(400.50, bank.findAccount("ACC001").orElseThrow().getBalance(), "Server should act on the bank");
+    }
+
+    @Test
+    @DisplayName("Should answer pipelined requests in order")
+    void testPipelining() throws IOException {
+        int requests = 10_000;
+        try (BankClient client = connect()) {
+            for (int i = 0; i < requests; i++) {
+                client.send("DEPOSIT ACC001 0.01");
+            }
+            client.send("LIST");
+            client.send("BALANCE ACC001");
+            client.flush();
+            for (int i = 1; i <= requests; i++) {
+                assertEquals("OK " + Account.formatCents(50_000 + i), client.receive(), "Responses should come back in order");
+            }
+            assertEquals("OK 1\nACC001 600.00 Alice", client.receive());
+            assertEquals("OK 600.00", client.receive());
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer a request the bank fails on and keep the connection open")
+    void testFailedRequest() throws IOException {
+        try (BankClient client = connect()) {
+            assertTrue(client.call("CREATE ACC002 999999999999999 Bob").startsWith("ERR FAILED "),
+                    "An opening balance above the limit should be answered, not drop the connection");
+            assertEquals("OK 500.00", client.call("BALANCE ACC001"));
+        }
+        assertTrue(bank.findAccount("ACC002").isEmpty(), "The failed create should add nothing");
+    }
+
+    @Test
+    @DisplayName("Should reject an overlong request line and go on with the next one")
+    void testRequestTooLong() throws IOException {
+        try (BankClient client = connect()) {
+            assertEquals("OK 500.00", client.call("BALANCE ACC001"));
+            String response = client.call("BALANCE " + "9".repeat(BankServer.MAX_REQUEST_CHARS));
+            assertTrue(response.startsWith("ERR BAD_REQUEST request longer than"), response);
+            assertEquals("OK 500.00", client.call("BALANCE ACC001"), "The next request should be answered");
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept request lines ending in CRLF")
+    void testCrLf() throws IOException {
+        try (BankClient client = connect()) {
+            assertEquals("OK 500.00", client.call("BALANCE ACC001\r"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve many concurrent connections")
+    void testManyConnections() throws Exception {
+        // Each connection uses two descriptors in this process (client and server side), so the
+        // default stays well below common open-file limits. Raise it with -Dbank.server.connections=10000.
+        int connections = Integer.getInteger("bank.server.connections", 1_000);
+        int requestsPerConnection = 20;
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>(connections);
+        for (int c = 0; c < connections; c++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                try (BankClient client = connect()) {
+                    connected.countDown();
+                    start.await();
+                    for (int i = 0; i < requestsPerConnection; i++) {
+                        String response = client.call(i % 2 == 0 ? "DEPOSIT ACC001 1" : "BALANCE ACC001");
+                        if (!response.startsWith("OK")) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    connected.countDown();
+                }
+            }));
+        }
+        connected.await();
+        start.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        assertEquals(0, failures.get(), "Every request should succeed");
+        assertEquals(50_000 + connections * (requestsPerConnection / 2) * 100L,
+                bank.findAccount("ACC001").orElseThrow().getBalanceCents(), "Every deposit should be applied once");
+    }
+
+    @Test
+    @DisplayName("Should page LIST and continue from the cursor")
+    void testListPages() throws IOException {
+        int accounts = BankServer.LIST_PAGE_SIZE + 5;
+        for (int i = 2; i <= accounts; i++) {
+            bank.addAccount(new Account("ACC" + i, "Owner", 1.0));
+        }
+        try (BankClient client = connect()) {
+            String[] first = client.call("LIST").split("\n");
+            String[] header = first[0].split(" ");
+            assertEquals(3, header.length, "A page with more to come should carry a cursor");
+            assertEquals(String.valueOf(BankServer.LIST_PAGE_SIZE), header[1]);
+            assertEquals(BankServer.LIST_PAGE_SIZE + 1, first.length);
+            assertTrue(first[1].startsWith("ACC001 "), "Accounts should be listed in creation order");
+
+            bank.deleteAccount(first[first.length - 1].split(" ")[0]); // The cursor survives a delete
+            String second = client.call("LIST " + header[2]);
+            assertEquals("OK 5", second.substring(0, second.indexOf('\n')), "The last page should have no cursor");
+            assertTrue(second.contains("\nACC" + accounts + " 1.00 Owner"), second);
+            assertTrue(client.call("LIST soon").startsWith("ERR BAD_REQUEST"), "A bad cursor should be rejected");
+        }
+    }
+
+    @Test
+    @DisplayName("Should listen on the loopback address unless told otherwise")
+    void testDefaultBindsLoopback() throws IOException {
+        try (BankServer local = BankServer.start(bank, 0);
+             BankClient client = BankClient.connect(InetAddress.getLoopbackAddress().getHostAddress(), local.getPort())) {
+            assertEquals("OK 500.00", client.call("BALANCE ACC001"));
+            assertTrue(local.getAddress().isLoopbackAddress(), "Only local clients should be able to connect");
+        }
+    }
+
+    private BankClient connect() throws IOException {
+        return BankClient.connect(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+    }
+}
@@ -3,6 +3,17 @@ package com.bankapp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BankTest {
@@ -99,4 +110,636 @@ class BankTest {
     void testGetAccountCountEmpty() {
         assertEquals(0, bank.getAccountCount(), "Empty bank should have zero accounts");
     }
+
+    @Test
+    @DisplayName("Should reject an account with a duplicate number")
+    void testAddDuplicateAccount() {
+        assertTrue(bank.addAccount(account1), "First add should succeed");
+        assertFalse(bank.addAccount(new Account("ACC001", "Mallory", 5.0)), "Duplicate add should be rejected");
+
+        assertEquals(1, bank.getAccountCount(), "Bank should still have 1 account");
+        assertEquals("Alice", bank.findAccount("ACC001").get().getOwnerName(), "Original account should be kept");
+    }
+
+    @Test
+    @DisplayName("Should keep insertion order in getAllAccounts after deletes")
+    void testGetAllAccountsKeepsInsertionOrder() {
+        Account account3 = new Account("ACC003", "Carol", 10.0);
+        bank.addAccount(account2);
+        bank.addAccount(account1);
+        bank.addAccount(account3);
+        bank.deleteAccount("ACC001");
+
+        var allAccounts = bank.getAllAccounts();
+        assertEquals(2, allAccounts.size(), "Should return 2 accounts");
+        assertSame(account2, allAccounts.get(0), "First added account should come first");
+        assertSame(account3, allAccounts.get(1), "Last added account should come last");
+    }
+
+    @Test
+    @DisplayName("Should transfer money between two accounts")
+    void testTransfer() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+
+        TransactionResult result = bank.transfer("ACC001", "ACC002", 125.5);
+        assertTrue(result.isSuccess(), "Transfer should succeed");
+        assertEquals(37_450, result.balanceCents(), "Result should carry the sender's new balance");
+        assertEquals(374.5, account1.getBalance(), "Sender should be debited");
+        assertEquals(1125.5, account2.getBalance(), "Receiver should be credited");
+        assertTrue(account1.getTransactionHistory().get(1).contains("Transfer to ACC002"), "Sender history should record transfer");
+        assertTrue(account2.getTransactionHistory().get(1).contains("Transfer from ACC001"), "Receiver history should record transfer");
+    }
+
+    @Test
+    @DisplayName("Should reject transfers that cannot be completed")
+    void testRejectedTransfers() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+
+        assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.transfer("ACC001", "ACC002", 500.01).status(),
+                "Insufficient funds should be rejected");
+        assertEquals(TransactionResult.Status.SAME_ACCOUNT, bank.transfer("ACC001", "ACC001", 1.0).status(),
+                "Transfer to the same account should be rejected");
+        assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, bank.transfer("ACC001", "NONEXISTENT", 1.0).status(),
+                "Missing receiver should be rejected");
+        assertEquals(TransactionResult.Status.INVALID_AMOUNT, bank.transfer("ACC001", "ACC002", -1.0).status(),
+                "Negative amount should be rejected");
+        assertEquals(500.0, account1.getBalance(), "Sender balance should be unchanged");
+        assertEquals(1000.0, account2.getBalance(), "Receiver balance should be unchanged");
+    }
+
+    @Test
+    @DisplayName("Should conserve money under contended transfers without deadlock")
+    void testConcurrentTransfersConserveMoney() throws InterruptedException {
+        Bank contended = new Bank(4); // Few stripes so that threads collide on locks
+        int accountCount = 16;
+        for (int i = 0; i < accountCount; i++) {
+            contended.addAccount(new Account("T" + i, "Owner " + i, 100.0));
+        }
+
+        for (int threads : new int[] {1, 2, 4, 8}) {
+            runTransfers(contended, accountCount, threads, 20_000);
+
+            assertEquals(accountCount * 10_000L, totalCents(contended), "Transfers must never create or destroy money");
+            assertEquals(accountCount * 10_000L, contended.getTotalBankBalanceCents(), "Bank total should not move either");
+        }
+        for (Account account : contended.getAllAccounts()) {
+            assertTrue(account.getBalanceCents() >= 0, "No account should be overdrawn");
+        }
+    }
+
+    @Test
+    @DisplayName("Should forward events from the bank and its accounts to the listener")
+    void testEventListener() {
+        List<String> events = new ArrayList<>();
+        bank.addAccount(account1);
+        bank.setEventListener(new BankEventListener() {
+            @Override
+            public void onAccountCreated(Account account) {
+                events.add("created:" + account.getAccountNumber());
+            }
+
+            @Override
+            public void onAccountDeleted(Account account) {
+                events.add("deleted:" + account.getAccountNumber());
+            }
+
+            @Override
+            public void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+                events.add(type + ":" + account.getAccountNumber());
+            }
+
+            @Override
+            public void onTransfer(Account from, Account to, long amountCents, TransactionResult result) {
+                events.add("transfer:" + from.getAccountNumber() + "->" + to.getAccountNumber());
+            }
+        });
+
+        bank.addAccount(account2);
+        account1.deposit(10.0);
+        bank.transfer("ACC002", "ACC001", 5.0);
+        bank.deleteAccount("ACC002");
+
+        assertEquals(List.of("created:ACC002", "DEPOSIT:ACC001", "transfer:ACC002->ACC001", "deleted:ACC002"), events,
+                "Listener should see events for accounts added before and after it was set");
+    }
+
+    @Test
+    @DisplayName("Should keep bank-wide totals up to date as operations happen")
+    void testAggregates() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+        account1.deposit(20.25);
+        account2.withdraw(100.0);
+        account2.withdraw(5000.0); // Rejected, not counted
+        bank.transfer("ACC001", "ACC002", 50.0);
+
+        assertEquals(142_025, bank.getTotalBankBalanceCents(), "Total should follow deposits and withdrawals");
+        assertEquals(totalCents(bank), bank.getTotalBankBalanceCents(), "Total should match the accounts");
+        assertEquals(2_025, bank.getDepositVolumeCents(), "Deposit volume should count the deposit");
+        assertEquals(1, bank.getDepositCount(), "One deposit should be counted");
+        assertEquals(10_000, bank.getWithdrawalVolumeCents(), "Withdrawal volume should count only the successful one");
+        assertEquals(1, bank.getWithdrawalCount(), "One withdrawal should be counted");
+
+        assertTrue(bank.deleteAccount("ACC002"));
+        assertEquals(47_025, bank.getTotalBankBalanceCents(), "Deleting should take the account's balance out of the total");
+        assertEquals(1, bank.getAccountCount(), "Deleting should lower the count");
+    }
+
+    @Test
+    @DisplayName("Should reject operations on a deleted account")
+    void testDeletedAccountIsClosed() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+        bank.deleteAccount("ACC001");
+
+        assertTrue(account1.isClosed(), "Deleted account should be closed");
+        assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, account1.deposit(10.0).status(),
+                "Deposit on a stale reference should be rejected");
+        assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, account1.withdraw(10.0).status(),
+                "Withdrawal on a stale reference should be rejected");
+        assertEquals(500.0, account1.getBalance(), "Closed account should keep its final balance readable");
+        assertFalse(bank.addAccount(account1), "Closed account cannot be added again");
+        assertFalse(new Bank().addAccount(account2), "Account cannot belong to two banks");
+        assertEquals(100_000, bank.getTotalBankBalanceCents(), "Total should only hold the remaining account");
+    }
+
+    @Test
+    @DisplayName("Should keep the total exact while accounts are deleted under load")
+    void testAggregatesExactUnderDeletes() throws InterruptedException {
+        int accountCount = 64;
+        for (int i = 0; i < accountCount; i++) {
+            bank.addAccount(new Account("T" + i, "Owner " + i, 100.0));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 50_000; i++) {
+                    Account account = bank.findAccount("T" + random.nextInt(accountCount)).orElse(null);
+                    if (account == null) {
+                        continue;
+                    }
+                    // Keep using the reference for a while, so some operations land after the delete.
+                    for (int j = 0; j < 4; j++) {
+                        if (random.nextBoolean()) {
+                            account.depositCents(1 + random.nextInt(100));
+                        } else {
+                            account.withdrawCents(1 + random.nextInt(100));
+                        }
+                    }
+                    bank.transferCents("T" + random.nextInt(accountCount), "T" + random.nextInt(accountCount), 1);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (int i = 0; i < accountCount; i += 2) {
+            bank.deleteAccount("T" + i);
+            Thread.onSpinWait();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(accountCount / 2, bank.getAccountCount(), "Half the accounts should be left");
+        assertEquals(totalCents(bank), bank.getTotalBankBalanceCents(),
+                "Total should equal the sum of the remaining balances");
+    }
+
+    // Runs random transfers between overlapping account pairs and returns the elapsed time.
+    private static void runTransfers(Bank target, int accountCount, int threads, int transfersPerThread)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < transfersPerThread; i++) {
+                    int from = random.nextInt(accountCount);
+                    int to = random.nextInt(accountCount);
+                    target.transferCents("T" + from, "T" + to, 1 + random.nextInt(500));
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static long totalCents(Bank target) {
+        long total = 0;
+        for (Account account : target.getAllAccounts()) {
+            total += account.getBalanceCents();
+        }
+        return total;
+    }
+
+    @Test
+    @DisplayName("Should tier account history into per-account files and clean them up")
+    void testHistoryTiering(@TempDir Path directory) throws IOException {
+        Path stale = Files.createFile(directory.resolve("history-99.cold"));
+        bank.addAccount(account1);
+        bank.enableHistoryTiering(directory, 0);
+        bank.addAccount(account2);
+
+        assertFalse(Files.exists(stale), "Files from an earlier run should be removed");
+        for (int i = 0; i < ColdHistory.BLOCK_ENTRIES * 2; i++) {
+            account1.deposit(1.0);
+            account2.deposit(1.0);
+        }
+        assertTrue(account1.getTransactionLog().inMemorySize() < 2 * ColdHistory.BLOCK_ENTRIES,
+                "Accounts already in the bank should be tiered");
+        assertTrue(account2.getTransactionLog().inMemorySize() < 2 * ColdHistory.BLOCK_ENTRIES,
+                "Accounts added later should be tiered");
+        assertEquals("Initial deposit: $500.00", account1.getTransactionLog().describe(0),
+                "Old history should still be readable");
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count(), "Each account should have its own file");
+        }
+
+        bank.deleteAccount("ACC001");
+        bank.deleteAccount("ACC002");
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Deleting an account should delete its file");
+        }
+    }
+
+    @Test
+    @DisplayName("Should find accounts by exact owner name and by case-insensitive prefix")
+    void testFindByOwner() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+        bank.addAccount(new Account("ACC003", "alice", 1.0));
+        bank.addAccount(new Account("ACC004", "Alicia", 1.0));
+        bank.addAccount(new Account("ACC005", "Alice", 1.0));
+
+        List<Account> alices = bank.findAccountsByOwner("Alice");
+        assertEquals(List.of(account1, bank.findAccount("ACC005").get()), alices,
+                "Exact lookups should match case and keep creation order");
+
+        List<String> numbers = new ArrayList<>();
+        for (Account account : bank.findAccountsByOwnerPrefix("ALI")) {
+            numbers.add(account.getAccountNumber());
+        }
+        assertEquals(List.of("ACC001", "ACC003", "ACC005", "ACC004"), numbers,
+                "Prefix lookups should ignore case and sort by name");
+        assertEquals(2, bank.findAccountsByOwnerPrefix("ali", 2).size(), "The limit should be respected");
+        assertTrue(bank.findAccountsByOwnerPrefix("Carol").isEmpty());
+
+        bank.deleteAccount("ACC001");
+        assertEquals(1, bank.findAccountsByOwner("Alice").size(), "Deleted accounts should leave the index");
+        assertEquals(List.of(account2), bank.findAccountsByOwnerPrefix("b"));
+    }
+
+    @Test
+    @DisplayName("Should keep the owner index in sync with concurrent adds and deletes")
+    void testOwnerIndexUnderChurn() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String number = "ACC" + random.nextInt(100);
+                    if (random.nextBoolean()) {
+                        bank.addAccount(new Account(number, "Owner " + number, 1.0));
+                    } else {
+                        bank.deleteAccount(number);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(bank.getAccountCount(), bank.findAccountsByOwnerPrefix("owner").size(),
+                "Every account, and only those, should be in the owner index");
+        for (Account account : bank.getAllAccounts()) {
+            assertEquals(List.of(account), bank.findAccountsByOwner(account.getOwnerName()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through every account exactly once in each order")
+    void testListAccountsPaging() {
+        int count = 12_345; // above the parallel threshold
+        for (int i = 0; i < count; i++) {
+            bank.addAccount(new Account(String.format("ACC%05d", (i * 7919) % count), "Owner", (i % 100) + 0.5));
+        }
+        for (AccountOrder order : AccountOrder.values()) {
+            List<AccountSummary> all = new ArrayList<>();
+            AccountPage page = bank.listAccounts(order, 1_000);
+            all.addAll(page.accounts());
+            while (page.hasMore()) {
+                page = bank.listAccounts(order, page.last(), 1_000);
+                all.addAll(page.accounts());
+            }
+            assertEquals(count, all.size(), order + " should list every account once");
+            for (int i = 1; i < all.size(); i++) {
+                assertTrue(order.compare(all.get(i - 1), all.get(i)) < 0, order + " should be sorted at " + i);
+            }
+        }
+        assertEquals("ACC00000", bank.listAccounts(AccountOrder.NUMBER, 1).accounts().get(0).accountNumber());
+        assertTrue(bank.listAccounts(AccountOrder.CREATED, 0).accounts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the accounts with the highest and lowest balances")
+    void testTopAndBottomByBalance() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+        bank.addAccount(new Account("ACC003", "Carol", 50.0));
+        bank.addAccount(new Account("ACC004", "Dave", 750.0));
+
+        List<AccountSummary> top = bank.topByBalance(2);
+        assertEquals(List.of("ACC002", "ACC004"), top.stream().map(AccountSummary::accountNumber).toList());
+        assertEquals(100_000, top.get(0).balanceCents());
+        assertEquals("ACC003", bank.bottomByBalance(1).get(0).accountNumber());
+        assertEquals(4, bank.topByBalance(10).size(), "Asking for more than exist returns everything");
+
+        bank.deleteAccount("ACC002");
+        assertEquals("ACC004", bank.topByBalance(1).get(0).accountNumber(), "Deleted accounts should not be listed");
+    }
+
+    @Test
+    @DisplayName("Should take a balance snapshot of every account and the exact total")
+    void testBalanceSnapshot() {
+        bank.addAccount(account1);
+        bank.addAccount(account2);
+        bank.transfer("ACC001", "ACC002", 100.0);
+
+        BalanceSnapshot snapshot = bank.balanceSnapshot();
+        assertEquals(List.of("ACC001", "ACC002"), snapshot.accounts().stream().map(AccountSummary::accountNumber).toList());
+        assertEquals(40_000, snapshot.findAccount("ACC001").orElseThrow().balanceCents());
+        assertEquals(150_000, snapshot.totalCents());
+
+        account1.deposit(5.0);
+        bank.deleteAccount("ACC002");
+        assertEquals(40_000, snapshot.findAccount("ACC001").orElseThrow().balanceCents(), "A snapshot should not change");
+        BalanceSnapshot later = bank.balanceSnapshot();
+        assertTrue(later.epoch() > snapshot.epoch(), "Later snapshots should have later epochs");
+        assertEquals(List.of(new AccountSummary("ACC001", "Alice", 40_500, 0)), later.accounts());
+        assertEquals(40_500, later.totalCents());
+    }
+
+    @Test
+    @DisplayName("Should take consistent balance snapshots while transfers and deletes run")
+    void testBalanceSnapshotUnderLoad() throws InterruptedException {
+        int accounts = 50;
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccount(new Account("ACC" + i, "Owner", 100.0));
+        }
+        long expected = accounts * 10_000L;
+        CountDownLatch writersDone = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    bank.transferCents("ACC" + random.nextInt(accounts), "ACC" + random.nextInt(accounts),
+                            1 + random.nextInt(5_000));
+                }
+                writersDone.countDown();
+            }));
+        }
+        // Empty accounts coming and going, so snapshots also race with adds and deletes
+        threads.add(new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                bank.addAccount(new Account("TMP" + (i % 10), "Temp", 0.0));
+                bank.deleteAccount("TMP" + ((i + 5) % 10));
+            }
+            writersDone.countDown();
+        }));
+        List<String> problems = new ArrayList<>();
+        int[] taken = new int[1];
+        Thread auditor = new Thread(() -> {
+            while (writersDone.getCount() > 0 || taken[0] == 0) {
+                BalanceSnapshot snapshot = bank.balanceSnapshot();
+                taken[0]++;
+                long sum = 0;
+                for (AccountSummary account : snapshot.accounts()) {
+                    if (account.balanceCents() < 0) {
+                        problems.add("Negative balance in " + account);
+                    }
+                    sum += account.balanceCents();
+                }
+                if (sum != expected || snapshot.totalCents() != expected) {
+                    problems.add("Snapshot " + snapshot.epoch() + " totals " + sum + "/" + snapshot.totalCents());
+                }
+            }
+        });
+        threads.add(auditor);
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), problems, "Every snapshot should see all of a transfer or none of it");
+        assertTrue(taken[0] > 0, "At least one snapshot should have been taken");
+        assertEquals(expected, bank.balanceSnapshot().totalCents());
+    }
+
+    @Test
+    @DisplayName("Should post interest and fees to every account with a history entry for each")
+    void testApplyInterestAndFees() {
+        bank.addAccount(new Account("ACC001", "Alice", 100.0));
+        bank.addAccount(new Account("ACC002", "Bob", 0.03));
+        bank.addAccount(new Account("ACC003", "Carol", 0.0));
+        long totalBefore = bank.getTotalBankBalanceCents();
+
+        // 0.25% interest and a $5.00 fee
+        InterestRunResult result = bank.applyInterestAndFees(2_500, 500);
+
+        assertEquals(3, result.accounts());
+        assertEquals(25, result.interestCents(), "Only Alice's balance should earn a whole cent");
+        assertEquals(503, result.feeCents(), "Bob's fee should be capped at his balance");
+        assertEquals(9_525, bank.findAccount("ACC001").get().getBalanceCents());
+        assertEquals(0, bank.findAccount("ACC002").get().getBalanceCents());
+        assertEquals(List.of("Initial deposit: $100.00", "Interest: $0.25 | New balance: $100.25",
+                "Fee: $5.00 | New balance: $95.25"), bank.findAccount("ACC001").get().getTransactionHistory());
+        assertEquals(0, bank.findAccount("ACC003").get().getTransactionCount(), "Nothing should be posted to an empty account");
+        assertEquals(totalBefore + result.netCents(), bank.getTotalBankBalanceCents());
+        assertThrows(IllegalArgumentException.class, () -> bank.applyInterestAndFees(1_000_001, 0));
+        assertThrows(IllegalArgumentException.class, () -> bank.applyInterestAndFees(0, -1));
+    }
+
+    @Test
+    @DisplayName("Should keep the total exact when an interest run overlaps transfers and paged-out accounts")
+    void testApplyInterestAndFeesUnderLoad(@TempDir Path directory) throws IOException, InterruptedException {
+        int accounts = 10_000;
+        bank.enableAccountTiering(directory, 2_000);
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccount(new Account("ACC" + i, "Owner", 100.0));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread transfers = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                bank.transferCents("ACC" + random.nextInt(accounts), "ACC" + random.nextInt(accounts), 1 + random.nextInt(100));
+            }
+        });
+        transfers.start();
+        InterestRunResult result = bank.applyInterestAndFees(10_000, 30);
+        running.set(false);
+        transfers.join();
+
+        assertEquals(accounts, result.accounts());
+        long sum = bank.listAccounts(AccountOrder.NUMBER, Integer.MAX_VALUE).accounts().stream()
+                .mapToLong(AccountSummary::balanceCents).sum();
+        assertEquals(accounts * 10_000L + result.netCents(), sum, "Transfers should not create or lose money");
+        assertEquals(sum, bank.getTotalBankBalanceCents());
+        assertEquals(accounts * 30L, result.feeCents());
+    }
+
+    @Test
+    @DisplayName("Should turn down withdrawals and transfers over the velocity limits and flag large ones")
+    void testWithdrawalLimits() {
+        bank.addAccount(new Account("ACC001", "Alice", 1_000.0));
+        bank.addAccount(new Account("ACC002", "Bob", 10.0));
+        List<String> flagged = new ArrayList<>();
+        bank.setEventListener(new BankEventListener() {
+            @Override
+            public void onLargeTransaction(Account account, TransactionType type, long amountCents) {
+                flagged.add(account.getAccountNumber() + " " + type + " " + amountCents);
+            }
+        });
+        // Three payments or $500.00 an hour; $200.00 or more is flagged
+        bank.setWithdrawalLimits(new WithdrawalLimits(3, 50_000, 3_600_000, 20_000));
+        Account alice = bank.findAccount("ACC001").get();
+
+        assertTrue(alice.withdrawCents(30_000).isSuccess());
+        TransactionResult overAmount = bank.transferCents("ACC001", "ACC002", 25_000);
+        assertEquals(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, overAmount.status());
+        assertEquals(70_000, overAmount.balanceCents());
+        assertTrue(bank.transferCents("ACC001", "ACC002", 100).isSuccess());
+        assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.transferCents("ACC002", "ACC001", 5_000).status());
+        assertTrue(bank.transferCents("ACC002", "ACC001", 1_000).isSuccess(), "Turned-down payments should not count");
+        assertTrue(alice.withdrawCents(100).isSuccess());
+        assertEquals(TransactionResult.Status.VELOCITY_LIMIT_EXCEEDED, alice.withdrawCents(1).status(),
+                "A fourth payment within the hour should be turned down");
+        assertEquals(69_800 + 1_000, alice.getBalanceCents());
+        assertEquals(List.of("ACC001 WITHDRAWAL 30000"), flagged);
+        assertEquals(1, bank.getLargeTransactionCount());
+
+        bank.setWithdrawalLimits(WithdrawalLimits.flagAbove(500));
+        assertTrue(bank.transferCents("ACC001", "ACC002", 600).isSuccess(), "Flags alone should not turn anything down");
+        assertEquals("ACC001 TRANSFER_OUT 600", flagged.get(1));
+        bank.setWithdrawalLimits(null);
+        assertTrue(bank.getWithdrawalLimits().isEmpty());
+        assertTrue(alice.withdrawCents(50_000).isSuccess());
+        assertEquals(2, bank.getLargeTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Should page cold accounts out to disk and load them back transparently")
+    void testAccountTiering(@TempDir Path directory) throws IOException {
+        Path stale = Files.createFile(directory.resolve("account-99.cold"));
+        bank.enableAccountTiering(directory, 2);
+        assertFalse(Files.exists(stale), "Files from an earlier run should be removed");
+        for (int i = 0; i < 10; i++) {
+            bank.addAccount(new Account("ACC" + i, i % 2 == 0 ? "Even" : "Odd", 100.0 + i));
+        }
+        assertEquals(10, bank.getAccountCount(), "Paged-out accounts are still in the bank");
+        assertEquals(2, bank.getResidentAccountCount(), "Only two accounts should stay in memory");
+        assertEquals(8, bank.getAccountEvictions());
+        assertEquals(104_500, bank.getTotalBankBalanceCents(), "Paging out should not change the total");
+
+        // Listings and snapshots read paged-out accounts without loading them
+        assertEquals("ACC9", bank.topByBalance(1).get(0).accountNumber());
+        assertEquals(104_500, bank.balanceSnapshot().totalCents());
+        assertEquals(0, bank.getAccountCacheMisses());
+
+        Account first = bank.findAccount("ACC0").orElseThrow();
+        assertEquals(1, bank.getAccountCacheMisses(), "A paged-out account should be loaded on lookup");
+        assertEquals(10_000, first.getBalanceCents());
+        assertEquals("Initial deposit: $100.00", first.getTransactionLog().describe(0), "History should come back too");
+        first.deposit(1.0);
+
+        assertEquals(TransactionResult.Status.SUCCESS, bank.transfer("ACC1", "ACC2", 50.0).status());
+        assertEquals(TransactionResult.Status.SUCCESS, bank.transfer("ACC3", "ACC4", 50.0).status());
+        // By now ACC0 has been paged out again, but the object we hold passes operations on
+        first.deposit(2.0);
+        assertEquals(10_300, bank.findAccount("ACC0").orElseThrow().getBalanceCents());
+        assertEquals(List.of("Initial deposit: $100.00", "Deposit: $1.00 | New balance: $101.00",
+                        "Deposit: $2.00 | New balance: $103.00"),
+                bank.findAccount("ACC0").orElseThrow().getTransactionHistory());
+        assertEquals(15_200, bank.findAccount("ACC2").orElseThrow().getBalanceCents());
+        assertEquals(5, bank.findAccountsByOwner("Even").size(), "Owner search should find paged-out accounts");
+
+        assertTrue(bank.deleteAccount("ACC5"), "A paged-out account should be deletable");
+        assertTrue(bank.findAccount("ACC5").isEmpty());
+        assertEquals(104_800 - 10_500, bank.getTotalBankBalanceCents());
+        assertEquals(bank.getTotalBankBalanceCents(), bank.balanceSnapshot().totalCents());
+        assertTrue(bank.getAccountCacheHits() > 0);
+    }
+
+    @Test
+    @DisplayName("Should keep money exact while accounts are paged in and out under concurrent transfers")
+    void testAccountTieringUnderLoad(@TempDir Path directory) throws IOException, InterruptedException {
+        int accounts = 40;
+        bank.enableAccountTiering(directory, 8);
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccount(new Account("ACC" + i, "Owner", 100.0));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    String from = "ACC" + random.nextInt(accounts);
+                    String to = "ACC" + random.nextInt(accounts);
+                    if (random.nextBoolean()) {
+                        bank.transferCents(from, to, 1 + random.nextInt(1_000));
+                    } else {
+                        // Through a reference that may be paged out before it is used
+                        bank.findAccount(from).ifPresent(account -> {
+                            if (account.withdrawCents(7).isSuccess()) {
+                                account.depositCents(7);
+                            }
+                        });
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long sum = 0;
+        for (int i = 0; i < accounts; i++) {
+            Account account = bank.findAccount("ACC" + i).orElseThrow();
+            assertTrue(account.getBalanceCents() >= 0, "No account should be overdrawn");
+            sum += account.getBalanceCents();
+        }
+        assertEquals(accounts * 10_000L, sum, "Paging should neither create nor lose money");
+        assertEquals(accounts * 10_000L, bank.getTotalBankBalanceCents());
+        assertTrue(bank.getAccountEvictions() > 0, "Accounts should have been paged out");
+    }
 }
@@ -0,0 +1,151 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    private Bank bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        bank.addAccount(new Account("ACC001", "Alice", 100.0));
+        bank.addAccount(new Account("ACC002", "Bob", 0.0));
+    }
+
+    @Test
+    @DisplayName("Should apply operations and count rejects by reason")
+    void testProcessCountsOutcomes() throws IOException {
+        String csv = String.join("\n",
+                "account,type,amount",
+                "ACC001,DEPOSIT,25.50",
+                "ACC002,WITHDRAWAL,1",
+                "ACC999,DEPOSIT,5",
+                "ACC001,withdrawal,0",
+                "ACC001,REFUND,5",
+                "not a csv line",
+                "",
+                "ACC002,DEPOSIT,.5");
+
+        BatchResult result = new BatchProcessor(bank, 3).process(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(7, result.lines(), "Header and blank lines should not count");
+        assertEquals(2, result.applied(), "Two operations should be applied");
+        assertEquals(2, result.malformed(), "Unknown type and missing fields are malformed");
+        assertEquals(1, (long) result.outcomes().getOrDefault(TransactionResult.Status.INSUFFICIENT_FUNDS, 0L));
+        assertEquals(1, (long) result.outcomes().getOrDefault(TransactionResult.Status.ACCOUNT_NOT_FOUND, 0L));
+        assertEquals(1, (long) result.outcomes().getOrDefault(TransactionResult.Status.INVALID_AMOUNT, 0L));
+        assertEquals(5, result.rejected(), "Everything not applied is a reject");
+        assertEquals(12_550, bank.findAccount("ACC001").get().getBalanceCents());
+        assertEquals(50, bank.findAccount("ACC002").get().getBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should apply each account's operations in file order")
+    void testPerAccountOrderIsKept() throws IOException {
+        Path file = directory.resolve("settlement.csv");
+        int rounds = 20_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < rounds; i++) {
+                // Each withdrawal only succeeds if the deposit right before it was applied first.
+                writer.write("ACC002,DEPOSIT,1.00\n");
+                writer.write("ACC002,WITHDRAWAL,1.00\n");
+                writer.write("ACC001,DEPOSIT,0.01\n");
+            }
+        }
+
+        BatchResult result = new BatchProcessor(bank, 4).process(file);
+
+        assertEquals(rounds * 3L, result.applied(), "Every operation should succeed when order is kept");
+        assertEquals(0, bank.findAccount("ACC002").get().getBalanceCents());
+        assertEquals(10_000 + rounds, bank.findAccount("ACC001").get().getBalanceCents());
+        String summary = result.summary();
+        assertTrue(summary.startsWith(String.format("Processed %,d operations", rounds * 3L)), summary);
+        assertTrue(summary.contains(String.format("Applied:  %,d", rounds * 3L)), summary);
+        assertTrue(summary.contains("Rejected: 0"), summary);
+    }
+
+    @Test
+    @DisplayName("Should treat a first line that only starts like the header as an operation")
+    void testHeaderMustMatch() throws IOException {
+        bank.addAccount(new Account("ACCOUNT1", "Carol", 0.0));
+        String csv = "ACCOUNT1,DEPOSIT,5\nAccount , Type , Amount\n";
+
+        BatchResult result = new BatchProcessor(bank, 2).process(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(500, bank.findAccount("ACCOUNT1").get().getBalanceCents(), "The first record should be applied");
+        assertEquals(2, result.lines(), "Only a header on the first line is skipped");
+        assertEquals(1, result.malformed());
+    }
+
+    @Test
+    @DisplayName("Should stop its workers when the file cannot be read to the end")
+    void testReadFailureStopsWorkers() throws IOException {
+        Path file = directory.resolve("broken.csv");
+        try (var out = Files.newOutputStream(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                out.write("ACC001,DEPOSIT,0.01\n".getBytes(StandardCharsets.UTF_8));
+            }
+            out.write(new byte[] {(byte) 0xFF, (byte) 0xFE, '\n'}); // Not UTF-8
+        }
+
+        assertThrows(IOException.class, () -> new BatchProcessor(bank, 3).process(file));
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                        .noneMatch(thread -> thread.getName().startsWith("batch-worker-") && thread.isAlive()),
+                "No worker should be left waiting for more input");
+    }
+
+    @Test
+    @DisplayName("Should report what was applied when a worker fails")
+    void testWorkerFailureReportsPartialResult() {
+        bank.setEventListener(failingOn("ACC002"));
+        String csv = "ACC001,DEPOSIT,1\nACC001,DEPOSIT,1\nACC001,WITHDRAWAL,1\nACC002,DEPOSIT,1\nACC001,DEPOSIT,1\n";
+
+        BatchProcessor.WorkerFailedException e = assertThrows(BatchProcessor.WorkerFailedException.class,
+                () -> new BatchProcessor(bank, 1).process(new BufferedReader(new StringReader(csv))));
+        assertEquals(3, e.partialResult().applied(), "Only the operations before the failure should be counted");
+        assertEquals("log unavailable", e.getCause().getMessage());
+        assertEquals(10_100, bank.findAccount("ACC001").orElseThrow().getBalanceCents(),
+                "Operations after the failure should be skipped");
+    }
+
+    // A listener that fails every operation on 'accountNumber', like a write-ahead log that cannot be written.
+    static BankEventListener failingOn(String accountNumber) {
+        return new BankEventListener() {
+            @Override
+            public void onTransaction(Account account, TransactionType type, long amountCents, TransactionResult result) {
+                if (account.getAccountNumber().equals(accountNumber)) {
+                    throw new IllegalStateException("log unavailable");
+                }
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should parse amounts exactly without floating point")
+    void testParseCents() {
+        assertEquals(12_345, BatchProcessor.parseCents("123.45", 0));
+        assertEquals(1_200, BatchProcessor.parseCents(" 12 ", 0));
+        assertEquals(50, BatchProcessor.parseCents("x,0.5", 2));
+        assertEquals(-1, BatchProcessor.parseCents("1.234", 0), "More than two decimals is not a valid amount");
+        assertEquals(-1, BatchProcessor.parseCents("-5", 0), "Negative amounts are not valid");
+        assertEquals(-1, BatchProcessor.parseCents("", 0), "Empty amount is not valid");
+        assertEquals(-1, BatchProcessor.parseCents("99999999999999999999", 0), "Overflow is not valid");
+    }
+}
@@ -0,0 +1,58 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterestKernelTest {
+
+    @Test
+    @DisplayName("Should compute interest exactly, rounded down to the cent, for every balance size")
+    void testInterestIsExact() {
+        assertEquals(25, InterestKernel.interest(10_000, 2_500), "0.25% of $100.00 is 25 cents");
+        assertEquals(0, InterestKernel.interest(399, 2_500), "Fractions of a cent should be dropped");
+        assertEquals(10_000, InterestKernel.interest(10_000, 1_000_000), "A rate of 100% should double the balance");
+        assertEquals(0, InterestKernel.interest(Account.MAX_BALANCE_CENTS, 1), "Interest should stop at the balance limit");
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            long balance = random.nextLong(Account.MAX_BALANCE_CENTS / 2);
+            long rate = random.nextLong(1_000_001);
+            long expected = BigInteger.valueOf(balance).multiply(BigInteger.valueOf(rate))
+                    .divide(BigInteger.valueOf(1_000_000)).longValueExact();
+            assertEquals(expected, InterestKernel.interest(balance, rate), "balance " + balance + ", rate " + rate);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same interest and fees on the column path as one account at a time")
+    void testColumnsMatchScalar() {
+        SplittableRandom random = new SplittableRandom(11);
+        int size = 10_003; // Not a multiple of any vector length, so the tail is covered too
+        long[] balances = new long[size];
+        for (int i = 0; i < size; i++) {
+            balances[i] = switch (i % 5) {
+                case 0 -> random.nextLong(1_000);
+                case 1 -> random.nextLong(1_000_000_000L);
+                case 2 -> Account.MAX_BALANCE_CENTS - random.nextLong(1_000);
+                case 3 -> 1_000_000L * random.nextLong(1_000_000) - random.nextInt(2);
+                default -> random.nextLong(Account.MAX_BALANCE_CENTS + 1);
+            };
+        }
+        balances[3] = 0;
+        for (long rate : new long[] {0, 1, 2_500, 999_999, 1_000_000}) {
+            long[] interest = new long[size];
+            long[] fees = new long[size];
+            long[] expectedInterest = new long[size];
+            long[] expectedFees = new long[size];
+            InterestKernel.compute(balances, interest, fees, 1, size, rate, 500);
+            InterestKernel.computeScalar(balances, expectedInterest, expectedFees, 1, size, rate, 500);
+            assertArrayEquals(expectedInterest, interest, "Interest at rate " + rate);
+            assertArrayEquals(expectedFees, fees, "Fees at rate " + rate);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        assertWithinPrecision(50_000, histogram.getValueAtQuantile(0.5));
+        assertWithinPrecision(99_000, histogram.getValueAtQuantile(0.99));
+        assertWithinPrecision(99_900, histogram.getValueAtQuantile(0.999));
+        assertEquals(100_000, histogram.getValueAtQuantile(1.0), "p100 should be the exact maximum");
+    }
+
+    @Test
+    @DisplayName("Should count small values exactly and huge values without overflow")
+    void testEdges() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtQuantile(0.1), "Negative values count as 0");
+        assertEquals(7, histogram.getValueAtQuantile(0.5), "Small values are exact");
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtQuantile(1.0));
+        assertEquals(0, new LatencyHistogram().getValueAtQuantile(0.99), "Empty histogram reports 0");
+    }
+
+    @Test
+    @DisplayName("Should merge histograms and reset them")
+    void testAddAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            first.record(1_000);
+        }
+        second.record(1_000_000);
+
+        first.add(second);
+        assertEquals(100, first.getCount());
+        assertWithinPrecision(1_000, first.getValueAtQuantile(0.99));
+        assertEquals(1_000_000, first.getValueAtQuantile(1.0));
+
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getMax());
+    }
+
+    @Test
+    @DisplayName("Should not allocate when recording")
+    void testRecordDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i); // Warm up so the loop below runs compiled
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000_000; i++) {
+            histogram.record(i * 31L);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "Recording a million values allocated " + allocated + " bytes");
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32 + 1,
+                "Expected " + expected + " within bucket precision but was " + actual);
+    }
+}
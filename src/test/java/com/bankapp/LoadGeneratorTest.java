@@ -0,0 +1,84 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Should run the configured mix and keep the bank consistent")
+    void testRunMix() throws InterruptedException {
+        Bank bank = new Bank();
+        String[] keys = new String[1_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "L" + i;
+            bank.addAccount(new Account(keys[i], "Load", 100.0));
+        }
+        LoadGenerator.Config config = new LoadGenerator.Config(keys.length, LoadGenerator.parseMix(
+                "balance=50,deposit=20,withdraw=20,create=5,delete=5"), 0.99, 4,
+                Duration.ofMillis(300), Duration.ofMillis(100));
+
+        LoadGenerator.Result result = LoadGenerator.run(bank, keys, config);
+
+        List<String> report = result.report().lines().toList();
+        assertTrue(report.get(0).startsWith("4 thread(s): "), report.get(0));
+        for (LoadGenerator.Op op : LoadGenerator.Op.values()) {
+            long count = result.latencies()[op.ordinal()].getCount();
+            assertTrue(count > 0, op + " should have been issued");
+            assertTrue(hasRow(report, op.name(), count), "The report should have a row for " + op);
+        }
+        assertTrue(hasRow(report, "ALL", result.total().getCount()), "The report should end with the total");
+        assertEquals(2 + LoadGenerator.Op.values().length + 1, report.size());
+        assertTrue(result.opsPerSecond() > 0);
+        long sum = 0;
+        for (Account account : bank.getAllAccounts()) {
+            sum += account.getBalanceCents();
+        }
+        assertEquals(sum, bank.getTotalBankBalanceCents(), "Bank total should match its accounts after the run");
+    }
+
+    @Test
+    @DisplayName("Should print the usage instead of failing on bad settings")
+    void testMainRejectsBadSettings() throws InterruptedException {
+        PrintStream console = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            LoadGenerator.main(new String[] {"--accounts", "0"});
+        } finally {
+            System.setOut(console);
+        }
+        String printed = out.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("accounts and threads must be positive"), printed);
+        assertTrue(printed.contains("Usage: LoadGenerator"), printed);
+    }
+
+    @Test
+    @DisplayName("Should parse the command-line settings")
+    void testParsing() {
+        assertArrayEquals(new int[] {60, 0, 40, 0, 0}, LoadGenerator.parseMix("balance=60, withdraw=40"));
+        assertEquals(0, LoadGenerator.parseSkew("uniform"));
+        assertEquals(0.99, LoadGenerator.parseSkew("zipf"));
+        assertEquals(0.5, LoadGenerator.parseSkew("zipf:0.5"));
+        assertEquals(Duration.ofMillis(250), LoadGenerator.parseDuration("250ms"));
+        assertEquals(Duration.ofSeconds(10), LoadGenerator.parseDuration("10s"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("refund=5"));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator.Config(10, new int[5], 0, 1,
+                Duration.ofSeconds(1), Duration.ZERO), "An all-zero mix should be rejected");
+    }
+
+    // True if the report has a row for 'name' with 'count' operations, formatted as Result.report does.
+    private static boolean hasRow(List<String> report, String name, long count) {
+        String start = String.format(Locale.ROOT, "  %-9s %,12d ", name, count);
+        return report.stream().anyMatch(line -> line.startsWith(start));
+    }
+}
@@ -0,0 +1,66 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should turn down an opening deposit above the balance limit instead of crashing")
+    void testCreateAccountAboveLimit() {
+        Bank bank = new Bank();
+        String printed = createAccount(bank, "ACC9\nZed\n1e15\n");
+        assertTrue(printed.contains("❌ Initial deposit cannot exceed"), printed);
+        assertTrue(bank.findAccount("ACC9").isEmpty(), "No account should be created");
+
+        printed = createAccount(bank, "ACC9\nZed\n25.50\n");
+        assertTrue(printed.contains("✅ Account created successfully!"), printed);
+        assertEquals(2_550, bank.findAccount("ACC9").orElseThrow().getBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should report a failed batch instead of letting the failure escape")
+    void testBatchWorkerFailure() throws IOException {
+        Bank bank = new Bank();
+        bank.addAccount(new Account("ACC1", "Ann", 10.0));
+        bank.addAccount(new Account("ACC2", "Ben", 10.0));
+        bank.setEventListener(BatchProcessorTest.failingOn("ACC2"));
+        Path file = Files.writeString(directory.resolve("batch.csv"), "ACC1,DEPOSIT,1\nACC2,DEPOSIT,1\n");
+
+        String printed = captureOutput(() -> Main.runBatch(bank, file));
+        assertTrue(printed.contains("❌ The batch stopped after applying "), printed);
+    }
+
+    // Runs the "Create Account" dialog on 'input' and returns what it printed.
+    private static String createAccount(Bank bank, String input) {
+        return captureOutput(() -> Main.handleCreateAccount(new Scanner(input).useLocale(Locale.ROOT), bank));
+    }
+
+    // Runs 'action' and returns what it printed.
+    private static String captureOutput(Runnable action) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setOut(console);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBankTest {
+
+    private OffHeapBank bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new OffHeapBank();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bank.close();
+    }
+
+    @Test
+    @DisplayName("Should add and find accounts")
+    void testAddAndFind() {
+        assertTrue(bank.addAccount("ACC001", "Alice", 500.0));
+        assertTrue(bank.addAccount("ACC002", "Zoë Ñúñez", 10.25));
+        assertFalse(bank.addAccount("ACC001", "Mallory", 1.0), "Duplicate numbers should be rejected");
+
+        OffHeapBank.AccountRecord alice = bank.findAccount("ACC001").orElseThrow();
+        assertEquals("Alice", alice.ownerName());
+        assertEquals(50_000, alice.balanceCents());
+        assertEquals("Zoë Ñúñez", bank.findAccount("ACC002").orElseThrow().ownerName(), "Names should round-trip as UTF-8");
+        assertTrue(bank.findAccount("ACC003").isEmpty());
+        assertEquals(2, bank.getAccountCount());
+        assertEquals(51_025, bank.getTotalBankBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should reject numbers and names that do not fit a record")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bank.addAccount("X".repeat(OffHeapBank.MAX_NUMBER_CHARS + 1), "Alice", 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> bank.addAccount("ACC001", "é".repeat(OffHeapBank.MAX_OWNER_BYTES), 1.0));
+        assertTrue(bank.addAccount("X".repeat(OffHeapBank.MAX_NUMBER_CHARS), "a".repeat(OffHeapBank.MAX_OWNER_BYTES), 1.0));
+    }
+
+    @Test
+    @DisplayName("Should deposit, withdraw and transfer with the same results as Bank")
+    void testOperations() {
+        bank.addAccount("ACC001", "Alice", 500.0);
+        bank.addAccount("ACC002", "Bob", 1000.0);
+
+        assertEquals(55_000, bank.deposit("ACC001", 50.0).balanceCents());
+        assertEquals(TransactionResult.Status.INVALID_AMOUNT, bank.deposit("ACC001", -5.0).status());
+        assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.withdraw("ACC001", 600.0).status());
+        assertEquals(45_000, bank.withdraw("ACC001", 100.0).balanceCents());
+        assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, bank.withdraw("ACC009", 1.0).status());
+
+        TransactionResult transfer = bank.transfer("ACC001", "ACC002", 200.0);
+        assertTrue(transfer.isSuccess());
+        assertEquals(25_000, transfer.balanceCents(), "A transfer reports the sender's balance");
+        assertEquals(120_000, bank.findAccount("ACC002").orElseThrow().balanceCents());
+        assertEquals(TransactionResult.Status.SAME_ACCOUNT, bank.transfer("ACC001", "ACC001", 1.0).status());
+        assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.transfer("ACC001", "ACC002", 300.0).status());
+        assertEquals(TransactionResult.Status.BALANCE_LIMIT_EXCEEDED,
+                bank.depositCents("ACC002", Long.MAX_VALUE).status());
+        assertEquals(145_000, bank.getTotalBankBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should stop at the same balance limit as Bank")
+    void testBalanceLimit() {
+        long max = Account.MAX_BALANCE_CENTS;
+        Bank reference = new Bank();
+        reference.addAccount(new Account("FULL", "Alice", max, 0));
+        reference.addAccount(new Account("LOW", "Bob", 100, 0));
+        bank.addAccountCents("FULL", "Alice", max);
+        bank.addAccountCents("LOW", "Bob", 100);
+
+        assertThrows(IllegalArgumentException.class, () -> new Account("OVER", "Carol", max + 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> bank.addAccountCents("OVER", "Carol", max + 1),
+                "An opening balance above the limit should be rejected, as Account does");
+
+        assertEquals(reference.findAccount("FULL").orElseThrow().depositCents(1), bank.depositCents("FULL", 1));
+        assertEquals(reference.findAccount("LOW").orElseThrow().depositCents(max), bank.depositCents("LOW", max));
+        assertEquals(reference.transferCents("LOW", "FULL", 1), bank.transferCents("LOW", "FULL", 1));
+        assertEquals(reference.findAccount("FULL").orElseThrow().withdrawCents(1), bank.withdrawCents("FULL", 1));
+        assertEquals(reference.transferCents("LOW", "FULL", 1), bank.transferCents("LOW", "FULL", 1));
+        assertEquals(reference.findAccount("LOW").orElseThrow().depositCents(max - 99), bank.depositCents("LOW", max - 99));
+        assertEquals(max, bank.findAccount("LOW").orElseThrow().balanceCents(), "A balance can reach the limit exactly");
+        assertEquals(reference.getTotalBankBalanceCents(), bank.getTotalBankBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should delete accounts and reuse their records")
+    void testDeleteAndReuse() {
+        bank.addAccount("ACC001", "Alice", 500.0);
+        bank.addAccount("ACC002", "Bob", 1000.0);
+
+        assertTrue(bank.deleteAccount("ACC001"));
+        assertFalse(bank.deleteAccount("ACC001"));
+        assertTrue(bank.findAccount("ACC001").isEmpty());
+        assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, bank.deposit("ACC001", 1.0).status());
+        assertEquals(100_000, bank.getTotalBankBalanceCents(), "A deleted balance should leave the total");
+
+        assertTrue(bank.addAccount("ACC003", "Carol", 1.0));
+        assertTrue(bank.addAccount("ACC001", "Alice", 2.0), "A deleted number can be used again");
+        assertEquals(200, bank.findAccount("ACC001").orElseThrow().balanceCents());
+        assertEquals("Carol", bank.findAccount("ACC003").orElseThrow().ownerName());
+        assertEquals(3, bank.getAccountCount());
+    }
+
+    @Test
+    @DisplayName("Should grow past its initial size and slab")
+    void testGrowth() {
+        int count = 150_000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(bank.addAccountCents("ACC" + i, "Owner", i));
+        }
+        for (int i = 0; i < count; i += 2) {
+            bank.deleteAccount("ACC" + i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 1, bank.findAccount("ACC" + i).isPresent(), "Lookup of ACC" + i);
+        }
+        assertEquals(count / 2, bank.getAccountCount());
+        assertEquals(count - 1, bank.findAccount("ACC" + (count - 1)).orElseThrow().balanceCents());
+        assertTrue(bank.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should keep every balance exact under concurrent operations")
+    void testConcurrentOperations() throws InterruptedException {
+        int accounts = 200;
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccountCents("ACC" + i, "Owner", 10_000);
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String a = "ACC" + random.nextInt(accounts);
+                    String b = "ACC" + random.nextInt(accounts);
+                    switch (random.nextInt(4)) {
+                        case 0 -> bank.depositCents(a, 7);
+                        case 1 -> bank.withdrawCents(a, 5);
+                        case 2 -> bank.transferCents(a, b, 13);
+                        default -> {
+                            // Churn an account that nobody else touches, to rehash and reuse records meanwhile
+                            String own = "TMP" + seed + "-" + (i % 50);
+                            if (!bank.addAccountCents(own, "Temp", 100)) {
+                                bank.deleteAccount(own);
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long sum = 0;
+        for (int i = 0; i < accounts; i++) {
+            long balance = bank.findAccount("ACC" + i).orElseThrow().balanceCents();
+            assertTrue(balance >= 0, "No account should be overdrawn");
+            sum += balance;
+        }
+        long temporary = 100L * (bank.getAccountCount() - accounts);
+        assertEquals(bank.getTotalBankBalanceCents(), sum + temporary, "The total should match the balances");
+    }
+}
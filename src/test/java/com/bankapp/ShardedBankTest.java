@@ -0,0 +1,157 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedBankTest {
+
+    @Test
+    @DisplayName("Should add, find, deposit, withdraw and delete through the shards")
+    void testOperations() {
+        try (ShardedBank bank = new ShardedBank(4)) {
+            assertTrue(bank.addAccount("ACC001", "Alice", 500.0).join());
+            assertFalse(bank.addAccount("ACC001", "Mallory", 1.0).join(), "Duplicate numbers should be rejected");
+
+            assertEquals(55_000, bank.deposit("ACC001", 50.0).join().balanceCents());
+            assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.withdraw("ACC001", 600.0).join().status());
+            assertEquals(TransactionResult.Status.INVALID_AMOUNT, bank.deposit("ACC001", -1.0).join().status());
+            assertEquals(45_000, bank.withdraw("ACC001", 100.0).join().balanceCents());
+            assertEquals(45_000, bank.balance("ACC001").join().balanceCents());
+            assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, bank.balance("ACC002").join().status());
+            assertEquals(45_000, bank.getTotalBankBalanceCents());
+
+            assertTrue(bank.deleteAccount("ACC001").join());
+            assertFalse(bank.deleteAccount("ACC001").join());
+            assertEquals(0, bank.getAccountCount());
+            assertEquals(0, bank.getTotalBankBalanceCents());
+        }
+    }
+
+    @Test
+    @DisplayName("Should transfer within and across shards, refunding when the receiver is missing")
+    void testTransfers() {
+        try (ShardedBank bank = new ShardedBank(8)) {
+            for (int i = 0; i < 20; i++) {
+                bank.addAccount("ACC" + i, "Owner", 100.0).join();
+            }
+            for (int i = 1; i < 20; i++) {
+                TransactionResult result = bank.transfer("ACC0", "ACC" + i, 1.0).join();
+                assertTrue(result.isSuccess());
+                assertEquals(10_000 - 100 * i, result.balanceCents(), "A transfer reports the sender's balance");
+                assertEquals(10_100, bank.balance("ACC" + i).join().balanceCents());
+            }
+            assertEquals(TransactionResult.Status.INSUFFICIENT_FUNDS, bank.transfer("ACC0", "ACC1", 200.0).join().status());
+            assertEquals(TransactionResult.Status.SAME_ACCOUNT, bank.transfer("ACC1", "ACC1", 1.0).join().status());
+
+            // Whichever shard the missing receiver maps to, the sender must end up where it started
+            for (int i = 1; i < 20; i++) {
+                assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND,
+                        bank.transfer("ACC" + i, "MISSING" + i, 5.0).join().status());
+                assertEquals(10_100, bank.balance("ACC" + i).join().balanceCents(), "The money should come back");
+            }
+            assertEquals(200_000, bank.getTotalBankBalanceCents());
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold a refund in suspense when its sender was deleted meanwhile")
+    void testRefundToDeletedSender() {
+        try (ShardedBank bank = new ShardedBank(8)) {
+            int accounts = 50;
+            for (int i = 0; i < accounts; i++) {
+                bank.addAccount("ACC" + i, "Owner", 100.0).join();
+            }
+            // The delete is queued on the sender's shard right behind the transfer, so it usually runs
+            // before the refund comes back from the receiver's shard
+            List<CompletableFuture<TransactionResult>> transfers = new ArrayList<>();
+            for (int i = 0; i < accounts; i++) {
+                transfers.add(bank.transfer("ACC" + i, "MISSING" + i, 5.0));
+                bank.deleteAccount("ACC" + i);
+            }
+            transfers.forEach(transfer -> assertEquals(TransactionResult.Status.ACCOUNT_NOT_FOUND, transfer.join().status()));
+
+            assertEquals(0, bank.getAccountCount());
+            assertTrue(bank.getSuspenseCents() > 0, "Refunds to deleted senders should be held in suspense");
+            assertEquals(0, bank.getSuspenseCents() % 500);
+            assertEquals(bank.getSuspenseCents(), bank.getTotalBankBalanceCents(),
+                    "Money in suspense should still count towards the total");
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the future of an operation that throws on its shard")
+    void testFailingCommand() {
+        try (ShardedBank bank = new ShardedBank(2)) {
+            CompletionException failed = assertThrows(CompletionException.class,
+                    () -> bank.addAccount("ACC001", "Alice", 1e15).orTimeout(10, TimeUnit.SECONDS).join());
+            assertInstanceOf(IllegalArgumentException.class, failed.getCause(), "The caller should see why it failed");
+            assertTrue(bank.addAccount("ACC001", "Alice", 1.0).join(), "The shard should keep running");
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep money exact under concurrent cross-shard traffic, even with tiny rings")
+    void testConcurrentTransfers() throws InterruptedException {
+        int accounts = 64;
+        ShardedBank bank = new ShardedBank(4, 4);
+        for (int i = 0; i < accounts; i++) {
+            bank.addAccount("ACC" + i, "Owner", 100.0).join();
+        }
+        AtomicLong deposited = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<CompletableFuture<TransactionResult>> pending = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    String from = "ACC" + random.nextInt(accounts);
+                    String to = "ACC" + random.nextInt(accounts);
+                    if (random.nextInt(10) == 0) {
+                        pending.add(bank.depositCents(from, 3).thenApply(result -> {
+                            deposited.addAndGet(3);
+                            return result;
+                        }));
+                    } else {
+                        pending.add(bank.transferCents(from, to, 1 + random.nextInt(500)));
+                    }
+                    if (pending.size() == 64) {
+                        pending.forEach(CompletableFuture::join);
+                        pending.clear();
+                    }
+                }
+                pending.forEach(CompletableFuture::join);
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long sum = 0;
+        for (int i = 0; i < accounts; i++) {
+            long balance = bank.balance("ACC" + i).join().balanceCents();
+            assertTrue(balance >= 0, "No account should be overdrawn");
+            sum += balance;
+        }
+        long expected = accounts * 10_000L + deposited.get();
+        assertEquals(expected, sum, "Transfers should move money without creating or losing any");
+        assertEquals(expected, bank.getTotalBankBalanceCents(), "The total should match the balances");
+
+        bank.close();
+        CompletionException rejected = assertThrows(CompletionException.class, () -> bank.deposit("ACC0", 1.0).join());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause(), "A closed bank should reject operations");
+    }
+}
@@ -0,0 +1,221 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionLog log;
+
+    @BeforeEach
+    void setUp() {
+        log = new TransactionLog();
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.dropColdHistory();
+    }
+
+    // Appends 'count' deposits of 1 cent, stamped 0, 10, 20, ... milliseconds.
+    private void fill(int count) {
+        for (int i = 0; i < count; i++) {
+            log.append(i * 10L, TransactionType.DEPOSIT, 1, i + 1, i % 2 == 0 ? null : "ACC" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should store each column of an entry")
+    void testAppendStoresColumns() {
+        log.append(1_000L, TransactionType.DEPOSIT, 5_000, 15_000, null);
+        log.append(2_000L, TransactionType.TRANSFER_OUT, 2_500, 12_500, "ACC002");
+
+        assertEquals(2, log.size(), "Log should have 2 entries");
+        assertEquals(2_000L, log.timestampAt(1), "Timestamp should be stored");
+        assertEquals(TransactionType.TRANSFER_OUT, log.typeAt(1), "Type should be stored");
+        assertEquals(2_500, log.amountAt(1), "Amount should be stored");
+        assertEquals(12_500, log.balanceAfterAt(1), "Resulting balance should be stored");
+        assertEquals("ACC002", log.counterpartyAt(1), "Counterparty should be stored");
+        assertNull(log.counterpartyAt(0), "Deposits have no counterparty");
+    }
+
+    @Test
+    @DisplayName("Should render entries as text on demand")
+    void testDescribe() {
+        log.append(0L, TransactionType.INITIAL_DEPOSIT, 10_000, 10_000, null);
+        log.append(0L, TransactionType.WITHDRAWAL, 3_005, 6_995, null);
+        log.append(0L, TransactionType.TRANSFER_IN, 5, 7_000, "ACC009");
+
+        assertEquals("Initial deposit: $100.00", log.describe(0));
+        assertEquals("Withdrawal: $30.05 | New balance: $69.95", log.describe(1));
+        assertEquals("Transfer from ACC009: $0.05 | New balance: $70.00", log.describe(2));
+        assertEquals(3, log.describeAll().size(), "describeAll should render every entry");
+    }
+
+    @Test
+    @DisplayName("Should grow past its initial capacity")
+    void testGrowth() {
+        for (int i = 0; i < 1_000; i++) {
+            log.append(i, TransactionType.DEPOSIT, 1, i + 1, null);
+        }
+        assertEquals(1_000, log.size(), "All entries should be kept");
+        assertEquals(999L, log.timestampAt(999), "Last entry should be intact after growth");
+        assertEquals(1_000, log.balanceAfterAt(999), "Last entry should be intact after growth");
+    }
+
+    @Test
+    @DisplayName("Should reject out-of-range indexes")
+    void testOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> log.amountAt(0));
+    }
+
+    @Test
+    @DisplayName("Should return the most recent entries, oldest first")
+    void testLast() {
+        fill(10);
+
+        List<TransactionEntry> last = log.last(3);
+        assertEquals(3, last.size());
+        assertEquals(7, last.get(0).sequence(), "Oldest of the three should come first");
+        assertEquals(10, last.get(2).balanceAfterCents());
+        assertEquals(10, log.last(50).size(), "Asking for more than exist returns everything");
+        assertTrue(log.last(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find entries recorded since a timestamp")
+    void testSince() {
+        fill(10);
+
+        List<TransactionEntry> since = log.since(35, 100);
+        assertEquals(6, since.size(), "Entries stamped 40..90 should be returned");
+        assertEquals(40, since.get(0).timestamp());
+        assertEquals(2, log.since(0, 2).size(), "The limit should be respected");
+        assertTrue(log.since(1_000, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep timestamps in order when appends race the clock")
+    void testTimestampsStayOrdered() {
+        log.append(100, TransactionType.DEPOSIT, 1, 1, null);
+        log.append(90, TransactionType.DEPOSIT, 1, 2, null);
+
+        assertEquals(100, log.timestampAt(1), "A late entry should not go back in time");
+        assertEquals(2, log.since(100, 10).size());
+    }
+
+    @Test
+    @DisplayName("Should page through the whole history")
+    void testPaging() {
+        fill(25);
+
+        int next = 0;
+        int seen = 0;
+        int pages = 0;
+        HistoryPage page;
+        do {
+            page = log.page(next, 10);
+            for (TransactionEntry entry : page.entries()) {
+                assertEquals(seen++, entry.sequence(), "Pages should not skip or repeat entries");
+            }
+            next = page.nextSequence();
+            pages++;
+        } while (page.hasMore());
+
+        assertEquals(25, seen);
+        assertEquals(3, pages);
+        assertTrue(log.page(25, 10).entries().isEmpty(), "A page past the end should be empty");
+    }
+
+    @Test
+    @DisplayName("Should stream entries through a cursor, including later appends")
+    void testCursor() {
+        fill(5);
+        HistoryCursor cursor = log.cursor(2);
+
+        long total = 0;
+        while (cursor.next()) {
+            total += cursor.balanceAfterCents();
+        }
+        assertEquals(3 + 4 + 5, total);
+        assertEquals(4, cursor.sequence());
+        assertEquals("ACC3", log.entryAt(3).counterparty());
+
+        log.append(1_000, TransactionType.WITHDRAWAL, 2, 3, null);
+        assertTrue(cursor.next(), "The cursor should see entries appended after it was opened");
+        assertEquals(TransactionType.WITHDRAWAL, cursor.type());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    @DisplayName("Should move old entries to disk and read them back")
+    void testTiering() throws IOException {
+        Path file = tempDir.resolve("history.cold");
+        log.enableTiering(file, 1_000);
+        int count = 10 * ColdHistory.BLOCK_ENTRIES + 17;
+        fill(count);
+
+        assertEquals(count, log.size());
+        assertTrue(log.inMemorySize() < 1_000 + 2 * ColdHistory.BLOCK_ENTRIES,
+                "Only recent entries should stay in memory, but " + log.inMemorySize() + " did");
+        assertTrue(Files.size(file) > 0, "Old entries should be on disk");
+
+        HistoryCursor cursor = log.cursor(0);
+        int expected = 0;
+        while (cursor.next()) {
+            assertEquals(expected, cursor.sequence());
+            assertEquals(expected * 10L, cursor.timestamp());
+            assertEquals(expected + 1, cursor.balanceAfterCents());
+            assertEquals(expected % 2 == 0 ? null : "ACC" + expected, cursor.counterparty());
+            expected++;
+        }
+        assertEquals(count, expected, "Every entry should be readable across the disk/memory boundary");
+        assertEquals(1_025, log.since(10_240, 1).get(0).balanceAfterCents(), "Binary search should reach disk");
+
+        log.dropColdHistory();
+        assertFalse(Files.exists(file), "Dropping cold history should delete the file");
+        assertTrue(log.firstSequence() > 0);
+        assertEquals(log.firstSequence(), log.page(0, 1).entries().get(0).sequence(),
+                "Queries should start at the first entry still available");
+        assertThrows(IndexOutOfBoundsException.class, () -> log.amountAt(0));
+    }
+
+    @Test
+    @DisplayName("Should keep entries in memory and spilled history readable when a spill fails")
+    void testSpillFailureKeepsHistory() throws IOException {
+        Path file = tempDir.resolve("history.cold");
+        AtomicInteger failures = new AtomicInteger();
+        log.enableTiering(file, 0, failures::incrementAndGet);
+        fill(3 * ColdHistory.BLOCK_ENTRIES);
+        assertTrue(log.inMemorySize() < log.size(), "Some entries should be on disk before the failure");
+
+        // A counterparty too long for the cold file's format makes the next spill fail
+        String tooLong = "X".repeat(0x10000);
+        int bad = log.size();
+        log.append(bad * 10L, TransactionType.TRANSFER_IN, 1, bad + 1, tooLong);
+        for (int i = bad + 1; i < bad + 4 * ColdHistory.BLOCK_ENTRIES; i++) {
+            log.append(i * 10L, TransactionType.DEPOSIT, 1, i + 1, null);
+        }
+
+        assertInstanceOf(IllegalArgumentException.class, log.getSpillFailure());
+        assertEquals(1, failures.get(), "The failure should be reported once");
+        assertEquals(0, log.firstSequence(), "Spilled history should not be dropped");
+        assertTrue(Files.exists(file), "The cold file should be kept");
+        assertEquals(1, log.balanceAfterAt(0), "Entries on disk should still be readable");
+        assertEquals(tooLong, log.counterpartyAt(bad), "The entry that failed to spill should stay in memory");
+        assertTrue(log.inMemorySize() >= log.size() - bad, "Nothing from the failed block on should move to disk");
+    }
+}
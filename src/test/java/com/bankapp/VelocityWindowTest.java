@@ -0,0 +1,53 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityWindowTest {
+
+    @Test
+    @DisplayName("Should limit the number and total of withdrawals over a sliding window")
+    void testSlidingWindow() {
+        // Three withdrawals or $100.00 per 8 seconds, counted in one-second buckets
+        WithdrawalLimits limits = new WithdrawalLimits(3, 10_000, 8_000, WithdrawalLimits.NO_LIMIT);
+        VelocityWindow window = new VelocityWindow();
+        long start = 1_000_000;
+        assertTrue(window.tryAcquire(start, 6_000, limits) >= 0);
+        assertEquals(-1, window.tryAcquire(start + 500, 4_001, limits), "Should stop at the amount limit");
+        assertTrue(window.tryAcquire(start + 1_000, 4_000, limits) >= 0, "Should allow exactly the amount limit");
+        assertEquals(-1, window.tryAcquire(start + 2_000, 1, limits));
+
+        // The first withdrawal leaves the window 8 seconds later, the second one a second after that
+        assertEquals(-1, window.tryAcquire(start + 7_999, 1, limits));
+        assertTrue(window.tryAcquire(start + 8_000, 6_000, limits) >= 0);
+        long slice = window.tryAcquire(start + 9_000, 1, limits);
+        assertTrue(slice >= 0);
+        assertTrue(window.tryAcquire(start + 9_000, 1, limits) >= 0);
+        assertEquals(-1, window.tryAcquire(start + 9_000, 1, limits), "Should stop at the count limit");
+
+        window.release(slice, 1);
+        assertTrue(window.tryAcquire(start + 9_000, 1, limits) >= 0, "A released withdrawal should not count");
+    }
+
+    @Test
+    @DisplayName("Should never enforce a shorter window than configured")
+    void testShortWindowIsNotNarrowed() {
+        // 15 ms does not split into 8 whole milliseconds: the buckets are 2 ms, spanning 16 ms
+        WithdrawalLimits limits = new WithdrawalLimits(1, WithdrawalLimits.NO_LIMIT, 15, WithdrawalLimits.NO_LIMIT);
+        assertEquals(2, limits.bucketMillis());
+        VelocityWindow window = new VelocityWindow();
+        long start = 1_000_000;
+        assertTrue(window.tryAcquire(start, 1, limits) >= 0);
+        assertEquals(-1, window.tryAcquire(start + 8, 1, limits), "Still within the 15 ms window");
+        assertEquals(-1, window.tryAcquire(start + 14, 1, limits), "Still within the 15 ms window");
+        assertTrue(window.tryAcquire(start + 16, 1, limits) >= 0, "The first withdrawal should have left the window");
+
+        // Windows shorter than one millisecond per bucket still cover at least the configured time
+        WithdrawalLimits tiny = new WithdrawalLimits(1, WithdrawalLimits.NO_LIMIT, 3, WithdrawalLimits.NO_LIMIT);
+        VelocityWindow other = new VelocityWindow();
+        assertTrue(other.tryAcquire(start, 1, tiny) >= 0);
+        assertEquals(-1, other.tryAcquire(start + 2, 1, tiny));
+    }
+}
@@ -0,0 +1,298 @@
+package com.bankapp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should restore accounts, balances and history from the log")
+    void testReplayRestoresBank() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            bank.addAccount(new Account("ACC001", "Alice", 500.0));
+            bank.addAccount(new Account("ACC002", "Bob", 1000.0));
+            bank.addAccount(new Account("ACC003", "Carol", 1.0));
+            bank.findAccount("ACC001").get().deposit(25.5);
+            bank.findAccount("ACC002").get().withdraw(100.0);
+            bank.findAccount("ACC002").get().withdraw(5_000.0); // Rejected, so not logged
+            bank.transfer("ACC002", "ACC001", 50.0);
+            bank.deleteAccount("ACC003");
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(7, wal.getReplayedRecords(), "Only successful operations should be logged");
+        }
+        assertEquals(2, restored.getAccountCount(), "Deleted account should stay deleted");
+        Account alice = restored.findAccount("ACC001").get();
+        Account bob = restored.findAccount("ACC002").get();
+        assertEquals("Alice", alice.getOwnerName(), "Owner name should be restored");
+        assertEquals(57_550, alice.getBalanceCents(), "Alice's balance should be restored");
+        assertEquals(85_000, bob.getBalanceCents(), "Bob's balance should be restored");
+        assertEquals(bank.findAccount("ACC001").get().getTransactionHistory(), alice.getTransactionHistory(),
+                "History should be rebuilt entry by entry");
+    }
+
+    @Test
+    @DisplayName("Should restore interest and fee postings from the log")
+    void testReplayRestoresInterestRun() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            bank.addAccount(new Account("ACC001", "Alice", 1_000.0));
+            bank.addAccount(new Account("ACC002", "Bob", 2.0));
+            bank.applyInterestAndFees(1_500, 250);
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(5, wal.getReplayedRecords(), "Two creations, Alice's interest and both fees");
+        }
+        assertEquals(99_900, restored.findAccount("ACC001").get().getBalanceCents());
+        assertEquals(bank.findAccount("ACC001").get().getTransactionHistory(),
+                restored.findAccount("ACC001").get().getTransactionHistory());
+        assertEquals(bank.getTotalBankBalanceCents(), restored.getTotalBankBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should replay a withdrawal logged before the deposit that funded it")
+    void testReplayOutOfOrderRecords() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            bank.addAccount(new Account("ACC001", "Alice", 1.0));
+            Account alice = bank.findAccount("ACC001").get();
+            // Logged in the other order than applied, as two racing threads can; the checkpoint cuts
+            // its snapshot between the two records
+            wal.onTransaction(alice, TransactionType.WITHDRAWAL, 300, new TransactionResult(TransactionResult.Status.SUCCESS, 300));
+            wal.checkpoint(10);
+            wal.onTransaction(alice, TransactionType.DEPOSIT, 500, new TransactionResult(TransactionResult.Status.SUCCESS, 600));
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(1, wal.getReplayedRecords(), "Only the deposit should be left after the snapshot");
+        }
+        Account alice = restored.findAccount("ACC001").get();
+        assertFalse(alice.isClosed());
+        assertEquals(300, alice.getBalanceCents());
+        assertEquals(300, restored.getTotalBankBalanceCents());
+        assertTrue(alice.depositCents(1).isSuccess(), "The account should take new operations");
+        assertEquals(301, alice.getBalanceCents());
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record at the end of the log and keep appending after it")
+    void testTornTailIsDiscarded() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            bank.addAccount(new Account("ACC001", "Alice", 10.0));
+            bank.findAccount("ACC001").get().deposit(1.0);
+        }
+        Path logFile = WriteAheadLog.segmentPath(directory, 1);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3); // Simulate a crash half-way through the last write
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(1, wal.getReplayedRecords(), "Only the intact record should be replayed");
+            restored.setEventListener(wal);
+            restored.findAccount("ACC001").get().deposit(2.0);
+        }
+
+        Bank again = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, again, WriteAheadLog.Durability.ASYNC, 0)) {
+            assertEquals(2, wal.getReplayedRecords(), "New records should follow the last valid one");
+        }
+        assertEquals(1_200, again.findAccount("ACC001").get().getBalanceCents(), "Balance should include the new deposit");
+    }
+
+    @Test
+    @DisplayName("Should share fsyncs between concurrent writers")
+    void testGroupCommit() throws Exception {
+        int threads = 16;
+        int depositsPerThread = 500;
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            for (int t = 0; t < threads; t++) {
+                bank.addAccount(new Account("T" + t, "Owner " + t, 0.0));
+            }
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                Account account = bank.findAccount("T" + t).get();
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        account.depositCents(1);
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long records = threads + threads * depositsPerThread;
+            assertEquals(records, wal.getDurableRecords(), "Every acknowledged deposit should be durable");
+            assertTrue(wal.getSyncedBatches() < records,
+                    "Concurrent writers should share fsyncs: " + wal.getSyncedBatches() + " for " + records + " records");
+        }
+
+        Bank restored = new Bank();
+        WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.ASYNC, 0).close();
+        assertEquals(threads * depositsPerThread / 100.0, restored.getTotalBankBalance(), 1e-9,
+                "Replay should restore every deposit");
+    }
+
+    @Test
+    @DisplayName("Should restore from a snapshot plus the log written after it")
+    void testCheckpointThenReplayTail() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.setEventListener(wal);
+            bank.addAccount(new Account("ACC001", "Alice", 100.0));
+            bank.addAccount(new Account("ACC002", "Bob", 200.0));
+            for (int i = 0; i < 5; i++) {
+                bank.findAccount("ACC001").get().deposit(1.0);
+            }
+            assertEquals(2, wal.checkpoint(3), "Checkpoint should write both accounts");
+            assertFalse(Files.exists(WriteAheadLog.segmentPath(directory, 1)), "Sealed segment should be deleted");
+
+            bank.transfer("ACC002", "ACC001", 50.0);
+            bank.addAccount(new Account("ACC003", "Carol", 0.0));
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(2, wal.getSnapshotAccounts(), "Accounts from before the checkpoint come from the snapshot");
+            assertEquals(2, wal.getReplayedRecords(), "Only records after the checkpoint should be replayed");
+        }
+        Account alice = restored.findAccount("ACC001").get();
+        assertEquals(15_500, alice.getBalanceCents(), "Balance should combine snapshot and log");
+        assertEquals(4, alice.getTransactionCount(), "History should hold the snapshot tail plus the new transfer");
+        assertEquals("Transfer from ACC002: $50.00 | New balance: $155.00", alice.getTransactionHistory().get(3));
+        assertEquals(15_000, restored.findAccount("ACC002").get().getBalanceCents(), "Bob's balance should be restored");
+        assertTrue(restored.findAccount("ACC003").isPresent(), "Account created after the checkpoint should exist");
+    }
+
+    @Test
+    @DisplayName("Should refuse a string too long for a snapshot instead of writing a corrupt one")
+    void testSnapshotStringTooLong() {
+        Account account = new Account("ACC001", "A".repeat(70_000), 1.0);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> SnapshotFile.encode(account, 0, ByteBuffer.allocate(256)));
+        assertTrue(e.getMessage().startsWith("String too long"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should checkpoint while deposits keep running")
+    void testCheckpointUnderLoad() throws Exception {
+        Bank bank = new Bank();
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.ASYNC, 0)) {
+            bank.setEventListener(wal);
+            for (int i = 0; i < 100; i++) {
+                bank.addAccount(new Account("A" + i, "Owner " + i, 1.0));
+            }
+            Thread depositor = new Thread(() -> {
+                int i = 0;
+                while (running.get()) {
+                    bank.findAccount("A" + (i++ % 100)).get().depositCents(1);
+                }
+            });
+            depositor.start();
+            for (int round = 0; round < 5; round++) {
+                assertEquals(100, wal.checkpoint(WriteAheadLog.DEFAULT_HISTORY_TAIL), "Every account should be written");
+            }
+            running.set(false);
+            depositor.join();
+        }
+
+        Bank restored = new Bank();
+        WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.ASYNC, 0).close();
+        for (Account account : bank.getAllAccounts()) {
+            assertEquals(account.getBalanceCents(),
+                    restored.findAccount(account.getAccountNumber()).get().getBalanceCents(),
+                    "Restored balance of " + account.getAccountNumber() + " should match the live bank");
+        }
+    }
+
+    @Test
+    @DisplayName("Should log each account's creation before deposits made as soon as it is visible")
+    void testCreateRacingDeposits() throws Exception {
+        Bank bank = new Bank(4);
+        int accounts = 2_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.ASYNC, 0)) {
+            bank.setEventListener(wal);
+            Thread[] depositors = new Thread[3];
+            for (int t = 0; t < depositors.length; t++) {
+                depositors[t] = new Thread(() -> {
+                    while (running.get()) {
+                        // Deposit into the newest accounts, which the creating thread is still adding
+                        int newest = bank.getAccountCount();
+                        for (int i = Math.max(0, newest - 2); i <= newest; i++) {
+                            bank.findAccount("C" + i).ifPresent(a -> a.depositCents(1));
+                        }
+                    }
+                });
+                depositors[t].start();
+            }
+            for (int i = 0; i < accounts; i++) {
+                bank.addAccount(new Account("C" + i, "Owner " + i, 1.0));
+            }
+            running.set(false);
+            for (Thread depositor : depositors) {
+                depositor.join();
+            }
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.ASYNC, 0)) {
+            assertEquals(0, wal.getOrphanedRecords(), "No deposit should be logged ahead of its account's creation");
+        }
+        assertEquals(accounts, restored.getAccountCount());
+        for (Account account : bank.getAllAccounts()) {
+            assertEquals(account.getBalanceCents(),
+                    restored.findAccount(account.getAccountNumber()).get().getBalanceCents(),
+                    "Restored balance of " + account.getAccountNumber() + " should match the live bank");
+        }
+    }
+
+    @Test
+    @DisplayName("Should count replayed records for accounts that do not exist")
+    void testReplayReportsOrphanedRecords() throws IOException {
+        Bank bank = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, bank, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            bank.addAccount(new Account("ACC001", "Alice", 500.0)); // Not logged: listener not installed yet
+            bank.setEventListener(wal);
+            bank.findAccount("ACC001").get().deposit(10.0);
+            bank.addAccount(new Account("ACC002", "Bob", 100.0));
+            bank.findAccount("ACC002").get().deposit(10.0);
+        }
+
+        Bank restored = new Bank();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, restored, WriteAheadLog.Durability.GROUP_COMMIT, 0)) {
+            assertEquals(3, wal.getReplayedRecords());
+            assertEquals(1, wal.getOrphanedRecords(), "The deposit into the unlogged account should be reported");
+        }
+        assertEquals(11_000, restored.findAccount("ACC002").get().getBalanceCents());
+    }
+}